@@ -1,9 +1,21 @@
 package com.aklaa.api.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerCustomizer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 
 @Configuration
 @EnableAsync
 public class AsyncConfig {
+
+    /**
+     * Spring Boot schedules with a single thread by default, which would leave the check-off flush of
+     * {@code GroceryListCheckBuffer} waiting behind the nightly retention and cleanup jobs.
+     */
+    @Bean
+    public ThreadPoolTaskSchedulerCustomizer schedulerPoolSize(@Value("${spring.task.scheduling.pool.size:4}") int poolSize) {
+        return scheduler -> scheduler.setPoolSize(poolSize);
+    }
 }
@@ -0,0 +1,64 @@
+package com.aklaa.api.config;
+
+import com.aklaa.api.annotations.CurrentUser;
+import com.aklaa.api.config.security.AuthenticatedUser;
+import com.aklaa.api.dao.UserRepository;
+import com.aklaa.api.model.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resolves {@link CurrentUser} parameters from the principal set by the JWT filter.
+ * <p>
+ * A {@link User} parameter receives a reference proxy for the authenticated user, so handing it to
+ * repositories or using it as a foreign key does not trigger a SELECT. The proxy is created once per request.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private static final String CURRENT_USER_ATTRIBUTE = CurrentUserArgumentResolver.class.getName() + ".user";
+
+    private final UserRepository userRepository;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentUser.class)
+                && (parameter.getParameterType() == User.class
+                || parameter.getParameterType() == AuthenticatedUser.class);
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter,
+                                  ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest,
+                                  WebDataBinderFactory binderFactory) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedUser principal)) {
+            throw new AuthenticationCredentialsNotFoundException("No authenticated user");
+        }
+
+        if (parameter.getParameterType() == AuthenticatedUser.class) {
+            return principal;
+        }
+
+        Object cached = webRequest.getAttribute(CURRENT_USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (cached instanceof User user) {
+            return user;
+        }
+
+        User reference = userRepository.getReferenceById(principal.id());
+        webRequest.setAttribute(CURRENT_USER_ATTRIBUTE, reference, RequestAttributes.SCOPE_REQUEST);
+        return reference;
+    }
+}
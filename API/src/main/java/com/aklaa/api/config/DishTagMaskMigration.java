@@ -0,0 +1,108 @@
+package com.aklaa.api.config;
+
+import com.aklaa.api.model.enums.DishTag;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One-off migration from the comma separated {@code dishes.tags} column to the {@code dishes.tag_mask} bitmask.
+ * <p>
+ * Runs after Hibernate has added the new column. Once all rows are converted the old column is dropped.
+ * Tags that no longer exist are logged and left out of the mask.
+ * </p>
+ */
+@Slf4j
+@Component
+public class DishTagMaskMigration implements SchemaMigration {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public DishTagMaskMigration(DataSource dataSource, TransactionTemplate transactionTemplate) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public String name() {
+        return "dish-tag-mask";
+    }
+
+    @Override
+    public void migrate() {
+        String legacyColumn = findLegacyColumn();
+        if (legacyColumn == null) {
+            return;
+        }
+
+        log.info("Migrating dishes.{} to dishes.tag_mask", legacyColumn);
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Object[]> updates = new ArrayList<>();
+            jdbcTemplate.query(
+                    "SELECT id, " + legacyColumn + " FROM dishes WHERE " + legacyColumn + " IS NOT NULL AND " + legacyColumn + " <> ''",
+                    rs -> {
+                        updates.add(new Object[]{toMask(rs.getLong(1), rs.getString(2)), rs.getLong(1)});
+                        if (updates.size() == BATCH_SIZE) {
+                            jdbcTemplate.batchUpdate("UPDATE dishes SET tag_mask = ? WHERE id = ?", updates);
+                            updates.clear();
+                        }
+                    }
+            );
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate("UPDATE dishes SET tag_mask = ? WHERE id = ?", updates);
+            }
+        });
+        jdbcTemplate.execute("ALTER TABLE dishes DROP COLUMN " + legacyColumn);
+    }
+
+    private static int toMask(long dishId, String tags) {
+        return DishTag.toMask(Arrays.stream(tags.split(","))
+                .map(String::trim)
+                .filter(tag -> !tag.isEmpty())
+                .map(tag -> {
+                    try {
+                        return DishTag.valueOf(tag);
+                    } catch (IllegalArgumentException e) {
+                        log.warn("Skipping unknown tag '{}' of dish {}", tag, dishId);
+                        return null;
+                    }
+                })
+                .filter(Objects::nonNull)
+                .toList());
+    }
+
+    private String findLegacyColumn() {
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String table : List.of("dishes", "DISHES")) {
+                try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, table, null)) {
+                    while (columns.next()) {
+                        String column = columns.getString("COLUMN_NAME");
+                        if ("tags".equalsIgnoreCase(column)) {
+                            return column;
+                        }
+                    }
+                }
+            }
+            return null;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not inspect the dishes table", e);
+        }
+    }
+}
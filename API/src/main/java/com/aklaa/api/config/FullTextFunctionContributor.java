@@ -0,0 +1,27 @@
+package com.aklaa.api.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers {@code match_against} functions so criteria queries can use MySQL's
+ * {@code MATCH(...) AGAINST(... IN BOOLEAN MODE)}. The last argument is always the search expression.
+ */
+public class FullTextFunctionContributor implements FunctionContributor {
+
+    public static final String MATCH_AGAINST_1 = "match_against_1";
+    public static final String MATCH_AGAINST_2 = "match_against_2";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        var doubleType = functionContributions.getTypeConfiguration()
+                .getBasicTypeRegistry()
+                .resolve(StandardBasicTypes.DOUBLE);
+
+        functionContributions.getFunctionRegistry()
+                .registerPattern(MATCH_AGAINST_1, "match(?1) against(?2 in boolean mode)", doubleType);
+        functionContributions.getFunctionRegistry()
+                .registerPattern(MATCH_AGAINST_2, "match(?1, ?2) against(?3 in boolean mode)", doubleType);
+    }
+}
@@ -0,0 +1,101 @@
+package com.aklaa.api.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Decides whether searches can use MySQL FULLTEXT indexes and makes sure those indexes exist.
+ * <p>
+ * The indexes use the ngram parser so partial words match like the old {@code LIKE '%term%'} search did.
+ * On any other database, or when the indexes cannot be created, searches keep using {@code LIKE}.
+ * </p>
+ */
+@Slf4j
+@Component
+public class FullTextSearch {
+
+    public static final String DISHES_INDEX = "ft_dishes_name_description";
+    public static final String INGREDIENTS_NAME_INDEX = "ft_ingredients_name";
+    public static final String INGREDIENTS_INDEX = "ft_ingredients_name_description";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean requested;
+    private final int minTermLength;
+
+    private volatile boolean enabled;
+
+    public FullTextSearch(
+            DataSource dataSource,
+            @Value("${search.fulltext.enabled:true}") boolean requested,
+            @Value("${search.fulltext.min-term-length:2}") int minTermLength
+    ) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.requested = requested;
+        this.minTermLength = minTermLength;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!requested || !isMySql()) {
+            return;
+        }
+
+        try {
+            ensureIndex("dishes", DISHES_INDEX, "name, description");
+            ensureIndex("ingredients", INGREDIENTS_NAME_INDEX, "name");
+            ensureIndex("ingredients", INGREDIENTS_INDEX, "name, description");
+            enabled = true;
+        } catch (DataAccessException e) {
+            log.warn("Full-text indexes are not available, falling back to LIKE search", e);
+        }
+    }
+
+    /**
+     * @return {@code true} if the given term should be searched with the full-text indexes.
+     * Terms shorter than the ngram token size cannot be matched by the index and use {@code LIKE} instead.
+     */
+    public boolean appliesTo(String term) {
+        return enabled && term != null && term.strip().length() >= minTermLength;
+    }
+
+    /**
+     * Turns a user search term into a boolean-mode phrase, so operators typed by the user are not interpreted.
+     */
+    public static String phrase(String term) {
+        return '"' + term.strip().replace("\"", " ") + '"';
+    }
+
+    private boolean isMySql() {
+        try (Connection connection = dataSource.getConnection()) {
+            return "MySQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void ensureIndex(String table, String index, String columns) {
+        Integer existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.statistics " +
+                        "WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ?",
+                Integer.class, table, index
+        );
+
+        if (existing == null || existing == 0) {
+            log.info("Creating full-text index {} on {}", index, table);
+            jdbcTemplate.execute(
+                    "ALTER TABLE " + table + " ADD FULLTEXT INDEX " + index + " (" + columns + ") WITH PARSER ngram"
+            );
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.aklaa.api.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Range-partitions {@code grocery_lists} and {@code grocery_list_ingredient} by creation month on MySQL,
+ * so expired months can be dropped instead of deleted row by row.
+ * <p>
+ * Both tables get one partition per month, named {@code pYYYYMM}, plus a {@code pmax} catch-all. An item is
+ * never created before its list, so its month is never earlier than the list's and dropping an expired
+ * month never removes items of a list that is kept. Items added to a list in a later month are in a later
+ * partition, so retention deletes them by list id before dropping the month of their list.
+ * </p>
+ * <p>
+ * MySQL does not allow foreign keys on partitioned tables and needs the partition column in every unique key,
+ * so converting drops the foreign keys of both tables and adds {@code created_at} to their keys. The JPA
+ * mappings keep declaring the foreign keys, so unpartitioned databases keep them; on a partitioned database a
+ * schema update cannot add them back and only logs that. The conversion rewrites both tables once and only
+ * runs when {@code grocerylists.partitioning.enabled} is set. On any other database nothing is partitioned
+ * and retention deletes rows in chunks.
+ * </p>
+ */
+@Slf4j
+@Component
+public class GroceryListPartitioning {
+
+    public static final String LISTS_TABLE = "grocery_lists";
+    public static final String ITEMS_TABLE = "grocery_list_ingredient";
+
+    private static final String CATCH_ALL = "pmax";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("'p'uuuuMM");
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean requested;
+    private final int monthsAhead;
+
+    private volatile boolean enabled;
+
+    public GroceryListPartitioning(
+            DataSource dataSource,
+            @Value("${grocerylists.partitioning.enabled:false}") boolean requested,
+            @Value("${grocerylists.partitioning.months-ahead:3}") int monthsAhead
+    ) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.requested = requested;
+        this.monthsAhead = Math.max(1, monthsAhead);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!isMySql()) {
+            return;
+        }
+
+        try {
+            if (isPartitioned(LISTS_TABLE) && isPartitioned(ITEMS_TABLE)) {
+                enabled = true;
+            } else if (requested) {
+                partition();
+                enabled = true;
+            }
+            if (enabled) {
+                addUpcomingPartitions();
+            }
+        } catch (DataAccessException e) {
+            log.warn("Grocery lists are not partitioned, retention falls back to chunked deletes", e);
+        }
+    }
+
+    /**
+     * @return {@code true} if both tables are partitioned by month and expired months can be dropped.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Monthly partitions of a table that only hold rows created before {@code cutoff}, oldest first.
+     */
+    public List<String> partitionsBefore(String table, LocalDateTime cutoff) {
+        return monthlyPartitions(table).stream()
+                .filter(month -> !month.plusMonths(1).atDay(1).atStartOfDay().isAfter(cutoff))
+                .map(PARTITION_NAME::format)
+                .toList();
+    }
+
+    public long countRows(String table, String partition) {
+        Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " PARTITION (" + partition + ")", Long.class);
+        return rows == null ? 0 : rows;
+    }
+
+    /**
+     * Ids of the grocery lists in a partition of {@link #LISTS_TABLE} after {@code afterId}, in ascending order.
+     */
+    public List<Long> findListIds(String partition, long afterId, int limit) {
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM " + LISTS_TABLE + " PARTITION (" + partition + ") WHERE id > ? ORDER BY id LIMIT ?",
+                Long.class, afterId, limit
+        );
+    }
+
+    public void drop(String table, String partition) {
+        jdbcTemplate.execute("ALTER TABLE " + table + " DROP PARTITION " + partition);
+    }
+
+    /**
+     * Splits the months up to {@code grocerylists.partitioning.months-ahead} from now off the catch-all partition.
+     * The catch-all is empty in normal operation, so this does not move rows.
+     */
+    public void addUpcomingPartitions() {
+        YearMonth last = YearMonth.now().plusMonths(monthsAhead);
+        for (String table : List.of(LISTS_TABLE, ITEMS_TABLE)) {
+            List<YearMonth> existing = monthlyPartitions(table);
+            YearMonth next = existing.isEmpty() ? YearMonth.now() : existing.get(existing.size() - 1).plusMonths(1);
+            if (next.isAfter(last)) {
+                continue;
+            }
+
+            List<String> definitions = new ArrayList<>();
+            for (YearMonth month = next; !month.isAfter(last); month = month.plusMonths(1)) {
+                definitions.add(definition(month));
+            }
+            definitions.add("PARTITION " + CATCH_ALL + " VALUES LESS THAN (MAXVALUE)");
+            log.info("Adding {} monthly partitions to {}", definitions.size() - 1, table);
+            jdbcTemplate.execute("ALTER TABLE " + table + " REORGANIZE PARTITION " + CATCH_ALL + " INTO ("
+                    + String.join(", ", definitions) + ")");
+        }
+    }
+
+    private void partition() {
+        log.info("Partitioning {} and {} by creation month", LISTS_TABLE, ITEMS_TABLE);
+
+        jdbcTemplate.update("UPDATE " + LISTS_TABLE + " SET created_at = COALESCE(updated_at, NOW(6)) WHERE created_at IS NULL");
+        jdbcTemplate.update("UPDATE " + ITEMS_TABLE + " i JOIN " + LISTS_TABLE + " g ON g.id = i.grocery_list_id "
+                + "SET i.created_at = g.created_at WHERE i.created_at IS NULL");
+        jdbcTemplate.update("UPDATE " + ITEMS_TABLE + " SET created_at = NOW(6) WHERE created_at IS NULL");
+
+        jdbcTemplate.query(
+                "SELECT table_name, constraint_name FROM information_schema.referential_constraints "
+                        + "WHERE constraint_schema = DATABASE() AND (table_name IN (?, ?) OR referenced_table_name IN (?, ?))",
+                rs -> {
+                    String table = rs.getString("table_name");
+                    String constraint = rs.getString("constraint_name");
+                    log.info("Dropping foreign key {} of {}", constraint, table);
+                    jdbcTemplate.execute("ALTER TABLE " + table + " DROP FOREIGN KEY " + constraint);
+                },
+                LISTS_TABLE, ITEMS_TABLE, LISTS_TABLE, ITEMS_TABLE
+        );
+
+        jdbcTemplate.execute("ALTER TABLE " + LISTS_TABLE + " MODIFY created_at DATETIME(6) NOT NULL, "
+                + "DROP PRIMARY KEY, ADD PRIMARY KEY (id, created_at)");
+        jdbcTemplate.execute("ALTER TABLE " + ITEMS_TABLE + " MODIFY created_at DATETIME(6) NOT NULL, "
+                + "DROP INDEX uk_grocery_list_item_slot, ADD UNIQUE KEY uk_grocery_list_item_slot (grocery_list_id, slot, created_at), "
+                + "DROP PRIMARY KEY, ADD PRIMARY KEY (grocery_list_id, ingredient_id, created_at)");
+
+        LocalDateTime oldest = jdbcTemplate.queryForObject("SELECT MIN(created_at) FROM " + LISTS_TABLE, LocalDateTime.class);
+        YearMonth first = oldest == null ? YearMonth.now() : YearMonth.from(oldest);
+        String partitions = Stream.iterate(first, month -> !month.isAfter(YearMonth.now()), month -> month.plusMonths(1))
+                .map(this::definition)
+                .collect(Collectors.joining(", "));
+
+        for (String table : List.of(LISTS_TABLE, ITEMS_TABLE)) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " PARTITION BY RANGE COLUMNS (created_at) ("
+                    + partitions + ", PARTITION " + CATCH_ALL + " VALUES LESS THAN (MAXVALUE))");
+        }
+    }
+
+    private String definition(YearMonth month) {
+        return "PARTITION " + PARTITION_NAME.format(month)
+                + " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1) + " 00:00:00')";
+    }
+
+    private List<YearMonth> monthlyPartitions(String table) {
+        return jdbcTemplate.queryForList(
+                        "SELECT partition_name FROM information_schema.partitions "
+                                + "WHERE table_schema = DATABASE() AND table_name = ? AND partition_name IS NOT NULL "
+                                + "ORDER BY partition_ordinal_position",
+                        String.class, table
+                ).stream()
+                .filter(name -> !CATCH_ALL.equals(name))
+                .map(name -> YearMonth.parse(name, PARTITION_NAME))
+                .toList();
+    }
+
+    private boolean isPartitioned(String table) {
+        Integer partitions = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.partitions "
+                        + "WHERE table_schema = DATABASE() AND table_name = ? AND partition_name IS NOT NULL",
+                Integer.class, table
+        );
+        return partitions != null && partitions > 0;
+    }
+
+    private boolean isMySql() {
+        try (Connection connection = dataSource.getConnection()) {
+            return "MySQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+}
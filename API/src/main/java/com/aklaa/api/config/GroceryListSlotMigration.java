@@ -0,0 +1,79 @@
+package com.aklaa.api.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One-off backfill of {@code grocery_list_ingredient.slot} for items created before the column existed.
+ * <p>
+ * Items without a slot cannot be checked off. Every such item gets the next free slot of its list,
+ * in ingredient id order.
+ * </p>
+ */
+@Slf4j
+@Component
+public class GroceryListSlotMigration implements SchemaMigration {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public GroceryListSlotMigration(DataSource dataSource, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public String name() {
+        return "grocery-list-slots";
+    }
+
+    @Override
+    public void migrate() {
+        Integer missing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM grocery_list_ingredient WHERE slot IS NULL", Integer.class);
+        if (missing != null && missing > 0) {
+            log.info("Backfilling grocery_list_ingredient.slot for {} rows", missing);
+            transactionTemplate.executeWithoutResult(status -> backfill());
+        }
+    }
+
+    private void backfill() {
+        // The first free slot of every list that already has slotted items; lists without any start at 0.
+        Map<Long, Integer> nextSlots = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT grocery_list_id, MAX(slot) + 1 AS next_slot FROM grocery_list_ingredient WHERE slot IS NOT NULL GROUP BY grocery_list_id",
+                rs -> {
+                    nextSlots.put(rs.getLong("grocery_list_id"), rs.getInt("next_slot"));
+                }
+        );
+
+        List<Object[]> updates = new ArrayList<>();
+        jdbcTemplate.query(
+                "SELECT grocery_list_id, ingredient_id FROM grocery_list_ingredient WHERE slot IS NULL ORDER BY grocery_list_id, ingredient_id",
+                rs -> {
+                    long groceryListId = rs.getLong("grocery_list_id");
+                    // Hands out the next free slot and advances it.
+                    int slot = nextSlots.merge(groceryListId, 1, Integer::sum) - 1;
+
+                    updates.add(new Object[]{slot, groceryListId, rs.getLong("ingredient_id")});
+                    if (updates.size() == BATCH_SIZE) {
+                        jdbcTemplate.batchUpdate("UPDATE grocery_list_ingredient SET slot = ? WHERE grocery_list_id = ? AND ingredient_id = ?", updates);
+                        updates.clear();
+                    }
+                }
+        );
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE grocery_list_ingredient SET slot = ? WHERE grocery_list_id = ? AND ingredient_id = ?", updates);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.aklaa.api.config;
+
+import com.aklaa.api.model.IdGenerators;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Makes sure every table-backed ID generator starts above the highest ID already in its table.
+ * <p>
+ * The tables used to be filled with auto-increment IDs. Without a seeded row Hibernate would start at 1 and collide
+ * with the existing rows. Runs once, so a table that moves to a generator later needs a migration of its own.
+ * </p>
+ */
+@Component
+public class IdGeneratorSeeder implements SchemaMigration {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdGeneratorSeeder(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public String name() {
+        return "id-generator-seed";
+    }
+
+    @Override
+    public void migrate() {
+        IdGenerators.TABLES.forEach((generator, table) -> {
+            long nextId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table, Long.class);
+
+            int updated = jdbcTemplate.update(
+                    "UPDATE " + IdGenerators.TABLE + " SET " + IdGenerators.VALUE_COLUMN + " = ? " +
+                            "WHERE " + IdGenerators.NAME_COLUMN + " = ? AND " + IdGenerators.VALUE_COLUMN + " < ?",
+                    nextId, generator, nextId
+            );
+            if (updated == 0) {
+                Integer existing = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM " + IdGenerators.TABLE + " WHERE " + IdGenerators.NAME_COLUMN + " = ?",
+                        Integer.class, generator
+                );
+                if (existing == null || existing == 0) {
+                    jdbcTemplate.update(
+                            "INSERT INTO " + IdGenerators.TABLE + " (" + IdGenerators.NAME_COLUMN + ", " + IdGenerators.VALUE_COLUMN + ") VALUES (?, ?)",
+                            generator, nextId
+                    );
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,139 @@
+package com.aklaa.api.config;
+
+import com.aklaa.api.model.Ingredient;
+import com.aklaa.api.model.enums.MeasurementUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One-off backfill of {@code ingredients.identity_key} for rows created before the column existed.
+ * <p>
+ * Hibernate adds the column with an empty value and cannot create the unique (user_id, identity_key)
+ * index while those are shared. Once every row has a key the index is created here. Existing duplicates
+ * are kept as separate ingredients: every duplicate after the first gets its id appended to the key, so
+ * lookups resolve to the oldest one. Where a key would not fit in the column, its name part is shortened.
+ * </p>
+ */
+@Slf4j
+@Component
+public class IngredientIdentityKeyMigration implements SchemaMigration {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public IngredientIdentityKeyMigration(DataSource dataSource, TransactionTemplate transactionTemplate) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public String name() {
+        return "ingredient-identity-key";
+    }
+
+    @Override
+    public void migrate() {
+        Integer missing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM ingredients WHERE identity_key IS NULL OR identity_key = ''", Integer.class);
+        if (missing != null && missing > 0) {
+            log.info("Backfilling ingredients.identity_key for {} rows", missing);
+            transactionTemplate.executeWithoutResult(status -> backfill());
+        }
+
+        if (!hasIndex()) {
+            log.info("Creating unique index {}", Ingredient.IDENTITY_KEY_INDEX);
+            jdbcTemplate.execute("CREATE UNIQUE INDEX " + Ingredient.IDENTITY_KEY_INDEX + " ON ingredients (user_id, identity_key)");
+        }
+    }
+
+    private void backfill() {
+        Set<String> taken = new HashSet<>();
+        List<Object[]> updates = new ArrayList<>();
+        int[] duplicates = {0};
+
+        jdbcTemplate.query(
+                "SELECT id, user_id, name, unit, description, identity_key FROM ingredients ORDER BY id",
+                rs -> {
+                    long id = rs.getLong("id");
+                    long userId = rs.getLong("user_id");
+                    String current = rs.getString("identity_key");
+                    if (current != null && !current.isEmpty()) {
+                        taken.add(userId + "/" + current);
+                        return;
+                    }
+
+                    String unit = rs.getString("unit");
+                    String identity = Ingredient.keyOf(
+                            rs.getString("name"),
+                            unit == null ? null : MeasurementUnit.valueOf(unit),
+                            rs.getString("description")
+                    );
+                    String key = fit(identity, "");
+                    if (!taken.add(userId + "/" + key)) {
+                        key = fit(identity, "#" + id);
+                        duplicates[0]++;
+                    }
+
+                    updates.add(new Object[]{key, id});
+                    if (updates.size() == BATCH_SIZE) {
+                        jdbcTemplate.batchUpdate("UPDATE ingredients SET identity_key = ? WHERE id = ?", updates);
+                        updates.clear();
+                    }
+                }
+        );
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE ingredients SET identity_key = ? WHERE id = ?", updates);
+        }
+        if (duplicates[0] > 0) {
+            log.warn("Kept {} duplicate ingredients apart by suffixing their identity key with their id", duplicates[0]);
+        }
+    }
+
+    /**
+     * Appends the suffix to the key, shortening the name part when both do not fit in the column together:
+     * a 100 character name, the longest unit and a long id take more than its 160 characters.
+     */
+    private static String fit(String key, String suffix) {
+        int overflow = key.length() + suffix.length() - Ingredient.IDENTITY_KEY_LENGTH;
+        if (overflow <= 0) {
+            return key + suffix;
+        }
+        // The name is everything before the unit and the description hash, which never contain a '|'.
+        int nameEnd = key.lastIndexOf('|', key.lastIndexOf('|') - 1);
+        return key.substring(0, nameEnd - overflow) + key.substring(nameEnd) + suffix;
+    }
+
+    private boolean hasIndex() {
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String table : List.of("ingredients", "INGREDIENTS")) {
+                try (ResultSet indexes = metaData.getIndexInfo(connection.getCatalog(), null, table, true, false)) {
+                    while (indexes.next()) {
+                        if (Ingredient.IDENTITY_KEY_INDEX.equalsIgnoreCase(indexes.getString("INDEX_NAME"))) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not inspect the ingredients table", e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.aklaa.api.config;
+
+/**
+ * A data migration that has to run once, after Hibernate updated the schema and before the application
+ * serves requests. Run in order by {@link SchemaMigrationRunner}.
+ */
+public interface SchemaMigration {
+
+    /**
+     * The name the migration is recorded under once it completed. Never change it after a release,
+     * or the migration runs again.
+     */
+    String name();
+
+    /**
+     * Runs the migration. A migration that fails is not recorded and runs again on the next startup,
+     * so it has to cope with the work of an earlier, interrupted run.
+     */
+    void migrate();
+}
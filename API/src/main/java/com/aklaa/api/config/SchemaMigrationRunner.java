@@ -0,0 +1,106 @@
+package com.aklaa.api.config;
+
+import com.aklaa.api.model.MigrationLock;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Runs the {@link SchemaMigration}s at startup, once per database.
+ * <p>
+ * Depends on the EntityManagerFactory, so Hibernate has updated the schema first. Nodes that start together take
+ * turns through the {@code migration_lock} row, which stays taken across the commits of DDL statements. A node waits
+ * up to {@code migrations.lock-timeout} for it and then fails to start; a node that died while holding it leaves it
+ * taken until {@code locked_by} is cleared by hand. Completed migrations are recorded in {@code applied_migrations}
+ * and skipped from then on.
+ * </p>
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+public class SchemaMigrationRunner {
+
+    private static final Duration POLL_INTERVAL = Duration.ofSeconds(1);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<SchemaMigration> migrations;
+    private final Duration lockTimeout;
+
+    @Autowired
+    public SchemaMigrationRunner(
+            DataSource dataSource,
+            IdGeneratorSeeder idGeneratorSeeder,
+            DishTagMaskMigration dishTagMaskMigration,
+            IngredientIdentityKeyMigration ingredientIdentityKeyMigration,
+            GroceryListSlotMigration groceryListSlotMigration,
+            @Value("${migrations.lock-timeout:5m}") Duration lockTimeout
+    ) {
+        this(dataSource, List.of(
+                idGeneratorSeeder,
+                dishTagMaskMigration,
+                ingredientIdentityKeyMigration,
+                groceryListSlotMigration
+        ), lockTimeout);
+    }
+
+    SchemaMigrationRunner(DataSource dataSource, List<SchemaMigration> migrations, Duration lockTimeout) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.migrations = migrations;
+        this.lockTimeout = lockTimeout;
+    }
+
+    @PostConstruct
+    public void run() {
+        String owner = UUID.randomUUID().toString();
+        lock(owner);
+        try {
+            Set<String> applied = new HashSet<>(jdbcTemplate.queryForList("SELECT name FROM applied_migrations", String.class));
+            for (SchemaMigration migration : migrations) {
+                if (applied.contains(migration.name())) {
+                    continue;
+                }
+                log.info("Running migration {}", migration.name());
+                migration.migrate();
+                jdbcTemplate.update("INSERT INTO applied_migrations (name, applied_at) VALUES (?, CURRENT_TIMESTAMP)", migration.name());
+            }
+        } finally {
+            jdbcTemplate.update("UPDATE migration_lock SET locked_by = NULL, locked_at = NULL WHERE id = ? AND locked_by = ?",
+                    MigrationLock.ID, owner);
+        }
+    }
+
+    private void lock(String owner) {
+        try {
+            jdbcTemplate.update("INSERT INTO migration_lock (id) VALUES (?)", MigrationLock.ID);
+        } catch (DuplicateKeyException e) {
+            // Created by an earlier startup or by a node starting at the same time.
+        }
+
+        long deadline = System.nanoTime() + lockTimeout.toNanos();
+        while (jdbcTemplate.update("UPDATE migration_lock SET locked_by = ?, locked_at = CURRENT_TIMESTAMP WHERE id = ? AND locked_by IS NULL",
+                owner, MigrationLock.ID) == 0) {
+            if (System.nanoTime() - deadline > 0) {
+                String holder = jdbcTemplate.queryForObject("SELECT locked_by FROM migration_lock WHERE id = ?", String.class, MigrationLock.ID);
+                throw new IllegalStateException("Migrations are locked by " + holder + "; clear migration_lock.locked_by if that node is gone");
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the migration lock", e);
+            }
+        }
+    }
+}
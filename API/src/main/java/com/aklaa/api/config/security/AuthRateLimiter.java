@@ -0,0 +1,140 @@
+package com.aklaa.api.config.security;
+
+import com.aklaa.api.exceptions.TooManyRequestsException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process token-bucket throttling for the anonymous authentication endpoints.
+ * Every attempt consumes one token from the bucket of the client IP and one from the bucket of the email address.
+ * Buckets live in a bounded cache and are dropped once they have been idle for longer than a full refill.
+ */
+@Component
+public class AuthRateLimiter {
+
+    public static final String LOGIN = "login";
+    public static final String PASSWORD_RESET = "password-reset";
+
+    private final Limit emailLimit;
+    private final Limit ipLimit;
+    private final Cache<String, TokenBucket> buckets;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoTime;
+
+    @Autowired
+    public AuthRateLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${auth.rate-limit.email.capacity:5}") int emailCapacity,
+            @Value("${auth.rate-limit.email.refill-period:1m}") Duration emailRefillPeriod,
+            @Value("${auth.rate-limit.ip.capacity:20}") int ipCapacity,
+            @Value("${auth.rate-limit.ip.refill-period:1m}") Duration ipRefillPeriod,
+            @Value("${auth.rate-limit.max-keys:100000}") long maxKeys
+    ) {
+        this(meterRegistry, emailCapacity, emailRefillPeriod, ipCapacity, ipRefillPeriod, maxKeys, System::nanoTime);
+    }
+
+    AuthRateLimiter(
+            MeterRegistry meterRegistry,
+            int emailCapacity,
+            Duration emailRefillPeriod,
+            int ipCapacity,
+            Duration ipRefillPeriod,
+            long maxKeys,
+            LongSupplier nanoTime
+    ) {
+        this.meterRegistry = meterRegistry;
+        this.nanoTime = nanoTime;
+        this.emailLimit = new Limit(emailCapacity, emailRefillPeriod);
+        this.ipLimit = new Limit(ipCapacity, ipRefillPeriod);
+
+        Duration idle = emailRefillPeriod.compareTo(ipRefillPeriod) > 0 ? emailRefillPeriod : ipRefillPeriod;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idle)
+                .ticker(nanoTime::getAsLong)
+                .build();
+
+        Gauge.builder("auth.rate-limit.buckets", buckets, Cache::estimatedSize)
+                .description("Active authentication rate-limit buckets")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Consumes one token for the given action from both the IP and the email bucket.
+     *
+     * @throws TooManyRequestsException if either bucket is empty
+     */
+    public void acquire(String action, String email, String clientIp) {
+        long now = nanoTime.getAsLong();
+
+        if (clientIp != null) {
+            tryConsume(action, "ip", clientIp, ipLimit, now);
+        }
+        if (email != null && !email.isBlank()) {
+            tryConsume(action, "email", email.trim().toLowerCase(Locale.ROOT), emailLimit, now);
+        }
+
+        meterRegistry.counter("auth.rate-limit.requests", "action", action, "result", "allowed").increment();
+    }
+
+    private void tryConsume(String action, String scope, String key, Limit limit, long now) {
+        TokenBucket bucket = buckets.get(action + ':' + scope + ':' + key, k -> new TokenBucket(limit, now));
+        long waitNanos = bucket.tryConsume(now);
+        if (waitNanos > 0) {
+            meterRegistry.counter("auth.rate-limit.requests", "action", action, "result", "rejected-" + scope).increment();
+            throw new TooManyRequestsException(
+                    "Too many attempts, please try again later.",
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1))
+            );
+        }
+    }
+
+    private record Limit(int capacity, long nanosPerToken) {
+        Limit(int capacity, Duration refillPeriod) {
+            this(capacity, Math.max(1, refillPeriod.toNanos() / capacity));
+        }
+    }
+
+    /**
+     * Lock-free token bucket. The state is a single "theoretical arrival time": the instant at which the bucket
+     * will be full again. Consuming a token pushes it forward by one refill interval, refilling is implicit.
+     */
+    private static final class TokenBucket {
+        private final Limit limit;
+        private final AtomicLong fullAt;
+
+        TokenBucket(Limit limit, long now) {
+            this.limit = limit;
+            this.fullAt = new AtomicLong(now);
+        }
+
+        /**
+         * @return 0 if a token was consumed, otherwise the nanoseconds until the next token becomes available
+         */
+        long tryConsume(long now) {
+            long burst = limit.nanosPerToken() * limit.capacity();
+            while (true) {
+                long current = fullAt.get();
+                long next = Math.max(current, now) + limit.nanosPerToken();
+                long overflow = next - now - burst;
+                if (overflow > 0) {
+                    return overflow;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.aklaa.api.config.security;
+
+import com.aklaa.api.dao.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@Component
+public class AuthenticatedUserCache {
+
+    private final UserRepository userRepository;
+    private final Cache<Long, AuthenticatedUser> principals;
+
+    public AuthenticatedUserCache(
+            UserRepository userRepository,
+            @Value("${auth.principal-cache.max-size:10000}") long maxSize,
+            @Value("${auth.principal-cache.ttl:5m}") Duration ttl
+    ) {
+        this.userRepository = userRepository;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public Optional<AuthenticatedUser> get(Long userId) {
+        return Optional.ofNullable(principals.get(userId, id ->
+                userRepository.findById(id).map(AuthenticatedUser::from).orElse(null)));
+    }
+
+    public void invalidate(Long userId) {
+        principals.invalidate(userId);
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate(event.userId());
+    }
+}
@@ -1,7 +1,5 @@
 package com.aklaa.api.config.security;
 
-import com.aklaa.api.dao.UserRepository;
-import com.aklaa.api.model.User;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -14,18 +12,17 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.text.ParseException;
 import java.util.Optional;
 
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserRepository userRepository;
+    private final AuthenticatedUserCache authenticatedUserCache;
 
-    public JwtAuthFilter(JwtService jwtService, UserRepository userRepository) {
+    public JwtAuthFilter(JwtService jwtService, AuthenticatedUserCache authenticatedUserCache) {
         this.jwtService = jwtService;
-        this.userRepository = userRepository;
+        this.authenticatedUserCache = authenticatedUserCache;
     }
 
     @Override
@@ -34,7 +31,6 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                                     FilterChain filterChain) throws ServletException, IOException {
 
         String jwt = null;
-        String userId = null;
 
         final String authHeader = request.getHeader("Authorization");
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
@@ -51,23 +47,22 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
 
         if (jwt != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                userId = jwtService.getSubject(jwt);
+                Optional<VerifiedJwt> verified = jwtService.verify(jwt);
 
-                if (jwtService.validateToken(jwt)) {
-                    String tokenType = jwtService.getClaim(jwt, "type");
-                    if (!"access".equals(tokenType)) {
+                if (verified.isPresent()) {
+                    if (!verified.get().isAccessToken()) {
                         logger.error("Invalid token type: Only access tokens are allowed");
                         filterChain.doFilter(request, response);
                         return;
                     }
 
-                    Optional<User> optionalUser = userRepository.findById(Long.parseLong(userId));
+                    Optional<AuthenticatedUser> optionalUser = authenticatedUserCache.get(verified.get().userId());
                     if (optionalUser.isEmpty()) {
                         filterChain.doFilter(request, response);
                         return;
                     }
 
-                    User user = optionalUser.get();
+                    AuthenticatedUser user = optionalUser.get();
                     UsernamePasswordAuthenticationToken authToken =
                             new UsernamePasswordAuthenticationToken(
                                     user,
@@ -1,8 +1,10 @@
 package com.aklaa.api.config.security;
 
 import com.aklaa.api.exceptions.JwtCreationException;
-import com.aklaa.api.exceptions.JwtParseException;
 import com.aklaa.api.model.enums.UserType;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.nimbusds.jose.*;
 import com.nimbusds.jose.crypto.MACSigner;
 import com.nimbusds.jose.crypto.MACVerifier;
@@ -12,15 +14,40 @@ import com.nimbusds.jwt.SignedJWT;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.text.ParseException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.Optional;
 
 @Component
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private final JWSSigner signer;
+    private final JWSVerifier verifier;
+
+    /**
+     * Verified tokens keyed by the SHA-256 digest of the serialized token.
+     * Entries expire together with the token itself, so a cached hit never outlives its JWT.
+     */
+    private final Cache<String, VerifiedJwt> verifiedTokens;
+
+    public JwtService(
+            @Value("${jwt.secret}") String secret,
+            @Value("${jwt.cache.max-size:10000}") long cacheMaxSize
+    ) throws JOSEException {
+        this.signer = new MACSigner(secret);
+        this.verifier = new MACVerifier(secret);
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(Expiry.creating((String key, VerifiedJwt jwt) ->
+                        Duration.between(Instant.now(), jwt.expiresAt())))
+                .build();
+    }
 
     public String generateToken(long id, UserType role) {
         try {
@@ -36,7 +63,6 @@ public class JwtService {
 
             JWSHeader header = new JWSHeader(JWSAlgorithm.HS256);
             SignedJWT signedJWT = new SignedJWT(header, claimsSet);
-            JWSSigner signer = new MACSigner(secret);
 
             signedJWT.sign(signer);
             return signedJWT.serialize();
@@ -60,7 +86,6 @@ public class JwtService {
 
             JWSHeader header = new JWSHeader(JWSAlgorithm.HS256);
             SignedJWT signedJWT = new SignedJWT(header, claimsSet);
-            JWSSigner signer = new MACSigner(secret);
 
             signedJWT.sign(signer);
             return signedJWT.serialize();
@@ -70,58 +95,62 @@ public class JwtService {
         }
     }
 
-    public boolean validateToken(String token) {
-        try {
-            SignedJWT signedJWT = SignedJWT.parse(token);
-            JWSVerifier verifier = new MACVerifier(secret);
-            return signedJWT.verify(verifier) && !isTokenExpired(signedJWT);
-        } catch (Exception e) {
-            return false;
+    /**
+     * Parses and verifies a token once and returns its claims.
+     * Repeated calls with the same token are answered from the cache until the token expires.
+     *
+     * @param token the serialized JWT
+     * @return the verified claims, or empty if the token is malformed, tampered with or expired
+     */
+    public Optional<VerifiedJwt> verify(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
         }
-    }
 
-    private boolean isTokenExpired(SignedJWT signedJWT) {
-        try {
-            Date expirationTime = signedJWT.getJWTClaimsSet().getExpirationTime();
-            return expirationTime.before(new Date());
-        } catch (ParseException e) {
-            throw new JwtParseException("Failed to read expiration time from JWT", e);
+        String key = digest(token);
+        VerifiedJwt cached = verifiedTokens.getIfPresent(key);
+        if (cached != null) {
+            return cached.isExpired() ? Optional.empty() : Optional.of(cached);
         }
-    }
 
-    public String getSubject(String token) {
-        try {
-            SignedJWT signedJWT = SignedJWT.parse(token);
-            return signedJWT.getJWTClaimsSet().getSubject();
-        } catch (ParseException e) {
-            throw new JwtParseException("Failed to parse JWT token", e);
-        }
+        Optional<VerifiedJwt> verified = parseAndVerify(token);
+        verified.ifPresent(jwt -> verifiedTokens.put(key, jwt));
+        return verified;
     }
 
-    public UserType getRoleFromToken(String token) {
+    private Optional<VerifiedJwt> parseAndVerify(String token) {
         try {
             SignedJWT signedJWT = SignedJWT.parse(token);
-            String role = signedJWT.getJWTClaimsSet().getStringClaim("role");
-
-            if (role == null) {
-                throw new JwtParseException("JWT token missing 'role' claim", null);
+            if (!signedJWT.verify(verifier)) {
+                return Optional.empty();
             }
 
-            return UserType.valueOf(role);
+            JWTClaimsSet claims = signedJWT.getJWTClaimsSet();
+            Date expirationTime = claims.getExpirationTime();
+            if (expirationTime == null || claims.getSubject() == null) {
+                return Optional.empty();
+            }
 
-        } catch (ParseException e) {
-            throw new JwtParseException("Failed to parse role from JWT", e);
-        } catch (IllegalArgumentException e) {
-            throw new JwtParseException("Invalid role value inside JWT", e);
+            String role = claims.getStringClaim("role");
+            VerifiedJwt jwt = new VerifiedJwt(
+                    Long.parseLong(claims.getSubject()),
+                    role != null ? UserType.valueOf(role) : null,
+                    claims.getStringClaim("type"),
+                    expirationTime.toInstant()
+            );
+            return jwt.isExpired() ? Optional.empty() : Optional.of(jwt);
+        } catch (Exception e) {
+            return Optional.empty();
         }
     }
 
-    public String getClaim(String token, String claim) {
+    private static String digest(String token) {
         try {
-            SignedJWT signedJWT = SignedJWT.parse(token);
-            return signedJWT.getJWTClaimsSet().getStringClaim(claim);
-        } catch (ParseException e) {
-            throw new JwtParseException("Failed to parse claim '" + claim + "' from JWT", e);
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         }
     }
-}
\ No newline at end of file
+}
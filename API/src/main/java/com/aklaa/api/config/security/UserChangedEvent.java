@@ -0,0 +1,7 @@
+package com.aklaa.api.config.security;
+
+/**
+ * Published whenever data held by a cached {@link AuthenticatedUser} may have changed.
+ */
+public record UserChangedEvent(Long userId) {
+}
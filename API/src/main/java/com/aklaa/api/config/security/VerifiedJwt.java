@@ -0,0 +1,23 @@
+package com.aklaa.api.config.security;
+
+import com.aklaa.api.model.enums.UserType;
+
+import java.time.Instant;
+
+/**
+ * Immutable view of a JWT whose signature and expiration have already been checked.
+ */
+public record VerifiedJwt(long userId, UserType role, String type, Instant expiresAt) {
+
+    public boolean isAccessToken() {
+        return "access".equals(type);
+    }
+
+    public boolean isRefreshToken() {
+        return "refresh".equals(type);
+    }
+
+    public boolean isExpired() {
+        return !expiresAt.isAfter(Instant.now());
+    }
+}
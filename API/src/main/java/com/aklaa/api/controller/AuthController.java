@@ -2,24 +2,29 @@ package com.aklaa.api.controller;
 
 import com.aklaa.api.annotations.AllowAnonymous;
 import com.aklaa.api.annotations.AllowAuthenticated;
-import com.aklaa.api.dao.ResetPasswordRepository;
+import com.aklaa.api.annotations.CurrentUser;
+import com.aklaa.api.config.security.AuthRateLimiter;
+import com.aklaa.api.config.security.AuthenticatedUser;
+import com.aklaa.api.config.security.UserChangedEvent;
 import com.aklaa.api.dao.UserRepository;
 import com.aklaa.api.dtos.request.*;
 import com.aklaa.api.dtos.response.AuthResponseDTO;
 import com.aklaa.api.dtos.response.UserDTO;
-import com.aklaa.api.model.PasswordResetToken;
 import com.aklaa.api.model.User;
+import com.aklaa.api.model.UserToken;
+import com.aklaa.api.model.enums.TokenPurpose;
 import com.aklaa.api.services.contract.AuthService;
+import com.aklaa.api.services.contract.PasswordHashingService;
+import com.aklaa.api.services.contract.UserTokenService;
 import com.nimbusds.jose.JOSEException;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
@@ -34,8 +39,10 @@ public class AuthController {
 
     private final AuthService authService;
     private final UserRepository userRepository;
-    private final ResetPasswordRepository resetPasswordRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final UserTokenService userTokenService;
+    private final PasswordHashingService passwordHashingService;
+    private final AuthRateLimiter authRateLimiter;
+    private final ApplicationEventPublisher eventPublisher;
 
     @AllowAnonymous
     @PostMapping("/register")
@@ -53,7 +60,8 @@ public class AuthController {
 
     @AllowAnonymous
     @PostMapping("/login")
-    public ResponseEntity<AuthResponseDTO> login(@RequestBody LoginDTO loginDTO, HttpServletResponse response) throws JOSEException {
+    public ResponseEntity<AuthResponseDTO> login(@RequestBody LoginDTO loginDTO, HttpServletRequest request, HttpServletResponse response) throws JOSEException {
+        authRateLimiter.acquire(AuthRateLimiter.LOGIN, loginDTO.getEmail(), request.getRemoteAddr());
         AuthResponseDTO auth = authService.login(loginDTO);
 
         if (!auth.isSuccess()) {
@@ -106,16 +114,7 @@ public class AuthController {
 
     @AllowAuthenticated
     @GetMapping("/me")
-    public ResponseEntity<UserDTO> getCurrentUser(@AuthenticationPrincipal UserDetails userDetails) {
-        Optional<User> optionalUser = userRepository.findByEmail(userDetails.getUsername());
-
-        if (optionalUser.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(null);
-        }
-
-        User user = optionalUser.get();
-
+    public ResponseEntity<UserDTO> getCurrentUser(@CurrentUser User user) {
         UserDTO dto = UserDTO.builder()
                 .id(user.getId())
                 .firstName(user.getFirstName())
@@ -129,7 +128,8 @@ public class AuthController {
 
     @AllowAnonymous
     @PostMapping("/reset-password")
-    public ResponseEntity<String> requestReset(@RequestBody ForgotPasswordRequestDTO forgotPasswordRequestDTO) {
+    public ResponseEntity<String> requestReset(@RequestBody ForgotPasswordRequestDTO forgotPasswordRequestDTO, HttpServletRequest request) {
+        authRateLimiter.acquire(AuthRateLimiter.PASSWORD_RESET, forgotPasswordRequestDTO.getEmail(), request.getRemoteAddr());
         authService.processPasswordResetRequest(forgotPasswordRequestDTO);
         return ResponseEntity.ok("If the email is registered, you'll get a reset link");
     }
@@ -137,18 +137,19 @@ public class AuthController {
     @AllowAnonymous
     @PostMapping("/reset-password/confirm")
     public ResponseEntity<String> resetPassword(@RequestBody ForgotPasswordConfirmDTO forgotPasswordConfirmDTO) {
-        Optional<PasswordResetToken> tokenOpt = resetPasswordRepository.findByToken(forgotPasswordConfirmDTO.getToken());
+        Optional<UserToken> tokenOpt = userTokenService.findValid(forgotPasswordConfirmDTO.getToken(), TokenPurpose.PASSWORD_RESET);
 
-        if (tokenOpt.isEmpty() || tokenOpt.get().isExpired()) {
+        if (tokenOpt.isEmpty()) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Token is invalid or expired");
         }
 
-        PasswordResetToken token = tokenOpt.get();
+        UserToken token = tokenOpt.get();
         User user = token.getUser();
 
-        user.setPassword(passwordEncoder.encode(forgotPasswordConfirmDTO.getNewPassword()));
+        user.setPassword(passwordHashingService.encode(forgotPasswordConfirmDTO.getNewPassword()));
         userRepository.save(user);
-        resetPasswordRepository.delete(token);
+        userTokenService.consume(token);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
 
         return ResponseEntity.ok("Password updated");
     }
@@ -156,15 +157,15 @@ public class AuthController {
     @AllowAnonymous
     @GetMapping("/activate")
     public ResponseEntity<String> activateAccount(@RequestParam String token) {
-        Optional<User> userOpt = userRepository.findByActivationToken(token);
+        Optional<UserToken> tokenOpt = userTokenService.findValid(token, TokenPurpose.ACCOUNT_ACTIVATION);
 
-        if (userOpt.isEmpty()) {
+        if (tokenOpt.isEmpty()) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid or expired token");
         }
-        User user = userOpt.get();
+        User user = tokenOpt.get().getUser();
         user.setEnabled(true);
-        user.setActivationToken(null);
         userRepository.save(user);
+        userTokenService.consume(tokenOpt.get());
 
         return ResponseEntity.ok("Account activated!");
     }
@@ -172,9 +173,7 @@ public class AuthController {
     @AllowAnonymous
     @GetMapping("/reset-password")
     public ResponseEntity<String> passwordReset(@RequestParam String token) {
-        Optional<PasswordResetToken> tokenOpt = resetPasswordRepository.findByToken(token);
-
-        if (tokenOpt.isEmpty() || tokenOpt.get().isExpired()) {
+        if (userTokenService.findValid(token, TokenPurpose.PASSWORD_RESET).isEmpty()) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid or expired token");
         }
 
@@ -183,8 +182,8 @@ public class AuthController {
 
     @AllowAuthenticated
     @PutMapping("/reset-password")
-    public ResponseEntity<String> resetPassword(@RequestBody PasswordResetDTO passwordResetDTO, @AuthenticationPrincipal User user) {
-        authService.resetPassword(user.getId(), passwordResetDTO);
+    public ResponseEntity<String> resetPassword(@RequestBody PasswordResetDTO passwordResetDTO, @AuthenticationPrincipal AuthenticatedUser user) {
+        authService.resetPassword(user.id(), passwordResetDTO);
         return ResponseEntity.ok("The password was reset successful");
     }
 
@@ -1,76 +1,53 @@
 package com.aklaa.api.controller;
 
 import com.aklaa.api.annotations.AllowAuthenticated;
+import com.aklaa.api.annotations.CurrentUser;
+import com.aklaa.api.config.security.AuthenticatedUser;
 import com.aklaa.api.dao.DishRepository;
 import com.aklaa.api.dtos.request.CartDishRequestDTO;
-import com.aklaa.api.model.Dish;
-import jakarta.servlet.http.HttpSession;
+import com.aklaa.api.services.contract.CartService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/cart")
 @RequiredArgsConstructor
 public class CartController {
 
-    private static final String CART_KEY = "cart";
     private final DishRepository dishRepository;
+    private final CartService cartService;
 
     @AllowAuthenticated
     @GetMapping
-    public ResponseEntity<List<CartDishRequestDTO>> getCartItems(HttpSession session) {
-        return ResponseEntity.ok(getCart(session));
+    public ResponseEntity<List<CartDishRequestDTO>> getCartItems(@CurrentUser AuthenticatedUser user) {
+        return ResponseEntity.ok(cartService.getItems(user.id()));
     }
 
     @AllowAuthenticated
     @PostMapping("/add")
-    public ResponseEntity<String> addToCart(@Valid @RequestBody CartDishRequestDTO newItem, HttpSession session) {
-        Optional<Dish> dish = dishRepository.findById(newItem.getDishId());
-        if(dish.isEmpty()) {
+    public ResponseEntity<String> addToCart(@Valid @RequestBody CartDishRequestDTO newItem, @CurrentUser AuthenticatedUser user) {
+        if (!dishRepository.existsById(newItem.getDishId())) {
             return ResponseEntity.notFound().build();
         }
 
-        List<CartDishRequestDTO> cart = getCart(session);
-        int generatedId = cart.stream()
-                .mapToInt(CartDishRequestDTO::getId)
-                .max()
-                .orElse(0) + 1;
-
-        newItem.setId(generatedId);
-        cart.add(newItem);
-
-        saveCart(session, cart);
+        cartService.add(user.id(), newItem);
 
         return ResponseEntity.ok("Item added successfully");
     }
 
     @AllowAuthenticated
     @PutMapping("/edit/{id}")
-    public ResponseEntity<String> editCartItem(@PathVariable int id, @Valid @RequestBody CartDishRequestDTO updatedItem, HttpSession session) {
-        Optional<Dish> dish = dishRepository.findById(updatedItem.getDishId());
-        if(dish.isEmpty()) {
+    public ResponseEntity<String> editCartItem(@PathVariable int id, @Valid @RequestBody CartDishRequestDTO updatedItem, @CurrentUser AuthenticatedUser user) {
+        if (!dishRepository.existsById(updatedItem.getDishId())) {
             return ResponseEntity.notFound().build();
         }
 
-        List<CartDishRequestDTO> cart = getCart(session);
-
-        Optional<CartDishRequestDTO> existingOpt = cart.stream()
-                .filter(item -> item.getId() == id)
-                .findFirst();
-
-        if (existingOpt.isPresent()) {
-            CartDishRequestDTO existing = existingOpt.get();
-            existing.setDishId(updatedItem.getDishId());
-            existing.setDayOfWeek(updatedItem.getDayOfWeek());
-            existing.setPeople(updatedItem.getPeople());
-            saveCart(session, cart);
+        if (cartService.edit(user.id(), id, updatedItem)) {
             return ResponseEntity.ok("Item edited successfully");
         } else {
             return ResponseEntity.notFound().build();
@@ -79,12 +56,8 @@ public class CartController {
 
     @AllowAuthenticated
     @DeleteMapping("/delete/{id}")
-    public ResponseEntity<String> deleteCartItem(@PathVariable int id, HttpSession session) {
-        List<CartDishRequestDTO> cart = getCart(session);
-        boolean removed = cart.removeIf(item -> item.getId() == id);
-
-        if (removed) {
-            saveCart(session, cart);
+    public ResponseEntity<String> deleteCartItem(@PathVariable int id, @CurrentUser AuthenticatedUser user) {
+        if (cartService.remove(user.id(), id)) {
             return ResponseEntity.ok("Item delted successfully");
         } else {
             return ResponseEntity.notFound().build();
@@ -93,25 +66,8 @@ public class CartController {
 
     @AllowAuthenticated
     @DeleteMapping("/clear")
-    public ResponseEntity<String> clearCart(HttpSession session) {
-        session.removeAttribute(CART_KEY);
+    public ResponseEntity<String> clearCart(@CurrentUser AuthenticatedUser user) {
+        cartService.clear(user.id());
         return ResponseEntity.ok("Cart cleared successfully");
     }
-
-    private List<CartDishRequestDTO> getCart(HttpSession session) {
-        Object sessionCart = session.getAttribute(CART_KEY);
-        if (sessionCart instanceof List<?> rawList) {
-            boolean valid = rawList.stream().allMatch(CartDishRequestDTO.class::isInstance);
-            if (valid) {
-                return (List<CartDishRequestDTO>) rawList;
-            }
-        }
-        List<CartDishRequestDTO> newCart = new ArrayList<>();
-        session.setAttribute(CART_KEY, newCart);
-        return newCart;
-    }
-
-    private void saveCart(HttpSession session, List<CartDishRequestDTO> cart) {
-        session.setAttribute(CART_KEY, cart);
-    }
-}
\ No newline at end of file
+}
@@ -1,46 +1,39 @@
 package com.aklaa.api.controller;
 
 import com.aklaa.api.annotations.AllowAuthenticated;
-import com.aklaa.api.dao.UserRepository;
+import com.aklaa.api.annotations.CurrentUser;
 import com.aklaa.api.dtos.request.DishRequestDTO;
+import com.aklaa.api.dtos.response.DishImportResultDTO;
 import com.aklaa.api.dtos.response.DishListResponseDTO;
 import com.aklaa.api.dtos.response.DishResponseDTO;
 import com.aklaa.api.model.User;
+import com.aklaa.api.services.contract.DishImportService;
 import com.aklaa.api.services.contract.DishService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.data.domain.Sort;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.InputStream;
 import java.net.URI;
 import java.util.List;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/dishes")
 @RequiredArgsConstructor
 public class DishController {
 
-    private final UserRepository userRepository;
     private final DishService dishService;
+    private final DishImportService dishImportService;
 
     @AllowAuthenticated
     @PostMapping
-    public ResponseEntity<DishResponseDTO> create(@RequestBody @Valid DishRequestDTO dishRequestDTO, @AuthenticationPrincipal UserDetails userDetails){
-        Optional<User> optionalUser = userRepository.findByEmail(userDetails.getUsername());
-
-        if (optionalUser.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(null);
-        }
-        User user = optionalUser.get();
+    public ResponseEntity<DishResponseDTO> create(@RequestBody @Valid DishRequestDTO dishRequestDTO, @CurrentUser User user){
         DishResponseDTO dish = dishService.create(dishRequestDTO, user);
 
         URI location = ServletUriComponentsBuilder
@@ -54,14 +47,7 @@ public class DishController {
 
     @AllowAuthenticated
     @PostMapping("/json")
-    public ResponseEntity<DishResponseDTO> createFromJson(@RequestBody @Valid DishResponseDTO dishRequestDTO, @AuthenticationPrincipal UserDetails userDetails){
-        Optional<User> optionalUser = userRepository.findByEmail(userDetails.getUsername());
-
-        if (optionalUser.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(null);
-        }
-        User user = optionalUser.get();
+    public ResponseEntity<DishResponseDTO> createFromJson(@RequestBody @Valid DishResponseDTO dishRequestDTO, @CurrentUser User user){
         DishResponseDTO dish = dishService.createFromJson(dishRequestDTO, user);
 
         URI location = ServletUriComponentsBuilder
@@ -74,43 +60,29 @@ public class DishController {
     }
 
     @AllowAuthenticated
-    @PutMapping("/{id}")
-    public ResponseEntity<DishResponseDTO> update(@PathVariable Long id, @RequestBody @Valid DishRequestDTO dishRequestDTO, @AuthenticationPrincipal UserDetails userDetails) {
-        Optional<User> optionalUser = userRepository.findByEmail(userDetails.getUsername());
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<DishImportResultDTO> importDishes(InputStream body, @CurrentUser User user) {
+        DishImportResultDTO result = dishImportService.importDishes(body, user);
+        return ResponseEntity.ok(result);
+    }
 
-        if (optionalUser.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(null);
-        }
-        User user = optionalUser.get();
+    @AllowAuthenticated
+    @PutMapping("/{id}")
+    public ResponseEntity<DishResponseDTO> update(@PathVariable Long id, @RequestBody @Valid DishRequestDTO dishRequestDTO, @CurrentUser User user) {
         DishResponseDTO dish = dishService.update(dishRequestDTO,id,user);
         return ResponseEntity.ok(dish);
     }
 
     @AllowAuthenticated
     @DeleteMapping("{id}")
-    public ResponseEntity<DishResponseDTO> delete(@PathVariable Long id, @AuthenticationPrincipal UserDetails userDetails) {
-        Optional<User> optionalUser = userRepository.findByEmail(userDetails.getUsername());
-
-        if (optionalUser.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(null);
-        }
-        User user = optionalUser.get();
+    public ResponseEntity<DishResponseDTO> delete(@PathVariable Long id, @CurrentUser User user) {
         DishResponseDTO dish = dishService.delete(id,user);
         return ResponseEntity.ok(dish);
     }
 
     @AllowAuthenticated
     @GetMapping("{id}")
-    public ResponseEntity<DishResponseDTO> getIngredient(@PathVariable Long id, @AuthenticationPrincipal UserDetails userDetails) {
-        Optional<User> optionalUser = userRepository.findByEmail(userDetails.getUsername());
-
-        if (optionalUser.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(null);
-        }
-        User user = optionalUser.get();
+    public ResponseEntity<DishResponseDTO> getIngredient(@PathVariable Long id, @CurrentUser User user) {
         DishResponseDTO dishResponseDTO = dishService.get(id, user);
         return ResponseEntity.ok(dishResponseDTO);
     }
@@ -120,20 +92,15 @@ public class DishController {
     public ResponseEntity<DishListResponseDTO> filterDishes(
             @RequestParam(required = false) String search,
             @RequestParam(required = false) List<String> countries,
+            @RequestParam(required = false) List<String> tags,
+            @RequestParam(defaultValue = "any") String tagMatch,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @AuthenticationPrincipal UserDetails userDetails
+            @RequestParam(required = false) String cursor,
+            @CurrentUser User user
     ) {
-        Optional<User> optionalUser = userRepository.findByEmail(userDetails.getUsername());
-
-        if (optionalUser.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(null);
-        }
-        User user = optionalUser.get();
-
         Pageable pageable = PageRequest.of(page, size, Sort.by("name").ascending());
-        DishListResponseDTO response = dishService.filter(search, countries, pageable, user);
+        DishListResponseDTO response = dishService.filter(search, countries, tags, "all".equalsIgnoreCase(tagMatch), pageable, cursor, user);
         return ResponseEntity.ok(response);
     }
 }
\ No newline at end of file
@@ -1,21 +1,23 @@
 package com.aklaa.api.controller;
 
 import com.aklaa.api.annotations.AllowAuthenticated;
+import com.aklaa.api.annotations.CurrentUser;
+import com.aklaa.api.config.security.AuthenticatedUser;
 import com.aklaa.api.dao.DishRepository;
-import com.aklaa.api.dao.GroceryListRepository;
-import com.aklaa.api.dao.UserRepository;
 import com.aklaa.api.dtos.request.CartDishRequestDTO;
+import com.aklaa.api.dtos.request.GroceryListCheckRequestDTO;
 import com.aklaa.api.dtos.request.GroceryListIngredientListRequestDTO;
+import com.aklaa.api.dtos.request.GroceryListItemsPatchRequestDTO;
 import com.aklaa.api.dtos.request.IngredientRequestDTO;
 import com.aklaa.api.dtos.response.*;
 import com.aklaa.api.mapper.DishMapper;
-import com.aklaa.api.mapper.GroceryListMapper;
 import com.aklaa.api.model.Dish;
 import com.aklaa.api.model.GroceryList;
 import com.aklaa.api.model.User;
+import com.aklaa.api.services.contract.CartService;
+import com.aklaa.api.services.contract.GroceryListArchiveService;
 import com.aklaa.api.services.contract.GroceryListService;
 import com.aklaa.api.services.implementation.GroceryListServiceImpl;
-import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
@@ -23,15 +25,12 @@ import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 @RestController
@@ -39,78 +38,75 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class GroceryListController {
 
-    private static final String CART_KEY = "cart";
-    private final GroceryListRepository groceryListRepository;
     private final GroceryListService groceryListService;
-    private final UserRepository userRepository;
-    private final GroceryListMapper groceryListMapper;
+    private final CartService cartService;
+    private final GroceryListArchiveService groceryListArchiveService;
 
     @AllowAuthenticated
     @PostMapping("/save")
-    public ResponseEntity<String> saveCart(@RequestParam OffsetDateTime startOfWeek, @RequestParam OffsetDateTime endOfWeek, HttpSession session, @AuthenticationPrincipal UserDetails userDetails) {
-        List<CartDishRequestDTO> cartRequests = groceryListService.getCart(session);
+    public ResponseEntity<String> saveCart(@RequestParam OffsetDateTime startOfWeek, @RequestParam OffsetDateTime endOfWeek, @CurrentUser User user) {
+        List<CartDishRequestDTO> cartRequests = cartService.getItems(user.getId());
         if (cartRequests.isEmpty()) {
             return ResponseEntity.badRequest().body(null);
         }
 
-        List<CartDishResponseDTO> cart = groceryListMapper.convertToCartDishResponseDTOs(cartRequests);
-        if (cart.isEmpty()) {
-            return ResponseEntity.badRequest().body(null);
-        }
-
-        Optional<User> optionalUser = userRepository.findByEmail(userDetails.getUsername());
-        if (optionalUser.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null);
-        }
+        groceryListService.createFromCart(cartRequests, startOfWeek, endOfWeek, user);
+        cartService.removeAll(user.getId(), cartRequests);
 
-        GroceryList groceryList = groceryListMapper.fromCartDishes(cart, optionalUser.get());
-        groceryList.setStartOfWeek(startOfWeek);
-        groceryList.setEndOfWeek(endOfWeek);
-        groceryListRepository.save(groceryList);
+        return ResponseEntity.ok().build();
+    }
 
-        session.removeAttribute(CART_KEY);
+    @AllowAuthenticated
+    @GetMapping("/preview")
+    public ResponseEntity<List<GroceryListIngredientResponseDTO>> preview(@CurrentUser AuthenticatedUser user) {
+        List<GroceryListIngredientResponseDTO> ingredients =
+                groceryListService.previewCart(cartService.getItems(user.id()));
+        return ResponseEntity.ok(ingredients);
+    }
 
+    @AllowAuthenticated
+    @PutMapping("{id}")
+    public ResponseEntity<?> update(@RequestBody @Valid GroceryListIngredientListRequestDTO request, @PathVariable Long id, @CurrentUser User user){
+        groceryListService.updateIngredientsOfGroceryList(id, request, user);
         return ResponseEntity.ok().build();
     }
 
     @AllowAuthenticated
-    @PutMapping("{id}")
-    public ResponseEntity<?> update(@RequestBody @Valid GroceryListIngredientListRequestDTO request, @PathVariable Long id, @AuthenticationPrincipal UserDetails userDetails){
-        Optional<User> optionalUser = userRepository.findByEmail(userDetails.getUsername());
+    @PatchMapping("/{id}/ingredients")
+    public ResponseEntity<?> patchIngredients(@RequestBody @Valid GroceryListItemsPatchRequestDTO request, @PathVariable Long id, @CurrentUser User user) {
+        if (!groceryListService.patchIngredientsOfGroceryList(id, request, user)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok().build();
+    }
 
-        if (optionalUser.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(null);
+    @AllowAuthenticated
+    @PatchMapping("/{id}/ingredients/checked")
+    public ResponseEntity<?> checkIngredients(@RequestBody @Valid GroceryListCheckRequestDTO request, @PathVariable Long id, @CurrentUser User user) {
+        if (!groceryListService.checkIngredientsOfGroceryList(id, request, user)) {
+            return ResponseEntity.notFound().build();
         }
-        User user = optionalUser.get();
-        groceryListService.updateIngredientsOfGroceryList(id, request, user);
         return ResponseEntity.ok().build();
     }
 
     @AllowAuthenticated
     @GetMapping()
-    public ResponseEntity<List<GroceryListResponseDTO>> getAll(@AuthenticationPrincipal UserDetails userDetails, Pageable pageable) {
-        Optional<User> optionalUser = userRepository.findByEmail(userDetails.getUsername());
-
-        if (optionalUser.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(null);
-        }
-        User user = optionalUser.get();
+    public ResponseEntity<List<GroceryListResponseDTO>> getAll(@CurrentUser User user, Pageable pageable) {
         List<GroceryListResponseDTO> list = groceryListService.getGroceryLists(user, pageable);
         return ResponseEntity.ok(list);
     }
 
     @AllowAuthenticated
-    @GetMapping("/{id}/ingredients")
-    public ResponseEntity<GroceryListIngredientListResponseDTO> getIngredientsOfGroceryList(@PathVariable Long id, @AuthenticationPrincipal UserDetails userDetails, @PageableDefault(size = 10) Pageable pageable) {
-        Optional<User> optionalUser = userRepository.findByEmail(userDetails.getUsername());
-        if (optionalUser.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        }
+    @GetMapping("/archive")
+    public ResponseEntity<ArchivedGroceryListPageDTO> getArchived(@CurrentUser User user, @PageableDefault(size = 10) Pageable pageable) throws Exception {
+        return ResponseEntity.ok(groceryListArchiveService.getArchivedGroceryLists(user, pageable));
+    }
 
+    @AllowAuthenticated
+    @GetMapping("/{id}/ingredients")
+    public ResponseEntity<GroceryListIngredientListResponseDTO> getIngredientsOfGroceryList(@PathVariable Long id, @CurrentUser User user, @PageableDefault(size = 10) Pageable pageable) {
         GroceryListIngredientListResponseDTO ingredients =
-                groceryListService.getIngredientOfGroceryList(id, optionalUser.get(), pageable);
+                groceryListService.getIngredientOfGroceryList(id, user, pageable);
 
         if (ingredients == null ||
                 ingredients.getIngredients() == null ||
@@ -122,14 +118,9 @@ public class GroceryListController {
 
     @AllowAuthenticated
     @DeleteMapping("/{id}")
-    public ResponseEntity<GroceryListResponseDTO> deleteGroceryList(@PathVariable Long id, @AuthenticationPrincipal UserDetails userDetails, @PageableDefault(size = 10) Pageable pageable) {
-        Optional<User> optionalUser = userRepository.findByEmail(userDetails.getUsername());
-        if (optionalUser.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-        }
-
+    public ResponseEntity<GroceryListResponseDTO> deleteGroceryList(@PathVariable Long id, @CurrentUser AuthenticatedUser actionTaker, @PageableDefault(size = 10) Pageable pageable) {
         GroceryListResponseDTO groceryList =
-                groceryListService.delete(id, optionalUser.get());
+                groceryListService.delete(id, actionTaker);
 
         return ResponseEntity.ok(groceryList);
     }
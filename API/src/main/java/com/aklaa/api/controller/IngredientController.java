@@ -1,7 +1,7 @@
 package com.aklaa.api.controller;
 
 import com.aklaa.api.annotations.AllowAuthenticated;
-import com.aklaa.api.dao.UserRepository;
+import com.aklaa.api.annotations.CurrentUser;
 import com.aklaa.api.dtos.request.IngredientRequestDTO;
 import com.aklaa.api.dtos.response.IngredientListResponseDTO;
 import com.aklaa.api.dtos.response.IngredientResponseDTO;
@@ -12,16 +12,12 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
 import java.util.List;
-import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/ingredients")
@@ -29,18 +25,10 @@ import java.util.Optional;
 public class IngredientController {
 
     private final IngredientServiceImpl ingredientService;
-    private final UserRepository userRepository;
 
     @AllowAuthenticated
     @PostMapping
-    public ResponseEntity<IngredientResponseDTO> create(@RequestBody @Valid IngredientRequestDTO ingredientRequestDTO, @AuthenticationPrincipal UserDetails userDetails) {
-        Optional<User> optionalUser = userRepository.findByEmail(userDetails.getUsername());
-
-        if (optionalUser.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(null);
-        }
-        User user = optionalUser.get();
+    public ResponseEntity<IngredientResponseDTO> create(@RequestBody @Valid IngredientRequestDTO ingredientRequestDTO, @CurrentUser User user) {
         IngredientResponseDTO ingredient = ingredientService.create(ingredientRequestDTO, user);
 
         URI location = ServletUriComponentsBuilder
@@ -54,56 +42,28 @@ public class IngredientController {
 
     @AllowAuthenticated
     @PutMapping("/{id}")
-    public ResponseEntity<IngredientResponseDTO> update(@PathVariable Long id, @RequestBody @Valid IngredientRequestDTO ingredientRequestDTO, @AuthenticationPrincipal UserDetails userDetails) {
-        Optional<User> optionalUser = userRepository.findByEmail(userDetails.getUsername());
-
-        if (optionalUser.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(null);
-        }
-        User user = optionalUser.get();
+    public ResponseEntity<IngredientResponseDTO> update(@PathVariable Long id, @RequestBody @Valid IngredientRequestDTO ingredientRequestDTO, @CurrentUser User user) {
         IngredientResponseDTO ingredient = ingredientService.update(ingredientRequestDTO,id,user);
         return ResponseEntity.ok(ingredient);
     }
 
     @AllowAuthenticated
     @DeleteMapping("/{id}")
-    public ResponseEntity<IngredientResponseDTO> delete(@PathVariable Long id, @AuthenticationPrincipal UserDetails userDetails) {
-        Optional<User> optionalUser = userRepository.findByEmail(userDetails.getUsername());
-
-        if (optionalUser.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(null);
-        }
-        User user = optionalUser.get();
+    public ResponseEntity<IngredientResponseDTO> delete(@PathVariable Long id, @CurrentUser User user) {
         IngredientResponseDTO ingredient = ingredientService.delete(id,user);
         return ResponseEntity.ok(ingredient);
     }
 
     @AllowAuthenticated
     @GetMapping("/{id}")
-    public ResponseEntity<IngredientResponseDTO> getIngredient(@PathVariable Long id, @AuthenticationPrincipal UserDetails userDetails) {
-        Optional<User> optionalUser = userRepository.findByEmail(userDetails.getUsername());
-
-        if (optionalUser.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(null);
-        }
-        User user = optionalUser.get();
+    public ResponseEntity<IngredientResponseDTO> getIngredient(@PathVariable Long id, @CurrentUser User user) {
         IngredientResponseDTO ingredientResponseDTO = ingredientService.get(id, user);
         return ResponseEntity.ok(ingredientResponseDTO);
     }
 
     @AllowAuthenticated
     @GetMapping("/all")
-    public ResponseEntity<List<IngredientResponseDTO>> getAll(@AuthenticationPrincipal UserDetails userDetails) {
-        Optional<User> optionalUser = userRepository.findByEmail(userDetails.getUsername());
-
-        if (optionalUser.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(null);
-        }
-        User user = optionalUser.get();
+    public ResponseEntity<List<IngredientResponseDTO>> getAll(@CurrentUser User user) {
         List<IngredientResponseDTO> ingredientResponseDTO = ingredientService.getAll(user);
         return ResponseEntity.ok(ingredientResponseDTO);
     }
@@ -115,18 +75,11 @@ public class IngredientController {
             @RequestParam(required = false) List<String> categories,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @AuthenticationPrincipal UserDetails userDetails
+            @RequestParam(required = false) String cursor,
+            @CurrentUser User user
     ) {
-        Optional<User> optionalUser = userRepository.findByEmail(userDetails.getUsername());
-
-        if (optionalUser.isEmpty()) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(null);
-        }
-        User user = optionalUser.get();
-
         Pageable pageable = PageRequest.of(page, size, Sort.by("category").ascending().and(Sort.by("name").ascending()));
-        IngredientListResponseDTO response = ingredientService.filter(search, categories, pageable, user);
+        IngredientListResponseDTO response = ingredientService.filter(search, categories, pageable, cursor, user);
         return ResponseEntity.ok(response);
     }
 }
\ No newline at end of file
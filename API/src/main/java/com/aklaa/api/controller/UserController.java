@@ -3,17 +3,20 @@ package com.aklaa.api.controller;
 import com.aklaa.api.annotations.AllowAdmin;
 import com.aklaa.api.annotations.AllowAnonymous;
 import com.aklaa.api.annotations.AllowAuthenticated;
-import com.aklaa.api.dao.ResetEmailRepository;
+import com.aklaa.api.config.security.AuthenticatedUser;
+import com.aklaa.api.config.security.UserChangedEvent;
 import com.aklaa.api.dao.UserRepository;
 import com.aklaa.api.dtos.request.UpdatedUserDTO;
 import com.aklaa.api.dtos.response.UserDTO;
 import com.aklaa.api.dtos.response.UserListResponseDTO;
-import com.aklaa.api.model.EmailResetToken;
-import com.aklaa.api.model.PasswordResetToken;
 import com.aklaa.api.model.User;
+import com.aklaa.api.model.UserToken;
+import com.aklaa.api.model.enums.TokenPurpose;
 import com.aklaa.api.model.enums.UserType;
 import com.aklaa.api.services.contract.UserService;
+import com.aklaa.api.services.contract.UserTokenService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
@@ -30,8 +33,9 @@ import java.util.Optional;
 public class UserController {
 
     private final UserService userService;
-    private final ResetEmailRepository resetEmailRepository;
+    private final UserTokenService userTokenService;
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @AllowAdmin
     @GetMapping()
@@ -39,10 +43,11 @@ public class UserController {
             @RequestParam(required = false) String search,
             @RequestParam(required = false) String type,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor
     ) {
         Pageable pageable = PageRequest.of(page, size);
-        UserListResponseDTO response = userService.getUsers(search, type, pageable);
+        UserListResponseDTO response = userService.getUsers(search, type, pageable, cursor);
         return ResponseEntity.ok(response);
     }
 
@@ -65,39 +70,40 @@ public class UserController {
 
     @AllowAuthenticated
     @PutMapping("/email")
-    public ResponseEntity<UserDTO> updateUserEmail(@RequestBody UpdatedUserDTO updatedUserDTO, @AuthenticationPrincipal User actionTaker) {
+    public ResponseEntity<UserDTO> updateUserEmail(@RequestBody UpdatedUserDTO updatedUserDTO, @AuthenticationPrincipal AuthenticatedUser actionTaker) {
 
-        UserDTO updatedUser = userService.update(actionTaker.getId(), updatedUserDTO);
+        UserDTO updatedUser = userService.update(actionTaker.id(), updatedUserDTO);
         return ResponseEntity.ok(updatedUser);
     }
 
     @AllowAuthenticated
     @DeleteMapping("{id}")
-    public ResponseEntity<UserDTO> deleteUser(@PathVariable Long id, @AuthenticationPrincipal User actionTaker) {
+    public ResponseEntity<UserDTO> deleteUser(@PathVariable Long id, @AuthenticationPrincipal AuthenticatedUser actionTaker) {
         UserDTO deletedUser = userService.delete(id, actionTaker);
         return ResponseEntity.ok(deletedUser);
     }
 
     @AllowAuthenticated
     @DeleteMapping()
-    public ResponseEntity<UserDTO> deleteOwnUser(@AuthenticationPrincipal User actionTaker) {
-        UserDTO deletedUser = userService.delete(actionTaker.getId(), actionTaker);
+    public ResponseEntity<UserDTO> deleteOwnUser(@AuthenticationPrincipal AuthenticatedUser actionTaker) {
+        UserDTO deletedUser = userService.delete(actionTaker.id(), actionTaker);
         return ResponseEntity.ok(deletedUser);
     }
 
     @AllowAnonymous
     @GetMapping("/email-confirm")
     public ResponseEntity<String> emailReset(@RequestParam String token) {
-        Optional<EmailResetToken> tokenOpt = resetEmailRepository.findByToken(token);
+        Optional<UserToken> tokenOpt = userTokenService.findValid(token, TokenPurpose.EMAIL_CHANGE);
 
-        if (tokenOpt.isEmpty() || tokenOpt.get().isExpired()) {
+        if (tokenOpt.isEmpty()) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid or expired token");
         }
         User user = tokenOpt.get().getUser();
         user.setEmail(user.getPendingEmail().toLowerCase());
         user.setPendingEmail(null);
         userRepository.save(user);
-        resetEmailRepository.delete(tokenOpt.get());
+        userTokenService.consume(tokenOpt.get());
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
 
         return ResponseEntity.ok("Token is valid");
     }
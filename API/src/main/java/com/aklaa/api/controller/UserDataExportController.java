@@ -1,17 +1,25 @@
 package com.aklaa.api.controller;
 
 import com.aklaa.api.annotations.AllowAuthenticated;
+import com.aklaa.api.annotations.CurrentUser;
+import com.aklaa.api.dtos.response.UserDataExportJobDTO;
 import com.aklaa.api.model.User;
 import com.aklaa.api.services.contract.ExportUserDataService;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.aklaa.api.services.contract.UserDataExportJobService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+import java.time.Duration;
 
 @RestController
 @RequestMapping("/api/users/data/export")
@@ -19,14 +27,44 @@ import org.springframework.web.bind.annotation.RestController;
 public class UserDataExportController {
 
     private final ExportUserDataService exportUserDataService;
+    private final UserDataExportJobService userDataExportJobService;
+
+    // The streamed export may take longer than the default async timeout, so only its request gets this one.
+    @Value("${users.export.stream-timeout:30m}")
+    private Duration streamTimeout;
 
     @AllowAuthenticated
     @GetMapping
-    public ResponseEntity<byte[]> exportUserData(@AuthenticationPrincipal User user) throws JsonProcessingException {
-        byte[] exportdata = exportUserDataService.getUserData(user);
+    public ResponseEntity<StreamingResponseBody> exportUserData(@CurrentUser User user, HttpServletRequest request) {
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(streamTimeout.toMillis());
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + user.getUsername() + "\"")
                 .contentType(MediaType.APPLICATION_JSON)
-                .body(exportdata);
+                .body(out -> exportUserDataService.writeUserData(user, out));
+    }
+
+    @AllowAuthenticated
+    @PostMapping("/jobs")
+    public ResponseEntity<UserDataExportJobDTO> submitExportJob(@CurrentUser User user) {
+        UserDataExportJobDTO job = userDataExportJobService.submit(user);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{id}")
+                .buildAndExpand(job.getId())
+                .toUri();
+        return ResponseEntity.accepted().location(location).body(job);
+    }
+
+    @AllowAuthenticated
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<UserDataExportJobDTO> getExportJob(@PathVariable String id, @CurrentUser User user) {
+        return ResponseEntity.ok(userDataExportJobService.get(id, user));
+    }
+
+    @AllowAuthenticated
+    @GetMapping("/jobs/{id}/download")
+    public ResponseEntity<Void> downloadExport(@PathVariable String id, @CurrentUser User user) throws Exception {
+        return ResponseEntity.status(HttpStatus.SEE_OTHER)
+                .location(URI.create(userDataExportJobService.getDownloadUrl(id, user)))
+                .build();
     }
-}
\ No newline at end of file
+}
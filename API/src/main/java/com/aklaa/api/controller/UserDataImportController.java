@@ -0,0 +1,45 @@
+package com.aklaa.api.controller;
+
+import com.aklaa.api.annotations.AllowAuthenticated;
+import com.aklaa.api.annotations.CurrentUser;
+import com.aklaa.api.model.User;
+import com.aklaa.api.services.contract.UserDataImportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+@RestController
+@RequestMapping("/api/users/data/import")
+@RequiredArgsConstructor
+public class UserDataImportController {
+
+    private final UserDataImportService userDataImportService;
+    private final ObjectMapper objectMapper;
+
+    // Progress is streamed back as newline-delimited JSON, one line per imported chunk; the last line is the final result.
+    @AllowAuthenticated
+    @PostMapping(consumes = {MediaType.APPLICATION_JSON_VALUE, "application/zip"}, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importUserData(InputStream body, @CurrentUser User user, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        OutputStream out = response.getOutputStream();
+
+        userDataImportService.importUserData(body, user, progress -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(progress));
+                out.write('\n');
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
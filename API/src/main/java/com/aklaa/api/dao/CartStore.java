@@ -0,0 +1,54 @@
+package com.aklaa.api.dao;
+
+import com.aklaa.api.dtos.request.CartDishRequestDTO;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Storage for users' carts, shared by every node of the API.
+ * <p>
+ * Items are identified by their id within the cart of one user. Implementations only store;
+ * assigning ids and caching are left to the caller.
+ * </p>
+ */
+public interface CartStore {
+
+    /**
+     * @return the items of the user's cart, ordered by item id
+     */
+    List<CartDishRequestDTO> findAll(Long userId);
+
+    /**
+     * @return the highest item id in the user's cart, or 0 if the cart is empty
+     */
+    int findMaxId(Long userId);
+
+    /**
+     * Stores a new item under its id.
+     *
+     * @return {@code false} if the user's cart already has an item with that id
+     */
+    boolean insert(Long userId, CartDishRequestDTO item);
+
+    /**
+     * Replaces the item with the same id.
+     *
+     * @return {@code false} if the user's cart has no item with that id
+     */
+    boolean update(Long userId, CartDishRequestDTO item);
+
+    /**
+     * @return {@code false} if the user's cart has no item with that id
+     */
+    boolean delete(Long userId, int itemId);
+
+    void deleteAll(Long userId);
+
+    /**
+     * Deletes the given items, but only where the stored item still has the same dish, weekday and number of people.
+     *
+     * @return the number of items deleted
+     */
+    int deleteUnchanged(Long userId, Collection<CartDishRequestDTO> items);
+}
@@ -0,0 +1,12 @@
+package com.aklaa.api.dao;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated query.
+ *
+ * @param content the rows of this page
+ * @param nextCursor the cursor to request the next page, or {@code null} if this is the last page
+ */
+public record CursorPage<T>(List<T> content, String nextCursor) {
+}
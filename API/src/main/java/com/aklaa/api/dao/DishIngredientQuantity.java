@@ -0,0 +1,9 @@
+package com.aklaa.api.dao;
+
+import java.math.BigDecimal;
+
+/**
+ * The part of a dish ingredient a shopping list needs: how much of which ingredient, for how many people.
+ */
+public record DishIngredientQuantity(Long dishId, Long ingredientId, BigDecimal quantity, int people) {
+}
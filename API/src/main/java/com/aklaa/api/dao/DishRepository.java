@@ -2,11 +2,40 @@ package com.aklaa.api.dao;
 
 import com.aklaa.api.model.Dish;
 import com.aklaa.api.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
-public interface DishRepository extends JpaRepository<Dish, Long>, JpaSpecificationExecutor<Dish> {
+public interface DishRepository extends JpaRepository<Dish, Long>, JpaSpecificationExecutor<Dish>, DishRepositoryCustom {
     List<Dish> findByUserOrderByNameAsc(User user);
+
+    @Query("SELECT d.id FROM Dish d WHERE d.user.id = :userId AND d.id > :after ORDER BY d.id")
+    List<Long> findIdsByUserAfter(@Param("userId") Long userId, @Param("after") Long after, Limit limit);
+
+    @Query("SELECT DISTINCT d.imageUrl FROM Dish d WHERE d.user.id = :userId")
+    List<String> findImageUrlsByUserId(@Param("userId") Long userId);
+
+    @Query("""
+            SELECT DISTINCT d FROM Dish d
+            JOIN FETCH d.user
+            LEFT JOIN FETCH d.dishIngredients di
+            LEFT JOIN FETCH di.ingredient
+            WHERE d.id IN :ids
+            """)
+    List<Dish> findAllWithIngredientsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT d FROM Dish d LEFT JOIN FETCH d.steps WHERE d.id IN :ids")
+    List<Dish> findAllWithStepsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            SELECT new com.aklaa.api.dao.DishIngredientQuantity(d.id, di.ingredient.id, di.quantity, d.people)
+            FROM DishIngredient di JOIN di.dish d
+            WHERE d.id IN :ids
+            """)
+    List<DishIngredientQuantity> findIngredientQuantitiesByDishIdIn(@Param("ids") Collection<Long> ids);
 }
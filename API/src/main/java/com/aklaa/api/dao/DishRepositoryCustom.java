@@ -0,0 +1,23 @@
+package com.aklaa.api.dao;
+
+import com.aklaa.api.model.Dish;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface DishRepositoryCustom {
+
+    /**
+     * Pages through the IDs of the dishes matching the specification, without loading the dishes themselves.
+     * Ordering added by the specification comes first, then the sort of the pageable and finally the dish ID.
+     */
+    Page<Long> findIds(Specification<Dish> spec, Pageable pageable);
+
+    /**
+     * Keyset variant of {@link #findIds(Specification, Pageable)}: returns up to {@code size} IDs ordered on the
+     * given keys, starting after the cursor, without a count query.
+     */
+    CursorPage<Long> findIdsAfter(Specification<Dish> spec, List<String> keys, String cursor, int size);
+}
@@ -0,0 +1,26 @@
+package com.aklaa.api.dao;
+
+import com.aklaa.api.model.Dish;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public class DishRepositoryCustomImpl implements DishRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Long> findIds(Specification<Dish> spec, Pageable pageable) {
+        return SpecificationQueries.findIds(entityManager, Dish.class, spec, pageable);
+    }
+
+    @Override
+    public CursorPage<Long> findIdsAfter(Specification<Dish> spec, List<String> keys, String cursor, int size) {
+        return SpecificationQueries.findIdsAfter(entityManager, Dish.class, spec, keys, cursor, size);
+    }
+}
@@ -0,0 +1,7 @@
+package com.aklaa.api.dao;
+
+/**
+ * The stored checked-items bitset of a grocery list.
+ */
+public record GroceryListCheckedItems(Long groceryListId, byte[] checkedItems) {
+}
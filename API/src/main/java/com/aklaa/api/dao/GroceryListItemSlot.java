@@ -0,0 +1,7 @@
+package com.aklaa.api.dao;
+
+/**
+ * The checked-items slot of a grocery list item.
+ */
+public record GroceryListItemSlot(Long ingredientId, Integer slot) {
+}
@@ -0,0 +1,21 @@
+package com.aklaa.api.dao;
+
+import com.aklaa.api.model.enums.IngredientCategory;
+import com.aklaa.api.model.enums.MeasurementUnit;
+
+import java.math.BigDecimal;
+
+/**
+ * Flat projection of a grocery list item with the ingredient columns a list shows.
+ */
+public record GroceryListItemView(
+        Long groceryListId,
+        Long ingredientId,
+        String name,
+        String description,
+        IngredientCategory category,
+        MeasurementUnit unit,
+        BigDecimal quantity,
+        Integer slot
+) {
+}
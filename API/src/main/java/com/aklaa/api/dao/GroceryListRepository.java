@@ -2,21 +2,54 @@ package com.aklaa.api.dao;
 
 import com.aklaa.api.model.GroceryList;
 import com.aklaa.api.model.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
-public interface GroceryListRepository extends JpaRepository<GroceryList, Long> {
+public interface GroceryListRepository extends JpaRepository<GroceryList, Long>, GroceryListRepositoryCustom {
     Page<GroceryList> findByUser(User user, Pageable pageable);
     List<GroceryList> findByUser(User user);
     Optional<GroceryList> findByIdAndUser(Long id, User user);
+    boolean existsByIdAndUser(Long id, User user);
+
+    @Query("SELECT gli.id.ingredientId FROM GroceryListIngredient gli " +
+           "WHERE gli.id.groceryListId = :groceryListId AND gli.id.ingredientId IN :ingredientIds")
+    Set<Long> findItemIngredientIds(@Param("groceryListId") Long groceryListId, @Param("ingredientIds") Collection<Long> ingredientIds);
+
+    @Query("SELECT new com.aklaa.api.dao.GroceryListItemSlot(gli.id.ingredientId, gli.slot) FROM GroceryListIngredient gli " +
+           "WHERE gli.id.groceryListId = :groceryListId AND gli.id.ingredientId IN :ingredientIds")
+    List<GroceryListItemSlot> findItemSlots(@Param("groceryListId") Long groceryListId, @Param("ingredientIds") Collection<Long> ingredientIds);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT new com.aklaa.api.dao.GroceryListCheckedItems(g.id, g.checkedItems) FROM GroceryList g WHERE g.id IN :ids")
+    List<GroceryListCheckedItems> findCheckedItemsForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE GroceryList g SET g.checkedItems = :checkedItems WHERE g.id = :id")
+    int updateCheckedItems(@Param("id") Long id, @Param("checkedItems") byte[] checkedItems);
+
+    @Modifying
+    @Query("UPDATE GroceryListIngredient gli SET gli.quantity = :quantity " +
+           "WHERE gli.id.groceryListId = :groceryListId AND gli.id.ingredientId = :ingredientId")
+    int updateItemQuantity(@Param("groceryListId") Long groceryListId, @Param("ingredientId") Long ingredientId, @Param("quantity") BigDecimal quantity);
+
+    @Modifying
+    @Query("DELETE FROM GroceryListIngredient gli " +
+           "WHERE gli.id.groceryListId = :groceryListId AND gli.id.ingredientId IN :ingredientIds")
+    int deleteItems(@Param("groceryListId") Long groceryListId, @Param("ingredientIds") Collection<Long> ingredientIds);
 
     @Query("SELECT DISTINCT g FROM GroceryList g " +
            "LEFT JOIN FETCH g.groceryListIngredients gli " +
@@ -24,7 +57,25 @@ public interface GroceryListRepository extends JpaRepository<GroceryList, Long>
            "WHERE g.user = :user")
     List<GroceryList> findByUserWithIngredients(@Param("user") User user);
 
+    @Query("SELECT new com.aklaa.api.dao.GroceryListSummary(g.id, g.startOfWeek, g.endOfWeek, g.createdAt, g.checkedItems) " +
+           "FROM GroceryList g WHERE g.user.id = :userId AND g.id > :after ORDER BY g.id")
+    List<GroceryListSummary> findSummariesByUserAfter(@Param("userId") Long userId, @Param("after") Long after, Limit limit);
+
+    @Query("SELECT DISTINCT g.user.id FROM GroceryList g WHERE g.createdAt < :date")
+    List<Long> findUserIdsWithListsCreatedBefore(@Param("date") OffsetDateTime date);
+
+    @Query("SELECT new com.aklaa.api.dao.GroceryListSummary(g.id, g.startOfWeek, g.endOfWeek, g.createdAt, g.checkedItems) " +
+           "FROM GroceryList g WHERE g.user.id = :userId AND g.createdAt < :date ORDER BY g.id DESC")
+    List<GroceryListSummary> findSummariesCreatedBefore(@Param("userId") Long userId, @Param("date") OffsetDateTime date);
+
+    @Query("SELECT g.id FROM GroceryList g WHERE g.createdAt < :date ORDER BY g.id")
+    List<Long> findIdsCreatedBefore(@Param("date") OffsetDateTime date, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM GroceryListIngredient gli WHERE gli.id.groceryListId IN :ids")
+    int deleteItemsOfLists(@Param("ids") Collection<Long> ids);
+
     @Modifying
-    @Query("DELETE FROM GroceryList g WHERE g.createdAt < :date")
-    void deleteByCreatedAtBefore(@Param("date") OffsetDateTime date);
+    @Query("DELETE FROM GroceryList g WHERE g.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
 }
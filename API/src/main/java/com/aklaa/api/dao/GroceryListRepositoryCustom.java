@@ -0,0 +1,39 @@
+package com.aklaa.api.dao;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface GroceryListRepositoryCustom {
+
+    /**
+     * Pages through the items of a grocery list in shopping order: by category, in the order the categories
+     * are declared, then by ingredient name. Ordering and paging happen in the database; the sort of the
+     * pageable is ignored.
+     */
+    Page<GroceryListItemView> findItems(Long groceryListId, Pageable pageable);
+
+    /**
+     * All items of the given grocery lists, ordered by grocery list id and then in shopping order.
+     */
+    List<GroceryListItemView> findItems(Collection<Long> groceryListIds);
+
+    /**
+     * Inserts new items into a grocery list without loading the list or its other items. The caller makes sure
+     * none of the ingredients is on the list yet. The items get slots from {@link #allocateSlots}, which are
+     * returned in the iteration order of {@code quantities}.
+     */
+    List<Integer> addItems(Long groceryListId, Map<Long, BigDecimal> quantities);
+
+    /**
+     * Reserves {@code count} new slots of a grocery list and unchecks them. Advancing the list's counter locks its
+     * row until the caller's transaction ends, so concurrent additions to the same list never get the same slot.
+     *
+     * @return the first of the reserved slots
+     */
+    int allocateSlots(Long groceryListId, int count);
+}
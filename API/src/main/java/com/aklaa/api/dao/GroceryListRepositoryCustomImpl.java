@@ -0,0 +1,138 @@
+package com.aklaa.api.dao;
+
+import com.aklaa.api.model.GroceryList;
+import com.aklaa.api.model.GroceryListIngredient;
+import com.aklaa.api.model.GroceryListIngredientKey;
+import com.aklaa.api.model.Ingredient;
+import com.aklaa.api.model.enums.IngredientCategory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+public class GroceryListRepositoryCustomImpl implements GroceryListRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<GroceryListItemView> findItems(Long groceryListId, Pageable pageable) {
+        List<GroceryListItemView> content = entityManager.createQuery(itemQuery((builder, item) ->
+                        builder.equal(item.get("groceryList").get("id"), groceryListId)))
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> {
+            CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+            CriteriaQuery<Long> count = builder.createQuery(Long.class);
+            Root<GroceryListIngredient> item = count.from(GroceryListIngredient.class);
+            count.select(builder.count(item)).where(builder.equal(item.get("groceryList").get("id"), groceryListId));
+            return entityManager.createQuery(count).getSingleResult();
+        });
+    }
+
+    @Override
+    public List<GroceryListItemView> findItems(Collection<Long> groceryListIds) {
+        if (groceryListIds.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createQuery(itemQuery((builder, item) ->
+                        item.get("groceryList").get("id").in(groceryListIds)))
+                .getResultList();
+    }
+
+    @Override
+    public List<Integer> addItems(Long groceryListId, Map<Long, BigDecimal> quantities) {
+        int nextSlot = allocateSlots(groceryListId, quantities.size());
+
+        GroceryList groceryList = entityManager.getReference(GroceryList.class, groceryListId);
+        List<Integer> slots = new ArrayList<>(quantities.size());
+        for (Map.Entry<Long, BigDecimal> entry : quantities.entrySet()) {
+            entityManager.persist(GroceryListIngredient.builder()
+                    .id(new GroceryListIngredientKey(groceryListId, entry.getKey()))
+                    .groceryList(groceryList)
+                    .ingredient(entityManager.getReference(Ingredient.class, entry.getKey()))
+                    .quantity(entry.getValue())
+                    .slot(nextSlot)
+                    .build());
+            slots.add(nextSlot++);
+        }
+        return slots;
+    }
+
+    @Override
+    public int allocateSlots(Long groceryListId, int count) {
+        // Lists from before the counter start after their highest slot in use.
+        entityManager.createNativeQuery("UPDATE grocery_lists SET next_slot = COALESCE(next_slot, "
+                        + "(SELECT COALESCE(MAX(gli.slot), -1) + 1 FROM grocery_list_ingredient gli WHERE gli.grocery_list_id = :id)"
+                        + ") + :count WHERE id = :id")
+                .setParameter("id", groceryListId)
+                .setParameter("count", count)
+                .executeUpdate();
+
+        Object[] row = (Object[]) entityManager.createNativeQuery("SELECT next_slot, checked_items FROM grocery_lists WHERE id = :id")
+                .setParameter("id", groceryListId)
+                .getSingleResult();
+        int end = ((Number) row[0]).intValue();
+        int first = end - count;
+
+        // Only lists from before the counter can have bits set in fresh slots, left behind by removed items.
+        byte[] stored = (byte[]) row[1];
+        if (stored != null) {
+            BitSet checked = BitSet.valueOf(stored);
+            if (checked.previousSetBit(end - 1) >= first) {
+                checked.clear(first, end);
+                entityManager.createQuery("UPDATE GroceryList g SET g.checkedItems = :checkedItems WHERE g.id = :id")
+                        .setParameter("checkedItems", checked.toByteArray())
+                        .setParameter("id", groceryListId)
+                        .executeUpdate();
+            }
+        }
+        return first;
+    }
+
+    private CriteriaQuery<GroceryListItemView> itemQuery(BiFunction<CriteriaBuilder, Root<GroceryListIngredient>, Predicate> filter) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<GroceryListItemView> query = builder.createQuery(GroceryListItemView.class);
+        Root<GroceryListIngredient> item = query.from(GroceryListIngredient.class);
+        Join<GroceryListIngredient, Ingredient> ingredient = item.join("ingredient");
+
+        query.select(builder.construct(GroceryListItemView.class,
+                        item.get("groceryList").get("id"),
+                        ingredient.get("id"),
+                        ingredient.get("name"),
+                        ingredient.get("description"),
+                        ingredient.get("category"),
+                        ingredient.get("unit"),
+                        item.get("quantity"),
+                        item.get("slot")))
+                .where(filter.apply(builder, item))
+                .orderBy(
+                        builder.asc(item.get("groceryList").get("id")),
+                        builder.asc(categoryOrder(builder, ingredient.get("category"))),
+                        builder.asc(ingredient.get("name")),
+                        builder.asc(ingredient.get("id"))
+                );
+        return query;
+    }
+
+    // Categories are stored by name; ordering on the column would be alphabetical instead of declaration order.
+    private static Expression<Integer> categoryOrder(CriteriaBuilder builder, Path<IngredientCategory> category) {
+        CriteriaBuilder.SimpleCase<IngredientCategory, Integer> order = builder.selectCase(category);
+        for (IngredientCategory value : IngredientCategory.values()) {
+            order = order.when(value, value.ordinal());
+        }
+        return order.otherwise(IngredientCategory.values().length);
+    }
+}
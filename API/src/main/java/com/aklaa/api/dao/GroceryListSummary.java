@@ -0,0 +1,15 @@
+package com.aklaa.api.dao;
+
+import java.time.OffsetDateTime;
+
+/**
+ * The columns of a grocery list itself, without its owner or items.
+ */
+public record GroceryListSummary(
+        Long id,
+        OffsetDateTime startOfWeek,
+        OffsetDateTime endOfWeek,
+        OffsetDateTime createdAt,
+        byte[] checkedItems
+) {
+}
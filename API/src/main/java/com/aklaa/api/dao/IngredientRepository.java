@@ -2,15 +2,25 @@ package com.aklaa.api.dao;
 
 import com.aklaa.api.model.Ingredient;
 import com.aklaa.api.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface IngredientRepository extends JpaRepository<Ingredient, Long>, JpaSpecificationExecutor<Ingredient> {
+public interface IngredientRepository extends JpaRepository<Ingredient, Long>, JpaSpecificationExecutor<Ingredient>, IngredientRepositoryCustom {
     Optional<Ingredient> findByName(String name);
     List<Ingredient> findAllByUserOrderByCategoryAscNameAsc(User user);
     List<Ingredient> findByUserOrderByNameAsc(User user);
     Optional<Ingredient> findIngredientById(Long id);
+
+    List<Ingredient> findAllByUserAndIdentityKeyIn(User user, Collection<String> identityKeys);
+    long countByUserAndIdIn(User user, Collection<Long> ids);
+
+    @Query("SELECT i FROM Ingredient i WHERE i.user.id = :userId AND i.id > :after ORDER BY i.id")
+    List<Ingredient> findByUserAfter(@Param("userId") Long userId, @Param("after") Long after, Limit limit);
 }
\ No newline at end of file
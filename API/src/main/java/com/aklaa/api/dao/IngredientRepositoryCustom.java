@@ -0,0 +1,23 @@
+package com.aklaa.api.dao;
+
+import com.aklaa.api.model.Ingredient;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface IngredientRepositoryCustom {
+
+    /**
+     * Pages through the ingredients matching the specification.
+     * Ordering added by the specification (such as search relevance) takes precedence over the sort of the pageable.
+     */
+    Page<Ingredient> findAllRanked(Specification<Ingredient> spec, Pageable pageable);
+
+    /**
+     * Keyset variant of {@link #findAllRanked(Specification, Pageable)}: returns up to {@code size} ingredients
+     * ordered on the given keys, starting after the cursor, without a count query.
+     */
+    CursorPage<Ingredient> findAllAfter(Specification<Ingredient> spec, List<String> keys, String cursor, int size);
+}
@@ -0,0 +1,26 @@
+package com.aklaa.api.dao;
+
+import com.aklaa.api.model.Ingredient;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public class IngredientRepositoryCustomImpl implements IngredientRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Ingredient> findAllRanked(Specification<Ingredient> spec, Pageable pageable) {
+        return SpecificationQueries.findAll(entityManager, Ingredient.class, spec, pageable);
+    }
+
+    @Override
+    public CursorPage<Ingredient> findAllAfter(Specification<Ingredient> spec, List<String> keys, String cursor, int size) {
+        return SpecificationQueries.findAllAfter(entityManager, Ingredient.class, spec, keys, cursor, size);
+    }
+}
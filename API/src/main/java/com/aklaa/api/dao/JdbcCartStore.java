@@ -0,0 +1,97 @@
+package com.aklaa.api.dao;
+
+import com.aklaa.api.dtos.request.CartDishRequestDTO;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.time.DayOfWeek;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * {@link CartStore} on the {@code cart_items} table, one row per item keyed by (user_id, item_id).
+ * Every operation is a single statement on that key.
+ */
+@Repository
+public class JdbcCartStore implements CartStore {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcCartStore(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public List<CartDishRequestDTO> findAll(Long userId) {
+        return jdbcTemplate.query(
+                "SELECT item_id, dish_id, day_of_week, people FROM cart_items WHERE user_id = ? ORDER BY item_id",
+                (rs, rowNum) -> CartDishRequestDTO.builder()
+                        .id(rs.getInt("item_id"))
+                        .dishId(rs.getLong("dish_id"))
+                        .dayOfWeek(DayOfWeek.valueOf(rs.getString("day_of_week")))
+                        .people(rs.getInt("people"))
+                        .build(),
+                userId
+        );
+    }
+
+    @Override
+    public int findMaxId(Long userId) {
+        Integer maxId = jdbcTemplate.queryForObject("SELECT MAX(item_id) FROM cart_items WHERE user_id = ?", Integer.class, userId);
+        return maxId == null ? 0 : maxId;
+    }
+
+    @Override
+    public boolean insert(Long userId, CartDishRequestDTO item) {
+        try {
+            jdbcTemplate.update(
+                    "INSERT INTO cart_items (user_id, item_id, dish_id, day_of_week, people) VALUES (?, ?, ?, ?, ?)",
+                    userId, item.getId(), item.getDishId(), item.getDayOfWeek().name(), item.getPeople()
+            );
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean update(Long userId, CartDishRequestDTO item) {
+        return jdbcTemplate.update(
+                "UPDATE cart_items SET dish_id = ?, day_of_week = ?, people = ? WHERE user_id = ? AND item_id = ?",
+                item.getDishId(), item.getDayOfWeek().name(), item.getPeople(), userId, item.getId()
+        ) == 1;
+    }
+
+    @Override
+    public boolean delete(Long userId, int itemId) {
+        return jdbcTemplate.update("DELETE FROM cart_items WHERE user_id = ? AND item_id = ?", userId, itemId) == 1;
+    }
+
+    @Override
+    public void deleteAll(Long userId) {
+        jdbcTemplate.update("DELETE FROM cart_items WHERE user_id = ?", userId);
+    }
+
+    @Override
+    public int deleteUnchanged(Long userId, Collection<CartDishRequestDTO> items) {
+        if (items.isEmpty()) {
+            return 0;
+        }
+        int[][] counts = jdbcTemplate.batchUpdate(
+                "DELETE FROM cart_items WHERE user_id = ? AND item_id = ? AND dish_id = ? AND day_of_week = ? AND people = ?",
+                items,
+                items.size(),
+                (ps, item) -> {
+                    ps.setLong(1, userId);
+                    ps.setInt(2, item.getId());
+                    ps.setLong(3, item.getDishId());
+                    ps.setString(4, item.getDayOfWeek().name());
+                    ps.setInt(5, item.getPeople());
+                }
+        );
+        return Arrays.stream(counts).flatMapToInt(Arrays::stream).map(count -> Math.max(count, 0)).sum();
+    }
+}
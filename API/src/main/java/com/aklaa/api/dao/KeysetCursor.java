@@ -0,0 +1,60 @@
+package com.aklaa.api.dao;
+
+import com.aklaa.api.exceptions.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Opaque pagination cursor holding the sort key of the last row of a page, e.g. {@code [name, id]}.
+ * Values are stored as strings, {@code null} values are kept.
+ */
+public record KeysetCursor(List<String> values) {
+
+    private static final char SEPARATOR = '\u001F';
+    private static final char NULL_MARKER = '\u0000';
+
+    public String encode() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                builder.append(SEPARATOR);
+            }
+            String value = values.get(i);
+            builder.append(value == null ? String.valueOf(NULL_MARKER) : value);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param cursor an encoded cursor, or {@code null}/blank for the first page
+     * @return the decoded cursor, or {@code null} for the first page
+     * @throws InvalidCursorException if the cursor cannot be decoded
+     */
+    public static KeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor", e);
+        }
+
+        List<String> values = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i <= decoded.length(); i++) {
+            if (i == decoded.length() || decoded.charAt(i) == SEPARATOR) {
+                String value = decoded.substring(start, i);
+                values.add(value.equals(String.valueOf(NULL_MARKER)) ? null : value);
+                start = i + 1;
+            }
+        }
+        return new KeysetCursor(values);
+    }
+}
@@ -1,18 +0,0 @@
-package com.aklaa.api.dao;
-
-import com.aklaa.api.model.PasswordResetToken;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
-
-import java.time.OffsetDateTime;
-import java.util.Optional;
-
-public interface ResetPasswordRepository extends JpaRepository<PasswordResetToken, Long> {
-    Optional<PasswordResetToken> findByToken(String token);
-
-    @Modifying
-    @Query("DELETE FROM PasswordResetToken t WHERE t.expiresAt < :date")
-    void deletePasswordResetTokenAutomatically(@Param("date") OffsetDateTime date);
-}
\ No newline at end of file
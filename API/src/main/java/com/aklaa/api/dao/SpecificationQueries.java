@@ -0,0 +1,230 @@
+package com.aklaa.api.dao;
+
+import com.aklaa.api.exceptions.InvalidCursorException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Paged specification queries for the custom repository fragments.
+ * <p>
+ * Unlike {@code JpaSpecificationExecutor#findAll(Specification, Pageable)}, ordering set by the specification itself
+ * (e.g. search relevance) is kept and comes before the sort of the pageable. The entity ID is always added as final
+ * tie-breaker so pages are stable.
+ * </p>
+ * <p>
+ * The {@code ...After} variants use keyset pagination instead: rows are ordered ascending on the given key properties
+ * (the last one must be {@code id}), the page starts right after the cursor and no count query is run.
+ * Ordering set by the specification is ignored there, since it cannot be part of the cursor.
+ * NULL values are expected to sort first, as they do on MySQL and H2.
+ * </p>
+ */
+final class SpecificationQueries {
+
+    private SpecificationQueries() {
+    }
+
+    static <T> Page<Long> findIds(EntityManager entityManager, Class<T> type, Specification<T> spec, Pageable pageable) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<T> root = query.from(type);
+        query.select(root.get("id"));
+
+        return page(entityManager, query, root, type, spec, pageable);
+    }
+
+    static <T> Page<T> findAll(EntityManager entityManager, Class<T> type, Specification<T> spec, Pageable pageable) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = builder.createQuery(type);
+        Root<T> root = query.from(type);
+        query.select(root);
+
+        return page(entityManager, query, root, type, spec, pageable);
+    }
+
+    private static <T, R> Page<R> page(
+            EntityManager entityManager,
+            CriteriaQuery<R> criteria,
+            Root<T> root,
+            Class<T> type,
+            Specification<T> spec,
+            Pageable pageable
+    ) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        Predicate predicate = spec.toPredicate(root, criteria, builder);
+        if (predicate != null) {
+            criteria.where(predicate);
+        }
+
+        List<Order> orders = new ArrayList<>(criteria.getOrderList());
+        orders.addAll(QueryUtils.toOrders(pageable.getSort(), root, builder));
+        if (pageable.getSort().getOrderFor("id") == null) {
+            orders.add(builder.asc(root.get("id")));
+        }
+        criteria.orderBy(orders);
+
+        TypedQuery<R> query = entityManager.createQuery(criteria);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(entityManager, type, spec));
+    }
+
+    private static <T> long count(EntityManager entityManager, Class<T> type, Specification<T> spec) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<T> root = query.from(type);
+        query.select(builder.count(root));
+        Predicate predicate = spec.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(List.of());
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    static <T> CursorPage<Long> findIdsAfter(
+            EntityManager entityManager, Class<T> type, Specification<T> spec, List<String> keys, String cursor, int size
+    ) {
+        List<Tuple> rows = seek(entityManager, type, spec, keys, cursor, size, false);
+        List<Long> ids = rows.stream()
+                .limit(size)
+                .map(row -> row.get(keys.size() - 1, Long.class))
+                .toList();
+
+        return new CursorPage<>(ids, nextCursor(rows, size, 0));
+    }
+
+    static <T> CursorPage<T> findAllAfter(
+            EntityManager entityManager, Class<T> type, Specification<T> spec, List<String> keys, String cursor, int size
+    ) {
+        List<Tuple> rows = seek(entityManager, type, spec, keys, cursor, size, true);
+        List<T> content = rows.stream()
+                .limit(size)
+                .map(row -> row.get(0, type))
+                .toList();
+
+        return new CursorPage<>(content, nextCursor(rows, size, 1));
+    }
+
+    private static <T> List<Tuple> seek(
+            EntityManager entityManager,
+            Class<T> type,
+            Specification<T> spec,
+            List<String> keys,
+            String cursor,
+            int size,
+            boolean selectRoot
+    ) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> criteria = builder.createTupleQuery();
+        Root<T> root = criteria.from(type);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        if (selectRoot) {
+            selections.add(root);
+        }
+        List<Path<Object>> keyPaths = keys.stream().map(root::get).toList();
+        selections.addAll(keyPaths);
+        criteria.multiselect(selections);
+
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate predicate = spec.toPredicate(root, criteria, builder);
+        if (predicate != null) {
+            predicates.add(predicate);
+        }
+
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        if (after != null) {
+            predicates.add(after(builder, keyPaths, toKeyValues(keyPaths, after)));
+        }
+
+        criteria.where(predicates.toArray(Predicate[]::new));
+        criteria.orderBy(keyPaths.stream().map(builder::asc).toList());
+
+        return entityManager.createQuery(criteria)
+                .setMaxResults(size + 1)
+                .getResultList();
+    }
+
+    /**
+     * Builds {@code (k1 > v1) OR (k1 = v1 AND ((k2 > v2) OR (k2 = v2 AND ...)))}, treating NULL as the lowest value.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate after(CriteriaBuilder builder, List<Path<Object>> keyPaths, List<Object> values) {
+        Predicate rest = null;
+        for (int i = keyPaths.size() - 1; i >= 0; i--) {
+            Expression path = keyPaths.get(i);
+            Object value = values.get(i);
+
+            Predicate greater = value == null ? builder.isNotNull(path) : builder.greaterThan(path, (Comparable) value);
+            Predicate equal = value == null ? builder.isNull(path) : builder.equal(path, value);
+
+            rest = rest == null ? greater : builder.or(greater, builder.and(equal, rest));
+        }
+        return rest;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static List<Object> toKeyValues(List<Path<Object>> keyPaths, KeysetCursor cursor) {
+        if (cursor.values().size() != keyPaths.size()) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+
+        List<Object> values = new ArrayList<>();
+        try {
+            for (int i = 0; i < keyPaths.size(); i++) {
+                String value = cursor.values().get(i);
+                Class<?> javaType = keyPaths.get(i).getJavaType();
+
+                if (value == null) {
+                    values.add(null);
+                } else if (javaType.isEnum()) {
+                    values.add(Enum.valueOf((Class<Enum>) javaType, value));
+                } else if (javaType == Long.class || javaType == long.class) {
+                    values.add(Long.valueOf(value));
+                } else if (javaType == Integer.class || javaType == int.class) {
+                    values.add(Integer.valueOf(value));
+                } else {
+                    values.add(value);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor", e);
+        }
+        return values;
+    }
+
+    private static String nextCursor(List<Tuple> rows, int size, int firstKey) {
+        if (rows.size() <= size) {
+            return null;
+        }
+
+        Tuple last = rows.get(size - 1);
+        List<String> values = new ArrayList<>();
+        for (int i = firstKey; i < last.getElements().size(); i++) {
+            Object value = last.get(i);
+            values.add(value == null ? null : value instanceof Enum<?> e ? e.name() : value.toString());
+        }
+        return new KeysetCursor(values).encode();
+    }
+}
@@ -0,0 +1,40 @@
+package com.aklaa.api.dao;
+
+import com.aklaa.api.model.UserDataExportJob;
+import com.aklaa.api.model.enums.ExportJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.Optional;
+
+public interface UserDataExportJobRepository extends JpaRepository<UserDataExportJob, String> {
+
+    Optional<UserDataExportJob> findByIdAndUserId(String id, Long userId);
+
+    Optional<UserDataExportJob> findFirstByUserIdAndStatusInOrderByCreatedAtDesc(Long userId, Collection<ExportJobStatus> statuses);
+
+    @Modifying
+    @Query("UPDATE UserDataExportJob j SET j.status = com.aklaa.api.model.enums.ExportJobStatus.RUNNING, " +
+           "j.startedAt = :startedAt WHERE j.id = :id AND j.status = com.aklaa.api.model.enums.ExportJobStatus.QUEUED")
+    int start(@Param("id") String id, @Param("startedAt") OffsetDateTime startedAt);
+
+    @Modifying
+    @Query("UPDATE UserDataExportJob j SET j.status = com.aklaa.api.model.enums.ExportJobStatus.COMPLETED, " +
+           "j.objectName = :objectName, j.completedAt = :completedAt " +
+           "WHERE j.id = :id AND j.status = com.aklaa.api.model.enums.ExportJobStatus.RUNNING")
+    int complete(@Param("id") String id, @Param("objectName") String objectName, @Param("completedAt") OffsetDateTime completedAt);
+
+    @Modifying
+    @Query("UPDATE UserDataExportJob j SET j.status = com.aklaa.api.model.enums.ExportJobStatus.FAILED, " +
+           "j.error = :error, j.completedAt = :completedAt WHERE j.id = :id AND j.status IN :statuses")
+    int fail(@Param("id") String id, @Param("error") String error, @Param("completedAt") OffsetDateTime completedAt,
+             @Param("statuses") Collection<ExportJobStatus> statuses);
+
+    @Modifying
+    @Query("DELETE FROM UserDataExportJob j WHERE j.completedAt < :cutoff")
+    int deleteFinishedBefore(@Param("cutoff") OffsetDateTime cutoff);
+}
@@ -0,0 +1,14 @@
+package com.aklaa.api.dao;
+
+import com.aklaa.api.model.User;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Returns up to {@code size} users ordered on the given keys, starting after the cursor, without a count query.
+     */
+    CursorPage<User> findAllAfter(Specification<User> spec, List<String> keys, String cursor, int size);
+}
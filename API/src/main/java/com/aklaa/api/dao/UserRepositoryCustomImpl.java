@@ -0,0 +1,19 @@
+package com.aklaa.api.dao;
+
+import com.aklaa.api.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public CursorPage<User> findAllAfter(Specification<User> spec, List<String> keys, String cursor, int size) {
+        return SpecificationQueries.findAllAfter(entityManager, User.class, spec, keys, cursor, size);
+    }
+}
@@ -0,0 +1,26 @@
+package com.aklaa.api.dao;
+
+import com.aklaa.api.model.UserToken;
+import com.aklaa.api.model.enums.TokenPurpose;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+
+public interface UserTokenRepository extends JpaRepository<UserToken, String> {
+
+    @EntityGraph(attributePaths = "user")
+    Optional<UserToken> findByTokenHashAndPurpose(String tokenHash, TokenPurpose purpose);
+
+    @Modifying
+    @Query("DELETE FROM UserToken t WHERE t.user.id = :userId AND t.purpose = :purpose")
+    int deleteByUserIdAndPurpose(@Param("userId") Long userId, @Param("purpose") TokenPurpose purpose);
+
+    @Modifying
+    @Query("DELETE FROM UserToken t WHERE t.expiresAt < :date")
+    int deleteExpired(@Param("date") OffsetDateTime date);
+}
@@ -0,0 +1,27 @@
+package com.aklaa.api.dtos.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class GroceryListCheckRequestDTO {
+    @NotNull(message = "checked is required.")
+    @NotEmpty(message = "checked cannot be empty.")
+    private Map<
+            @NotNull(message = "Ingredient ID cannot be null.")
+            @Positive(message = "Ingredient ID must be a positive number.")
+                    Long,
+            @NotNull(message = "Checked state cannot be null.")
+                    Boolean
+            > checked;
+}
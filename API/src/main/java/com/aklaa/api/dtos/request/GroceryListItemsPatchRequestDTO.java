@@ -0,0 +1,50 @@
+package com.aklaa.api.dtos.request;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Set;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class GroceryListItemsPatchRequestDTO {
+    private Map<
+            @NotNull(message = "Ingredient ID cannot be null.")
+            @Positive(message = "Ingredient ID must be a positive number.")
+                    Long,
+            @NotNull(message = "Quantity cannot be null.")
+            @Positive(message = "Quantity must be greater than zero.")
+                    BigDecimal
+            > add;
+
+    private Map<
+            @NotNull(message = "Ingredient ID cannot be null.")
+            @Positive(message = "Ingredient ID must be a positive number.")
+                    Long,
+            @NotNull(message = "Quantity cannot be null.")
+            @Positive(message = "Quantity must be greater than zero.")
+                    BigDecimal
+            > update;
+
+    private Set<
+            @NotNull(message = "Ingredient ID cannot be null.")
+            @Positive(message = "Ingredient ID must be a positive number.")
+                    Long
+            > remove;
+
+    @AssertTrue(message = "At least one of add, update or remove is required.")
+    private boolean isAnyOperation() {
+        return (add != null && !add.isEmpty())
+                || (update != null && !update.isEmpty())
+                || (remove != null && !remove.isEmpty());
+    }
+}
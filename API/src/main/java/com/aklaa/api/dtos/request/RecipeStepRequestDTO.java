@@ -13,6 +13,8 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @Builder
 public class RecipeStepRequestDTO {
+    private Long id;
+
     @Min(value = 1, message = "Step order must be at least 1")
     private int orderIndex;
 
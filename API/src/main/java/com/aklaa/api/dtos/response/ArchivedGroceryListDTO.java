@@ -0,0 +1,21 @@
+package com.aklaa.api.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ArchivedGroceryListDTO {
+    private Long id;
+    private OffsetDateTime startOfWeek;
+    private OffsetDateTime endOfWeek;
+    private OffsetDateTime createdAt;
+    private List<GroceryListIngredientResponseDTO> ingredients;
+}
@@ -0,0 +1,18 @@
+package com.aklaa.api.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ArchivedGroceryListPageDTO {
+    private List<ArchivedGroceryListDTO> groceryLists;
+    private long totalElements;
+    private int totalPages;
+}
@@ -0,0 +1,19 @@
+package com.aklaa.api.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class DishImportErrorDTO {
+    /**
+     * Zero-based position of the dish in the uploaded document.
+     */
+    private long index;
+    private String name;
+    private String message;
+}
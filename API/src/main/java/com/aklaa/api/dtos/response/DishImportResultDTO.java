@@ -0,0 +1,22 @@
+package com.aklaa.api.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class DishImportResultDTO {
+    private long imported;
+    private long failed;
+
+    /**
+     * Details of the failed dishes, capped at {@code dishes.import.max-errors} entries.
+     */
+    private List<DishImportErrorDTO> errors;
+}
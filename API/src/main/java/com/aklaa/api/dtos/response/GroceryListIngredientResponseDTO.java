@@ -14,4 +14,5 @@ import java.math.BigDecimal;
 public class GroceryListIngredientResponseDTO {
     private IngredientResponseDTO ingredient;
     private BigDecimal quantity;
+    private boolean checked;
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.aklaa.api.dtos.response;
+
+import com.aklaa.api.model.enums.ExportJobStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class UserDataExportJobDTO {
+    private String id;
+    private ExportJobStatus status;
+    private OffsetDateTime createdAt;
+    private OffsetDateTime startedAt;
+    private OffsetDateTime completedAt;
+    private String error;
+}
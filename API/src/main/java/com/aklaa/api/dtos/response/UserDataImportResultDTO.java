@@ -0,0 +1,27 @@
+package com.aklaa.api.dtos.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class UserDataImportResultDTO {
+    private long ingredients;
+    private long dishes;
+    private long groceryLists;
+    private long failed;
+
+    /**
+     * Whether this is the final result. Earlier results report the progress of a running import.
+     */
+    private boolean done;
+
+    /**
+     * Why the import stopped before the end of the document, or {@code null} if it read the whole document.
+     */
+    private String error;
+}
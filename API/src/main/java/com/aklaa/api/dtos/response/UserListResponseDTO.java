@@ -1,5 +1,6 @@
 package com.aklaa.api.dtos.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,4 +17,11 @@ public class UserListResponseDTO {
     private List<UserDTO> users;
     private long totalElements;
     private int totalPages;
+
+    /**
+     * Cursor of the next page when paging with a cursor, {@code null} on the last page and for offset paging.
+     * Cursor pages skip the count, so totalElements and totalPages are -1 there.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
 }
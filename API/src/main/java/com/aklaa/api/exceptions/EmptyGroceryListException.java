@@ -0,0 +1,7 @@
+package com.aklaa.api.exceptions;
+
+public class EmptyGroceryListException extends RuntimeException {
+    public EmptyGroceryListException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.aklaa.api.exceptions;
+
+public class ExportNotReadyException extends RuntimeException {
+    public ExportNotReadyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.aklaa.api.exceptions;
+
+public class InvalidDishTagException extends RuntimeException {
+    public InvalidDishTagException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.aklaa.api.exceptions;
+
+public class InvalidGroceryListPatchException extends RuntimeException {
+    public InvalidGroceryListPatchException(String message) {
+        super(message);
+    }
+}
@@ -85,6 +85,7 @@ public class DishMapper {
 
         return steps.stream()
                 .map(dto -> RecipeStep.builder()
+                        .id(dto.getId())
                         .recipeStep(dto.getStepText())
                         .orderIndex(dto.getOrderIndex())
                         .dish(dish)
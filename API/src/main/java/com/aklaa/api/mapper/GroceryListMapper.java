@@ -1,29 +1,16 @@
 package com.aklaa.api.mapper;
 
-import com.aklaa.api.dao.DishRepository;
-import com.aklaa.api.dtos.request.CartDishRequestDTO;
-import com.aklaa.api.dtos.request.IngredientRequestDTO;
-import com.aklaa.api.dtos.response.CartDishResponseDTO;
-import com.aklaa.api.dtos.response.DishResponseDTO;
+import com.aklaa.api.dao.GroceryListItemView;
+import com.aklaa.api.dtos.response.GroceryListIngredientResponseDTO;
 import com.aklaa.api.dtos.response.GroceryListResponseDTO;
-import com.aklaa.api.model.Dish;
+import com.aklaa.api.dtos.response.IngredientResponseDTO;
 import com.aklaa.api.model.GroceryList;
-import com.aklaa.api.model.GroceryListIngredient;
-import com.aklaa.api.model.User;
-import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
-import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.BitSet;
 
 @Component
-@RequiredArgsConstructor
 public class GroceryListMapper {
-    private final IngredientMapper ingredientMapper;
-    private final DishMapper dishMapper;
-    private final DishRepository dishRepository;
 
     public GroceryListResponseDTO toResponseDTO(GroceryList groceryList) {
         return GroceryListResponseDTO.builder()
@@ -33,53 +20,25 @@ public class GroceryListMapper {
                 .build();
     }
 
-    public GroceryList fromCartDishes(List<CartDishResponseDTO> cartDishes, User user) {
-        GroceryList groceryList = GroceryList.builder()
-                .startOfWeek(OffsetDateTime.now(ZoneOffset.UTC))
-                .endOfWeek(OffsetDateTime.now(ZoneOffset.UTC).plusDays(7))
-                .user(user)
-                .build();
-
-        Map<Long, GroceryListIngredient> mergedIngredients = new HashMap<>();
-
-        for (CartDishResponseDTO cartDish : cartDishes) {
-            List<GroceryListIngredient> ingredientsForDish =
-                    ingredientMapper.toGroceryListIngredients(
-                            groceryList,
-                            ingredientMapper.scaleIngredients(cartDish)
-                    );
-
-            for (GroceryListIngredient gli : ingredientsForDish) {
-                Long ingredientId = gli.getIngredient().getId();
-
-                if (mergedIngredients.containsKey(ingredientId)) {
-                    GroceryListIngredient existing = mergedIngredients.get(ingredientId);
-                    existing.setQuantity(existing.getQuantity().add(gli.getQuantity()));
-                } else {
-                    mergedIngredients.put(ingredientId, gli);
-                }
-            }
-        }
-
-        groceryList.setGroceryListIngredients(new ArrayList<>(mergedIngredients.values()));
-        return groceryList;
+    public GroceryListIngredientResponseDTO toIngredientResponseDTO(GroceryListItemView item) {
+        return toIngredientResponseDTO(item, new BitSet());
     }
 
-    public List<CartDishResponseDTO> convertToCartDishResponseDTOs(List<CartDishRequestDTO> cartRequests) {
-        return cartRequests.stream()
-                .map(req -> {
-                    Optional<Dish> dishOpt = dishRepository.findById(req.getDishId());
-                    if (dishOpt.isEmpty()) return null;
+    public GroceryListIngredientResponseDTO toIngredientResponseDTO(GroceryListItemView item, BitSet checkedItems) {
+        return GroceryListIngredientResponseDTO.builder()
+                .ingredient(toIngredientDTO(item))
+                .quantity(item.quantity())
+                .checked(item.slot() != null && checkedItems.get(item.slot()))
+                .build();
+    }
 
-                    DishResponseDTO dishDTO = dishMapper.toResponseDTO(dishOpt.get());
-                    return CartDishResponseDTO.builder()
-                            .id(req.getId())
-                            .dish(dishDTO)
-                            .dayOfWeek(req.getDayOfWeek())
-                            .people(req.getPeople())
-                            .build();
-                })
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+    public IngredientResponseDTO toIngredientDTO(GroceryListItemView item) {
+        return IngredientResponseDTO.builder()
+                .id(item.ingredientId())
+                .name(item.name())
+                .description(item.description())
+                .category(item.category())
+                .unit(item.unit())
+                .build();
     }
 }
@@ -0,0 +1,32 @@
+package com.aklaa.api.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * A data migration that has run to completion. Rows are read and written by
+ * {@link com.aklaa.api.config.SchemaMigrationRunner}; the mapping defines the table.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "applied_migrations")
+public class AppliedMigration {
+
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(name = "applied_at", nullable = false)
+    private OffsetDateTime appliedAt;
+}
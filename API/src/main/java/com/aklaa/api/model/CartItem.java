@@ -0,0 +1,45 @@
+package com.aklaa.api.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.DayOfWeek;
+
+/**
+ * A dish planned in a user's cart. Rows are read and written by {@link com.aklaa.api.dao.JdbcCartStore};
+ * the mapping defines the table. Removing the user or the dish removes the item.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "cart_items")
+public class CartItem {
+
+    @EmbeddedId
+    private CartItemKey id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @MapsId("userId")
+    @JoinColumn(name = "user_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "dish_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Dish dish;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "day_of_week", nullable = false, length = 16)
+    private DayOfWeek dayOfWeek;
+
+    @Column(nullable = false)
+    private int people;
+}
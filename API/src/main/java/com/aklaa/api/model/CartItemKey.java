@@ -0,0 +1,23 @@
+package com.aklaa.api.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Embeddable
+public class CartItemKey implements Serializable {
+    @Column(name = "user_id")
+    Long userId;
+
+    @Column(name = "item_id")
+    Integer itemId;
+}
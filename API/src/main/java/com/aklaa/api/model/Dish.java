@@ -14,7 +14,9 @@ import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.function.Function;
 
 @Data
@@ -22,10 +24,20 @@ import java.util.function.Function;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "dishes")
+// Bitwise tag predicates cannot seek on tag_mask: the index narrows the lookup to the user and the
+// bitand filter is then evaluated on the index entries, without reading the dish rows.
+@Table(name = "dishes", indexes = @Index(name = "idx_dishes_user_tag_mask", columnList = "user_id, tag_mask"))
 public class Dish {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "dishes")
+    @TableGenerator(
+            name = "dishes",
+            table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = "dishes",
+            allocationSize = IdGenerators.ALLOCATION_SIZE
+    )
     private Long id;
 
     @Column(nullable = false, length = 100)
@@ -38,9 +50,11 @@ public class Dish {
     @Size(min = 10, max = 500, message = "Description must be between 10 and 500 characters")
     private String description;
 
-    @Convert(converter = DishTagListConverter.class)
-    @NotNull(message = "Tags list cannot be null")
-    private List<DishTag> tags = new ArrayList<>();
+    /**
+     * Bitmask of {@link DishTag#mask()} values, exposed as a list through {@link #getTags()}.
+     */
+    @Column(name = "tag_mask", nullable = false)
+    private int tagMask;
 
     @Enumerated(EnumType.STRING)
     @NotNull(message = "Cuisine type is required")
@@ -85,48 +99,80 @@ public class Dish {
     @UpdateTimestamp
     private LocalDateTime updatedAt;
 
+    public List<DishTag> getTags() {
+        return DishTag.fromMask(tagMask);
+    }
+
+    public void setTags(List<DishTag> tags) {
+        this.tagMask = DishTag.toMask(tags);
+    }
+
     public void replaceIngredients(List<DishIngredientRequestInfoDTO> infos, Function<Long, Ingredient> ingredientResolver) {
-        List<Long> newIngredientIds = infos.stream()
-                .map(DishIngredientRequestInfoDTO::getIngredientId)
-                .toList();
-        
-        dishIngredients.removeIf(di -> !newIngredientIds.contains(di.getIngredient().getId()));
-        
-        infos.forEach(info -> {
-            Ingredient ingredient = ingredientResolver.apply(info.getIngredientId());
-            
-            DishIngredient existingDi = dishIngredients.stream()
-                    .filter(di -> di.getIngredient().getId().equals(ingredient.getId()))
-                    .findFirst()
-                    .orElse(null);
-            
-            if (existingDi != null) {
-                existingDi.setQuantity(info.getQuantity());
-            } else {
-                DishIngredientKey key = DishIngredientKey.builder()
-                        .dishId(this.id)
-                        .ingredientId(ingredient.getId())
-                        .build();
-                
-                DishIngredient di = DishIngredient.builder()
-                        .id(key)
-                        .ingredient(ingredient)
-                        .quantity(info.getQuantity())
-                        .dish(this)
-                        .build();
-                
-                dishIngredients.add(di);
-            }
-        });
+        KeyedDiff.merge(
+                dishIngredients,
+                infos,
+                List.of(new KeyedDiff.Key<>(di -> di.getIngredient().getId(), DishIngredientRequestInfoDTO::getIngredientId)),
+                (existing, info) -> {
+                    if (existing.getQuantity() == null || existing.getQuantity().compareTo(info.getQuantity()) != 0) {
+                        existing.setQuantity(info.getQuantity());
+                    }
+                },
+                info -> {
+                    Ingredient ingredient = ingredientResolver.apply(info.getIngredientId());
+
+                    DishIngredientKey key = DishIngredientKey.builder()
+                            .dishId(this.id)
+                            .ingredientId(ingredient.getId())
+                            .build();
+
+                    return DishIngredient.builder()
+                            .id(key)
+                            .ingredient(ingredient)
+                            .quantity(info.getQuantity())
+                            .dish(this)
+                            .build();
+                }
+        );
     }
 
+    /**
+     * Updates the steps in place: incoming steps are matched to existing ones by ID, then by order index.
+     * Only steps that actually changed are written, new steps are inserted and missing ones deleted.
+     */
     public void replaceSteps(List<RecipeStep> newSteps) {
-        steps.clear();
-        newSteps.forEach(this::addStep);
+        KeyedDiff.merge(
+                steps,
+                newSteps,
+                List.of(
+                        new KeyedDiff.Key<>(RecipeStep::getId, RecipeStep::getId),
+                        new KeyedDiff.Key<>(RecipeStep::getOrderIndex, RecipeStep::getOrderIndex)
+                ),
+                (existing, step) -> {
+                    if (existing.getOrderIndex() != step.getOrderIndex()) {
+                        existing.setOrderIndex(step.getOrderIndex());
+                    }
+                    if (!Objects.equals(existing.getRecipeStep(), step.getRecipeStep())) {
+                        existing.setRecipeStep(step.getRecipeStep());
+                    }
+                },
+                step -> {
+                    step.setId(null);
+                    step.setDish(this);
+                    return step;
+                }
+        );
+        steps.sort(Comparator.comparingInt(RecipeStep::getOrderIndex));
     }
 
     public void addStep(RecipeStep step) {
         steps.add(step);
         step.setDish(this);
     }
-}
\ No newline at end of file
+
+    public static class DishBuilder {
+        public DishBuilder tags(List<DishTag> tags) {
+            this.tagMask = DishTag.toMask(tags);
+            return this;
+        }
+    }
+}
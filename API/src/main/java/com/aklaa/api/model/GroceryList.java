@@ -20,8 +20,18 @@ import java.util.List;
 @Entity
 @Table(name = "grocery_lists")
 public class GroceryList {
+    public static final int MAX_CHECKABLE_ITEMS = 8192;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "grocery_lists")
+    @TableGenerator(
+            name = "grocery_lists",
+            table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = "grocery_lists",
+            allocationSize = IdGenerators.ALLOCATION_SIZE
+    )
     private Long id;
 
     private OffsetDateTime startOfWeek;
@@ -32,6 +42,21 @@ public class GroceryList {
     @Builder.Default
     private List<GroceryListIngredient> groceryListIngredients = new ArrayList<>();
 
+    /**
+     * Checked-off items as a bitset indexed by {@link GroceryListIngredient#getSlot()}.
+     * Only written through {@code GroceryListRepository.updateCheckedItems}.
+     */
+    @Column(name = "checked_items", length = MAX_CHECKABLE_ITEMS / 8, insertable = false, updatable = false)
+    private byte[] checkedItems;
+
+    /**
+     * The slot the next added item gets. Slots are never handed out twice, so a checked bit left behind by a
+     * removed item can never show up on another item. Only advanced through {@code GroceryListRepository.allocateSlots};
+     * {@code null} for lists created before the column existed, until their first item is added.
+     */
+    @Column(name = "next_slot", updatable = false)
+    private Integer nextSlot;
+
     @ManyToOne
     @JoinColumn(name="user_id", nullable=false)
     private User user;
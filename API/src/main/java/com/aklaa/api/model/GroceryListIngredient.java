@@ -6,14 +6,17 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
 
 import java.math.BigDecimal;
+import java.time.OffsetDateTime;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_grocery_list_item_slot", columnNames = {"grocery_list_id", "slot"}))
 public class GroceryListIngredient {
     @EmbeddedId
     private GroceryListIngredientKey id;
@@ -31,4 +34,14 @@ public class GroceryListIngredient {
     @NotNull(message = "Quantity is required")
     @Column(nullable = false, precision = 10, scale = 3)
     private BigDecimal quantity;
+
+    /**
+     * Bit of this item in {@link GroceryList#getCheckedItems()}, unique within the list.
+     */
+    @Column(name = "slot")
+    private Integer slot;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private OffsetDateTime createdAt;
 }
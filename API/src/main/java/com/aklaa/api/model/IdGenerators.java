@@ -0,0 +1,31 @@
+package com.aklaa.api.model;
+
+import java.util.Map;
+
+/**
+ * Shared settings of the table-backed ID generators.
+ * <p>
+ * IDs are handed out in blocks of {@link #ALLOCATION_SIZE} (pooled-lo), so Hibernate knows the ID of a new row
+ * without inserting it first and can batch inserts. Each generator keeps its next free ID in one row of {@link #TABLE}.
+ * </p>
+ */
+public final class IdGenerators {
+
+    public static final String TABLE = "id_generators";
+    public static final String NAME_COLUMN = "generator";
+    public static final String VALUE_COLUMN = "next_id";
+    public static final int ALLOCATION_SIZE = 50;
+
+    /**
+     * Generator name per entity table.
+     */
+    public static final Map<String, String> TABLES = Map.of(
+            "dishes", "dishes",
+            "recipe_steps", "recipe_step",
+            "ingredients", "ingredients",
+            "grocery_lists", "grocery_lists"
+    );
+
+    private IdGenerators() {
+    }
+}
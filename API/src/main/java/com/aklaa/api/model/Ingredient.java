@@ -6,26 +6,48 @@ import com.aklaa.api.model.enums.MeasurementUnit;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Locale;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name = "ingredients")
+@Table(
+        name = "ingredients",
+        uniqueConstraints = @UniqueConstraint(name = Ingredient.IDENTITY_KEY_INDEX, columnNames = {"user_id", "identity_key"})
+)
 public class Ingredient {
+
+    public static final String IDENTITY_KEY_INDEX = "uk_ingredients_user_identity_key";
+    public static final int IDENTITY_KEY_LENGTH = 160;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "ingredients")
+    @TableGenerator(
+            name = "ingredients",
+            table = IdGenerators.TABLE,
+            pkColumnName = IdGenerators.NAME_COLUMN,
+            valueColumnName = IdGenerators.VALUE_COLUMN,
+            pkColumnValue = "ingredients",
+            allocationSize = IdGenerators.ALLOCATION_SIZE
+    )
     private Long id;
 
     @Column(nullable = false)
@@ -44,6 +66,14 @@ public class Ingredient {
     @ValidEnum(enumClass = MeasurementUnit.class)
     private MeasurementUnit unit;
 
+    /**
+     * Normalized identity of the ingredient within its owner's list, see {@link #keyOf}.
+     * Recomputed from name, unit and description on every insert and update.
+     */
+    @Setter(AccessLevel.NONE)
+    @Column(name = "identity_key", nullable = false, length = IDENTITY_KEY_LENGTH)
+    private String identityKey;
+
     @ManyToOne
     @JoinColumn(name="user_id", nullable=false)
     private User user;
@@ -62,4 +92,30 @@ public class Ingredient {
 
     @UpdateTimestamp
     private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void refreshIdentityKey() {
+        identityKey = keyOf(name, unit, description);
+    }
+
+    /**
+     * Identity key of an ingredient: lower-cased trimmed name, unit and a hash of the trimmed description.
+     * Two ingredients of the same user with the same key are the same ingredient.
+     */
+    public static String keyOf(String name, MeasurementUnit unit, String description) {
+        String normalizedDescription = description == null ? "" : description.trim();
+        return name.trim().toLowerCase(Locale.ROOT)
+                + "|" + (unit == null ? "" : unit.name())
+                + "|" + (normalizedDescription.isEmpty() ? "" : sha256(normalizedDescription));
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
 }
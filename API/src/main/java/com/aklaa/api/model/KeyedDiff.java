@@ -0,0 +1,63 @@
+package com.aklaa.api.model;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Merges an incoming list into a persistent child collection with the fewest possible row changes.
+ * <p>
+ * Incoming items are matched to current items with the given keys, tried in order (e.g. first by ID, then by position).
+ * Matched items are updated in place, unmatched current items are removed and unmatched incoming items are added.
+ * Every step is a hash lookup, so a merge is linear in the size of both lists.
+ * </p>
+ */
+final class KeyedDiff {
+
+    record Key<E, I>(Function<E, ?> currentKey, Function<I, ?> incomingKey) {
+    }
+
+    private KeyedDiff() {
+    }
+
+    static <E, I> void merge(
+            List<E> current,
+            List<I> incoming,
+            List<Key<E, I>> keys,
+            BiConsumer<E, I> update,
+            Function<I, E> create
+    ) {
+        Set<E> unmatchedCurrent = Collections.newSetFromMap(new IdentityHashMap<>());
+        unmatchedCurrent.addAll(current);
+        List<I> unmatchedIncoming = new ArrayList<>(incoming);
+        Map<I, E> matches = new IdentityHashMap<>();
+
+        for (Key<E, I> key : keys) {
+            Map<Object, E> currentByKey = new HashMap<>();
+            for (E item : unmatchedCurrent) {
+                Object value = key.currentKey().apply(item);
+                if (value != null) {
+                    currentByKey.putIfAbsent(value, item);
+                }
+            }
+
+            Iterator<I> iterator = unmatchedIncoming.iterator();
+            while (iterator.hasNext()) {
+                I item = iterator.next();
+                Object value = key.incomingKey().apply(item);
+                E match = value == null ? null : currentByKey.remove(value);
+                if (match != null) {
+                    matches.put(item, match);
+                    unmatchedCurrent.remove(match);
+                    iterator.remove();
+                }
+            }
+        }
+
+        if (!unmatchedCurrent.isEmpty()) {
+            current.removeIf(unmatchedCurrent::contains);
+        }
+        matches.forEach((item, match) -> update.accept(match, item));
+        unmatchedIncoming.forEach(item -> current.add(create.apply(item)));
+    }
+}
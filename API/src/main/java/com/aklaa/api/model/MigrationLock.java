@@ -0,0 +1,37 @@
+package com.aklaa.api.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * The single row that keeps nodes from running data migrations at the same time. Read and written by
+ * {@link com.aklaa.api.config.SchemaMigrationRunner}; the mapping defines the table.
+ * {@code lockedBy} is {@code null} while no node holds the lock.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "migration_lock")
+public class MigrationLock {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(name = "locked_by", length = 64)
+    private String lockedBy;
+
+    @Column(name = "locked_at")
+    private OffsetDateTime lockedAt;
+}
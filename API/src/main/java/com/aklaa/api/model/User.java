@@ -63,9 +63,6 @@ public class User implements UserDetails {
     @Column(nullable = false)
     private boolean enabled = false;
 
-    @Column(unique = true)
-    private String activationToken;
-
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Ingredient> ingredients;
 
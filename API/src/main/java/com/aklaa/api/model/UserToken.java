@@ -0,0 +1,57 @@
+package com.aklaa.api.model;
+
+import com.aklaa.api.model.enums.TokenPurpose;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * One-time token sent to a user by email. Only the SHA-256 hash of the token is stored.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(
+        name = "user_tokens",
+        indexes = {
+                @Index(name = "idx_user_tokens_expires_at", columnList = "expires_at"),
+                @Index(name = "idx_user_tokens_user_purpose", columnList = "user_id, purpose")
+        }
+)
+public class UserToken {
+
+    @Id
+    @Column(name = "token_hash", length = 43)
+    private String tokenHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private TokenPurpose purpose;
+
+    @Column(name = "expires_at", nullable = false)
+    private OffsetDateTime expiresAt;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User user;
+
+    public boolean isExpired() {
+        return expiresAt.isBefore(OffsetDateTime.now(ZoneOffset.UTC));
+    }
+}
@@ -1,24 +1,61 @@
 package com.aklaa.api.model.enums;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Tags of a dish. Dishes store their tags as a bitmask, so the bit of a tag must never change.
+ */
 public enum DishTag {
-    BREAKFAST,
-    BRUNCH,
-    LUNCH,
-    DINNER,
-    DESSERT,
-    SNACK,
-    APPETIZER,
-    SIDE_DISH,
-    MAIN_COURSE,
-    BEVERAGE,
-    VEGETARIAN,
-    VEGAN,
-    GLUTEN_FREE,
-    HEALTHY,
-    QUICK_MEAL,
-    COMFORT_FOOD,
-    GRILLED,
-    BAKED,
-    FRIED,
-    RAW
+    BREAKFAST(0),
+    BRUNCH(1),
+    LUNCH(2),
+    DINNER(3),
+    DESSERT(4),
+    SNACK(5),
+    APPETIZER(6),
+    SIDE_DISH(7),
+    MAIN_COURSE(8),
+    BEVERAGE(9),
+    VEGETARIAN(10),
+    VEGAN(11),
+    GLUTEN_FREE(12),
+    HEALTHY(13),
+    QUICK_MEAL(14),
+    COMFORT_FOOD(15),
+    GRILLED(16),
+    BAKED(17),
+    FRIED(18),
+    RAW(19);
+
+    private final int bit;
+
+    DishTag(int bit) {
+        this.bit = bit;
+    }
+
+    public int mask() {
+        return 1 << bit;
+    }
+
+    public static int toMask(Collection<DishTag> tags) {
+        int mask = 0;
+        if (tags != null) {
+            for (DishTag tag : tags) {
+                mask |= tag.mask();
+            }
+        }
+        return mask;
+    }
+
+    public static List<DishTag> fromMask(int mask) {
+        List<DishTag> tags = new ArrayList<>();
+        for (DishTag tag : values()) {
+            if ((mask & tag.mask()) != 0) {
+                tags.add(tag);
+            }
+        }
+        return tags;
+    }
 }
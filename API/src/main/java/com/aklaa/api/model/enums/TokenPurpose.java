@@ -0,0 +1,7 @@
+package com.aklaa.api.model.enums;
+
+public enum TokenPurpose {
+    ACCOUNT_ACTIVATION,
+    PASSWORD_RESET,
+    EMAIL_CHANGE
+}
@@ -0,0 +1,73 @@
+package com.aklaa.api.services.contract;
+
+import com.aklaa.api.dtos.request.CartDishRequestDTO;
+
+import java.util.List;
+
+/**
+ * Service interface for the shopping cart of a user.
+ * <p>
+ * Carts are stored in the database through a {@link com.aklaa.api.dao.CartStore}, so they survive
+ * restarts and are the same on every node. Carts are read from the store on every call; nodes keep
+ * no copy, so a change made on one node is seen by the next request on any other.
+ * </p>
+ */
+public interface CartService {
+
+    /**
+     * Retrieves the items in the user's cart.
+     *
+     * @param userId the owner of the cart
+     * @return the items of the cart, in the order they were added
+     */
+    List<CartDishRequestDTO> getItems(Long userId);
+
+    /**
+     * Adds an item to the user's cart.
+     * <p>
+     * The item gets the next free id of the cart; any id in the request is ignored.
+     * </p>
+     *
+     * @param userId the owner of the cart
+     * @param item the dish, weekday and number of people to add
+     * @return the stored item with its id
+     */
+    CartDishRequestDTO add(Long userId, CartDishRequestDTO item);
+
+    /**
+     * Replaces the dish, weekday and number of people of an item.
+     *
+     * @param userId the owner of the cart
+     * @param itemId the id of the item to edit
+     * @param item the new values
+     * @return {@code true} if the item existed
+     */
+    boolean edit(Long userId, int itemId, CartDishRequestDTO item);
+
+    /**
+     * Removes an item from the user's cart.
+     *
+     * @param userId the owner of the cart
+     * @param itemId the id of the item to remove
+     * @return {@code true} if the item existed
+     */
+    boolean remove(Long userId, int itemId);
+
+    /**
+     * Removes every item from the user's cart.
+     *
+     * @param userId the owner of the cart
+     */
+    void clear(Long userId);
+
+    /**
+     * Removes items that were read from the user's cart, for example after they were turned into a grocery list.
+     * <p>
+     * Items that were added since, or edited since they were read, stay in the cart.
+     * </p>
+     *
+     * @param userId the owner of the cart
+     * @param items the items as returned by {@link #getItems(Long)}
+     */
+    void removeAll(Long userId, List<CartDishRequestDTO> items);
+}
@@ -0,0 +1,32 @@
+package com.aklaa.api.services.contract;
+
+import com.aklaa.api.dtos.response.DishImportResultDTO;
+import com.aklaa.api.model.User;
+
+import java.io.InputStream;
+
+/**
+ * Service interface for bulk dish imports.
+ * <p>
+ * Imports are streamed: dishes are parsed one at a time and persisted in fixed-size chunks,
+ * so memory use does not grow with the size of the upload.
+ * </p>
+ */
+public interface DishImportService {
+
+    /**
+     * Imports every dish in the given document for the specified user.
+     * <p>
+     * The document is either a JSON array or newline-delimited JSON of dishes in the
+     * {@link com.aklaa.api.dtos.response.DishResponseDTO} format used by the single dish JSON upload.
+     * Ingredients are matched on name, unit and description against the user's existing ingredients
+     * and created when missing, with one lookup per chunk. A dish that fails validation or cannot be
+     * saved is reported in the result and does not stop the import of the others.
+     * </p>
+     *
+     * @param json the uploaded document, read once and not closed
+     * @param user the user who is importing the dishes
+     * @return a {@link DishImportResultDTO} with the number of imported and failed dishes and the failure details
+     */
+    DishImportResultDTO importDishes(InputStream json, User user);
+}
@@ -3,6 +3,8 @@ package com.aklaa.api.services.contract;
 import com.aklaa.api.dtos.request.DishRequestDTO;
 import com.aklaa.api.dtos.response.DishListResponseDTO;
 import com.aklaa.api.dtos.response.DishResponseDTO;
+import com.aklaa.api.exceptions.InvalidCursorException;
+import com.aklaa.api.exceptions.InvalidDishTagException;
 import com.aklaa.api.model.User;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
@@ -82,16 +84,22 @@ public interface DishService {
      * Filters and retrieves dishes based on search criteria, cuisine types, and pagination.
      * <p>
      * This method searches across dish names, descriptions, tags, and ingredient names.
-     * It filters by cuisine types if provided and returns paginated results for the authenticated user's dishes only.
+     * It filters by cuisine types and tags if provided and returns paginated results for the authenticated user's dishes only.
      * </p>
      *
      * @param search the search term to filter dishes (searches in name, description, tags, and ingredient names)
      * @param countries the list of cuisine type names to filter by (e.g., "ITALIAN", "CHINESE")
+     * @param tags the list of tag names to filter by (e.g., "VEGAN", "DINNER"); unknown names are rejected
+     * @param matchAllTags {@code true} to only return dishes that have all given tags, {@code false} for any of them
      * @param pageable the pagination information including page number, size, and sorting
+     * @param cursor {@code null} for offset paging; otherwise the cursor returned by the previous page, or an empty
+     *               string for the first page. Cursor pages are ordered by name and skip the count query.
      * @param user the user whose dishes should be retrieved
      * @return a {@link DishListResponseDTO} containing the filtered dishes, total elements, and total pages
+     * @throws InvalidCursorException if the cursor cannot be decoded
+     * @throws InvalidDishTagException if one of the tags is not a {@link com.aklaa.api.model.enums.DishTag}
      */
-    DishListResponseDTO filter(String search, List<String> countries, Pageable pageable, User user);
+    DishListResponseDTO filter(String search, List<String> countries, List<String> tags, boolean matchAllTags, Pageable pageable, String cursor, User user);
     /**
      * Get and retrieves dishes.
      * <p>
@@ -1,8 +1,31 @@
 package com.aklaa.api.services.contract;
 
 import com.aklaa.api.model.User;
-import com.fasterxml.jackson.core.JsonProcessingException;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Service interface for exporting all data of a user.
+ */
 public interface ExportUserDataService {
-    byte[] getUserData(User user) throws JsonProcessingException;
+
+    /**
+     * Writes the export of a user as one JSON document to a stream.
+     * <p>
+     * The document holds the user, their ingredients, their dishes with ingredients and steps, and their
+     * grocery lists with items, in that order and each ordered by id. Everything is read in chunks and written
+     * as it is read, so memory does not grow with the amount of data and the first bytes are written right away.
+     * </p>
+     * <p>
+     * Every chunk is read in its own short read-only transaction and written after it ends, so no database
+     * connection is held while the stream blocks on a slow client. The document is therefore not one snapshot:
+     * data changed during the export may show up in its old or its new state, but no row is written twice.
+     * </p>
+     *
+     * @param user the user to export
+     * @param out the stream to write to; it is flushed but not closed
+     * @throws IOException if writing to the stream fails
+     */
+    void writeUserData(User user, OutputStream out) throws IOException;
 }
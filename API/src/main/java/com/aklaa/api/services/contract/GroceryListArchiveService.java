@@ -0,0 +1,58 @@
+package com.aklaa.api.services.contract;
+
+import com.aklaa.api.dtos.response.ArchivedGroceryListPageDTO;
+import com.aklaa.api.model.User;
+import org.springframework.data.domain.Pageable;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Service interface for moving expired grocery lists to object storage and reading them back.
+ * <p>
+ * Archived lists are stored per user as gzip-compressed NDJSON objects, one grocery list with its
+ * ingredients per line, and are removed from the database once their object is stored.
+ * </p>
+ */
+public interface GroceryListArchiveService {
+
+    /**
+     * Archives all grocery lists created before a cutoff and deletes them from the database.
+     * <p>
+     * Every user with expired lists gets one new object holding them, newest first. The lists of a user are
+     * only deleted after their object is stored, in chunks, each in its own transaction. When a user's lists
+     * cannot be archived they are kept and the other users are still processed. If deleting fails after the
+     * object was stored, the next run finds the remaining lists in that object and only deletes them, so no
+     * list is stored twice.
+     * </p>
+     * <p>
+     * Check-offs buffered on this node are flushed first and stored with the lists. Check-offs buffered on
+     * other nodes are lost for lists archived before those nodes flush them.
+     * </p>
+     *
+     * @param cutoff lists created before this moment are archived
+     * @return {@code true} if the lists of every user were archived, {@code false} if some were kept
+     */
+    boolean archiveCreatedBefore(OffsetDateTime cutoff);
+
+    /**
+     * Pages through the archived grocery lists of a user, newest first, straight from object storage.
+     * <p>
+     * Nothing is written back to the database. Objects before the requested page are skipped without
+     * being read; only the objects the page falls in are downloaded and decompressed.
+     * </p>
+     *
+     * @param user the user whose archived lists to read
+     * @param pageable the page to read; its sort is ignored
+     * @return one page of archived grocery lists with their ingredients
+     * @throws Exception if the archive could not be listed or read
+     */
+    ArchivedGroceryListPageDTO getArchivedGroceryLists(User user, Pageable pageable) throws Exception;
+
+    /**
+     * Removes all archived grocery lists of a user from object storage, for example when the user is deleted.
+     *
+     * @param userId the ID of the user whose archive to remove
+     * @throws Exception if the archive could not be listed or an object could not be removed
+     */
+    void deleteArchivedGroceryLists(Long userId) throws Exception;
+}
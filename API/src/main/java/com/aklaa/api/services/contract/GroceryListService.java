@@ -1,35 +1,53 @@
 package com.aklaa.api.services.contract;
 
+import com.aklaa.api.config.security.AuthenticatedUser;
 import com.aklaa.api.dtos.request.CartDishRequestDTO;
+import com.aklaa.api.dtos.request.GroceryListCheckRequestDTO;
 import com.aklaa.api.dtos.request.GroceryListIngredientListRequestDTO;
+import com.aklaa.api.dtos.request.GroceryListItemsPatchRequestDTO;
 import com.aklaa.api.dtos.response.*;
 import com.aklaa.api.model.User;
-import jakarta.servlet.http.HttpSession;
 import org.springframework.data.domain.Pageable;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 
 /**
  * Service interface for grocery list and shopping cart management operations.
  * <p>
- * This service provides functionality for managing shopping carts in sessions,
+ * This service provides functionality for turning shopping carts into grocery lists,
  * retrieving grocery lists, and managing ingredients within grocery lists.
  * </p>
  */
 public interface GroceryListService {
-    
+
+    /**
+     * Computes the shopping list of a cart without saving it.
+     * <p>
+     * Quantities are scaled to the number of people of each cart entry and summed per ingredient.
+     * Only the ingredient quantities of the cart's dishes are loaded, never their steps or other details.
+     * </p>
+     *
+     * @param cart the dishes in the cart
+     * @return the ingredients to buy with their total quantity, sorted by category and name
+     */
+    List<GroceryListIngredientResponseDTO> previewCart(List<CartDishRequestDTO> cart);
+
     /**
-     * Retrieves the shopping cart from the HTTP session.
+     * Saves the shopping list of a cart as a new grocery list.
      * <p>
-     * This method fetches the cart stored in the session under the "cart" attribute.
-     * If the cart doesn't exist or is invalid, a new empty cart is created and stored in the session.
+     * The quantities are computed like {@link #previewCart(List)}.
      * </p>
      *
-     * @param session the HTTP session containing the shopping cart
-     * @return a list of {@link CartDishRequestDTO} representing the dishes in the cart
+     * @param cart the dishes in the cart
+     * @param startOfWeek the start of the week the list is for
+     * @param endOfWeek the end of the week the list is for
+     * @param user the owner of the new grocery list
+     * @return the created grocery list
+     * @throws com.aklaa.api.exceptions.EmptyGroceryListException if none of the dishes in the cart exist or have ingredients
      */
-    List<CartDishRequestDTO> getCart(HttpSession session);
-    
+    GroceryListResponseDTO createFromCart(List<CartDishRequestDTO> cart, OffsetDateTime startOfWeek, OffsetDateTime endOfWeek, User user);
+
     /**
      * Retrieves all grocery lists for a specific user with pagination.
      * <p>
@@ -105,7 +123,7 @@ public interface GroceryListService {
      * @param actionTaker the user who wants to delete the grocery list
      * @return a {@link List<IngredientResponseDTO>} the ingredients
      */
-    GroceryListResponseDTO delete(Long id, User actionTaker);
+    GroceryListResponseDTO delete(Long id, AuthenticatedUser actionTaker);
 
     /**
      * Updates the ingredients in a specific grocery list.
@@ -120,4 +138,37 @@ public interface GroceryListService {
      * @param user the user who owns the grocery list
      */
     void updateIngredientsOfGroceryList(Long id, GroceryListIngredientListRequestDTO list, User user);
-}
\ No newline at end of file
+
+    /**
+     * Applies explicit add, update and remove operations to the items of a grocery list.
+     * <p>
+     * Only the affected items are written; the list and its other items are not loaded. All operations
+     * are applied in one transaction, so either all of them succeed or none does. An ingredient may only
+     * appear in one operation, added ingredients must belong to the user and not be on the list yet, and
+     * updated or removed ingredients must be on the list.
+     * </p>
+     *
+     * @param id the ID of the grocery list to change
+     * @param patch the operations to apply
+     * @param user the user who owns the grocery list
+     * @return {@code true} if the operations were applied, {@code false} if the user has no such grocery list
+     * @throws com.aklaa.api.exceptions.InvalidGroceryListPatchException if an operation is not possible
+     */
+    boolean patchIngredientsOfGroceryList(Long id, GroceryListItemsPatchRequestDTO patch, User user);
+
+    /**
+     * Checks items of a grocery list off, or unchecks them.
+     * <p>
+     * The new states are buffered and written in batches shortly after, so bursts of taps while shopping
+     * cost no write each. Reads of the list on the same node see the buffered states right away.
+     * </p>
+     *
+     * @param id the ID of the grocery list
+     * @param request the checked state per ingredient ID
+     * @param user the user who owns the grocery list
+     * @return {@code true} if the states were accepted, {@code false} if the user has no such grocery list
+     * @throws com.aklaa.api.exceptions.InvalidGroceryListPatchException if an ingredient is not on the list, or was
+     *         added after {@link com.aklaa.api.model.GroceryList#MAX_CHECKABLE_ITEMS} items had been added to the list
+     */
+    boolean checkIngredientsOfGroceryList(Long id, GroceryListCheckRequestDTO request, User user);
+}
@@ -3,6 +3,7 @@ package com.aklaa.api.services.contract;
 import com.aklaa.api.dtos.request.IngredientRequestDTO;
 import com.aklaa.api.dtos.response.IngredientListResponseDTO;
 import com.aklaa.api.dtos.response.IngredientResponseDTO;
+import com.aklaa.api.exceptions.InvalidCursorException;
 import com.aklaa.api.model.User;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.AccessDeniedException;
@@ -72,10 +73,13 @@ public interface IngredientService {
      * @param search the search term to filter ingredients (searches in name and description)
      * @param categories the list of ingredient category names to filter by (e.g., "VEGETABLE", "MEAT")
      * @param pageable the pagination information including page number, size, and sorting
+     * @param cursor {@code null} for offset paging; otherwise the cursor returned by the previous page, or an empty
+     *               string for the first page. Cursor pages are ordered by category and name and skip the count query.
      * @param user the user whose ingredients should be retrieved
      * @return an {@link IngredientListResponseDTO} containing the filtered ingredients, total elements, and total pages
+     * @throws InvalidCursorException if the cursor cannot be decoded
      */
-    IngredientListResponseDTO filter(String search, List<String> categories, Pageable pageable, User user);
+    IngredientListResponseDTO filter(String search, List<String> categories, Pageable pageable, String cursor, User user);
     
     /**
      * Retrieves a specific ingredient by its ID.
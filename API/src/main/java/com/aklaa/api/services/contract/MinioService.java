@@ -2,6 +2,11 @@ package com.aklaa.api.services.contract;
 
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Service interface for MinIO object storage operations.
  * <p>
@@ -27,4 +32,80 @@ public interface MinioService {
      *         I/O errors, MinIO connection issues, or bucket access problems
      */
     String uploadFile(MultipartFile file) throws Exception;
-}
\ No newline at end of file
+
+    /**
+     * Stores an object under the given name, replacing any object with that name.
+     * <p>
+     * Unlike {@link #uploadFile(MultipartFile)} the object is not publicly readable;
+     * only objects under the "uploads/" prefix are.
+     * </p>
+     *
+     * @param objectName the full name of the object in the bucket
+     * @param stream the content, read until its end
+     * @param size the size of the content in bytes, or {@code -1} if unknown
+     * @param contentType the content type to store with the object
+     * @throws Exception if the object could not be stored
+     */
+    void putObject(String objectName, InputStream stream, long size, String contentType) throws Exception;
+
+    /**
+     * Opens an object for reading. The caller must close the returned stream.
+     *
+     * @param objectName the full name of the object in the bucket
+     * @return the content of the object
+     * @throws Exception if the object does not exist or could not be read
+     */
+    InputStream getObject(String objectName) throws Exception;
+
+    /**
+     * Lists the names of all objects under a prefix, including those in nested "directories".
+     *
+     * @param prefix the prefix the object names start with
+     * @return the full object names, in lexicographic order
+     * @throws Exception if the bucket could not be listed
+     */
+    List<String> listObjects(String prefix) throws Exception;
+
+    /**
+     * Removes an object. Removing an object that does not exist is not an error.
+     *
+     * @param objectName the full name of the object in the bucket
+     * @throws Exception if the object could not be removed
+     */
+    void removeObject(String objectName) throws Exception;
+
+    /**
+     * Creates a link through which anyone holding it can download an object until it expires.
+     * <p>
+     * The link points at the external MinIO endpoint, the same one used for the URLs returned by
+     * {@link #uploadFile(MultipartFile)}, so it works for clients outside the cluster.
+     * </p>
+     *
+     * @param objectName the full name of the object in the bucket
+     * @param expiry how long the link stays valid, at most seven days
+     * @return the presigned download URL
+     * @throws Exception if the link could not be signed
+     */
+    String getPresignedUrl(String objectName, Duration expiry) throws Exception;
+
+    /**
+     * Resolves a public URL returned by {@link #uploadFile(MultipartFile)} back to the name of its object.
+     * <p>
+     * Only public uploads are resolved. A URL naming any other object in the bucket, such as another user's
+     * archive or export, resolves to nothing, so URLs taken from user input can safely be read back.
+     * </p>
+     *
+     * @param url the public URL, for example a dish image URL
+     * @return the full name of the object in the bucket, or empty if the URL does not point at an upload
+     */
+    Optional<String> findObjectName(String url);
+
+    /**
+     * Whether a URL may be stored where anyone can see it, such as a dish image URL: it either points outside
+     * the bucket or at a public upload, the same objects {@link #findObjectName(String)} resolves.
+     *
+     * @param url the URL to check
+     * @return {@code false} if the URL points at a private object in the bucket
+     */
+    boolean isPublicUrl(String url);
+}
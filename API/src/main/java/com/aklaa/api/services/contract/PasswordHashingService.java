@@ -0,0 +1,40 @@
+package com.aklaa.api.services.contract;
+
+import com.aklaa.api.exceptions.PasswordHashingUnavailableException;
+
+/**
+ * Service interface for password hashing operations.
+ * <p>
+ * All hashing runs on a dedicated, size-limited pool instead of the request threads,
+ * so bursts of logins or registrations cannot starve the rest of the API.
+ * </p>
+ */
+public interface PasswordHashingService {
+
+    /**
+     * Hashes a raw password with the configured BCrypt cost.
+     *
+     * @param rawPassword the password to hash
+     * @return the encoded password
+     * @throws PasswordHashingUnavailableException if the hashing pool is saturated
+     */
+    String encode(CharSequence rawPassword);
+
+    /**
+     * Verifies a raw password against an encoded one.
+     *
+     * @param rawPassword the password supplied by the user
+     * @param encodedPassword the stored password hash
+     * @return {@code true} if the passwords match
+     * @throws PasswordHashingUnavailableException if the hashing pool is saturated
+     */
+    boolean matches(CharSequence rawPassword, String encodedPassword);
+
+    /**
+     * Checks whether a stored hash was created with a lower cost than the configured one.
+     *
+     * @param encodedPassword the stored password hash
+     * @return {@code true} if the password should be rehashed
+     */
+    boolean needsRehash(String encodedPassword);
+}
@@ -0,0 +1,57 @@
+package com.aklaa.api.services.contract;
+
+import com.aklaa.api.dtos.response.UserDataExportJobDTO;
+import com.aklaa.api.model.User;
+
+/**
+ * Service interface for exporting the data of a user in the background.
+ * <p>
+ * An export job writes a zip archive with the export document from {@link ExportUserDataService} as
+ * {@code data.json} and the dish images stored in the bucket under {@code images/}, and stores it in
+ * object storage. Each node runs a limited number of jobs at a time so exports cannot starve interactive
+ * requests of threads and database connections.
+ * </p>
+ * <p>
+ * Archives and their jobs are deleted {@code users.export.jobs.retention} after the job finished, and the
+ * archives of a user are deleted with the user.
+ * </p>
+ */
+public interface UserDataExportJobService {
+
+    /**
+     * Starts an export of the user's data.
+     * <p>
+     * When the user already has an export that is queued or running, that job is returned instead of
+     * starting another one.
+     * </p>
+     *
+     * @param user the user whose data is exported
+     * @return the queued or running job
+     * @throws com.aklaa.api.exceptions.TooManyRequestsException if this node cannot take another export
+     */
+    UserDataExportJobDTO submit(User user);
+
+    /**
+     * Returns the state of an export job. A job that was not started within the queue timeout, or not finished
+     * within the job timeout after it started, for example because the node running it stopped, is reported as
+     * failed. It stays failed even if its node picks it up or finishes it later.
+     *
+     * @param id the ID of the job
+     * @param user the user who started the job
+     * @return the job
+     * @throws java.util.NoSuchElementException if the user has no job with this ID
+     */
+    UserDataExportJobDTO get(String id, User user);
+
+    /**
+     * Creates a time-limited link to download the archive of a completed export job.
+     *
+     * @param id the ID of the job
+     * @param user the user who started the job
+     * @return a presigned URL of the archive
+     * @throws java.util.NoSuchElementException if the user has no job with this ID
+     * @throws com.aklaa.api.exceptions.ExportNotReadyException if the job has not completed
+     * @throws Exception if the link could not be created
+     */
+    String getDownloadUrl(String id, User user) throws Exception;
+}
@@ -0,0 +1,47 @@
+package com.aklaa.api.services.contract;
+
+import com.aklaa.api.dtos.response.UserDataImportResultDTO;
+import com.aklaa.api.model.User;
+
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+/**
+ * Service interface for importing a user data export into an account.
+ * <p>
+ * Imports are streamed: the document is parsed one element at a time and persisted in fixed-size chunks,
+ * each in its own transaction, so memory use does not grow with the size of the upload.
+ * </p>
+ */
+public interface UserDataImportService {
+
+    /**
+     * Imports the ingredients, dishes and grocery lists of an export into the given user's account.
+     * <p>
+     * The upload is either the JSON document written by {@link ExportUserDataService} or the zip archive of an
+     * export job, in which case its {@code data.json} entry is read. The exported user itself is skipped.
+     * IDs in the export are not reused: ingredients are matched on name, unit and description against the
+     * user's existing ingredients and created when missing, and dishes and grocery lists are created with new
+     * IDs that point at the matched ingredients. A dish or grocery list that cannot be saved is counted as
+     * failed and does not stop the import of the others. So is a dish whose image URL points at a private
+     * object in the bucket rather than at a public upload.
+     * </p>
+     * <p>
+     * Only ingredients that were created count as imported; ingredients matched to existing ones do not. They
+     * are committed before the dishes or grocery lists that need them, and stay imported and counted when
+     * those fail.
+     * </p>
+     * <p>
+     * Chunks that were committed stay imported when the import stops early, because of malformed JSON or a
+     * failing {@code progress} callback. An import is not idempotent: importing the same document again, for
+     * example to retry one that stopped early, matches its ingredients but creates all of its dishes and
+     * grocery lists a second time.
+     * </p>
+     *
+     * @param upload the uploaded document, read once and not closed
+     * @param user the user who is importing the data
+     * @param progress called after every chunk with the counts so far, and once more with the final result
+     * @return the final result, with {@link com.aklaa.api.dtos.response.UserDataImportResultDTO#isDone()} set
+     */
+    UserDataImportResultDTO importUserData(InputStream upload, User user, Consumer<UserDataImportResultDTO> progress);
+}
@@ -1,9 +1,10 @@
 package com.aklaa.api.services.contract;
 
+import com.aklaa.api.config.security.AuthenticatedUser;
 import com.aklaa.api.dtos.request.UpdatedUserDTO;
 import com.aklaa.api.dtos.response.UserDTO;
 import com.aklaa.api.dtos.response.UserListResponseDTO;
-import com.aklaa.api.model.User;
+import com.aklaa.api.exceptions.InvalidCursorException;
 import com.aklaa.api.model.enums.UserType;
 import org.springframework.data.domain.Pageable;
 
@@ -28,9 +29,12 @@ public interface UserService {
      * @param search the search term to filter users (searches in firstName, lastName, and email)
      * @param type the user type name to filter by (e.g., "ADMIN", "USER")
      * @param pageable the pagination information including page number, size, and sorting
+     * @param cursor {@code null} for offset paging; otherwise the cursor returned by the previous page, or an empty
+     *               string for the first page. Cursor pages are ordered by ID and skip the count query.
      * @return a {@link UserListResponseDTO} containing the filtered users, total elements, and total pages
+     * @throws InvalidCursorException if the cursor cannot be decoded
      */
-    UserListResponseDTO getUsers(String search, String type, Pageable pageable);
+    UserListResponseDTO getUsers(String search, String type, Pageable pageable, String cursor);
     
     /**
      * Retrieves a specific user by their ID.
@@ -61,7 +65,7 @@ public interface UserService {
     /**
      * Enable a user's account.
      * <p>
-     * Updates the user's 'enabled' status and 'activationToken' in the database.
+     * Updates the user's 'enabled' status in the database and revokes any outstanding activation tokens.
      * </p>
      *
      * @param id the ID of the user whose role should be updated
@@ -83,7 +87,7 @@ public interface UserService {
     /**
      * Delete a user's account.
      * <p>
-     * Deletes the user's account.
+     * Deletes the user's account. Their archived grocery lists and data exports are removed from object storage first.
      * </p>
      *
      * @param id the ID of the user who needs to be deleted
@@ -91,13 +95,13 @@ public interface UserService {
      * @return a {@link UserDTO} containing the removed user's data
      * @throws NoSuchElementException if the user is not found
      */
-    UserDTO delete(Long id, User actionTaker);
+    UserDTO delete(Long id, AuthenticatedUser actionTaker);
     
     /**
      * Refreshes the authentication context for a user.
      * <p>
      * This method reloads the user details from the database and updates
-     * the Spring Security context with the fresh user information and authorities.
+     * the Spring Security context with a fresh {@link AuthenticatedUser} principal and its authorities.
      * This is typically called after updating user roles to ensure the changes
      * are reflected in the current security context.
      * </p>
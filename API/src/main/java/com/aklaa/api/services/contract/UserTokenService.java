@@ -0,0 +1,51 @@
+package com.aklaa.api.services.contract;
+
+import com.aklaa.api.model.User;
+import com.aklaa.api.model.UserToken;
+import com.aklaa.api.model.enums.TokenPurpose;
+
+import java.util.Optional;
+
+/**
+ * Service interface for the one-time tokens that are mailed to users
+ * (account activation, password reset and email change).
+ * <p>
+ * Tokens are stored hashed, so the raw value only ever exists in the email that was sent.
+ * Lookups for unknown or expired tokens are remembered for a short while to keep repeated probes away from the database.
+ * </p>
+ */
+public interface UserTokenService {
+
+    /**
+     * Creates and stores a new token for the given user.
+     *
+     * @param user the owner of the token
+     * @param purpose what the token can be used for
+     * @return the raw token, to be sent to the user
+     */
+    String issue(User user, TokenPurpose purpose);
+
+    /**
+     * Looks up a token that has not expired yet.
+     *
+     * @param rawToken the token as received from the user
+     * @param purpose the purpose the token must have
+     * @return the token, or empty if it is unknown, expired or issued for another purpose
+     */
+    Optional<UserToken> findValid(String rawToken, TokenPurpose purpose);
+
+    /**
+     * Deletes a token after it has been used.
+     *
+     * @param token the token to consume
+     */
+    void consume(UserToken token);
+
+    /**
+     * Deletes all tokens of a user for the given purpose.
+     *
+     * @param userId the ID of the user
+     * @param purpose the purpose of the tokens to delete
+     */
+    void revokeAll(Long userId, TokenPurpose purpose);
+}
@@ -1,8 +1,8 @@
 package com.aklaa.api.services.implementation;
 
 import com.aklaa.api.config.security.JwtService;
-import com.aklaa.api.dao.ResetEmailRepository;
-import com.aklaa.api.dao.ResetPasswordRepository;
+import com.aklaa.api.config.security.UserChangedEvent;
+import com.aklaa.api.config.security.VerifiedJwt;
 import com.aklaa.api.dao.UserRepository;
 import com.aklaa.api.dtos.request.PasswordResetDTO;
 import com.aklaa.api.dtos.request.LoginDTO;
@@ -14,24 +14,20 @@ import com.aklaa.api.exceptions.AccountBlacklistedException;
 import com.aklaa.api.exceptions.AccountNotActivatedException;
 import com.aklaa.api.exceptions.InvalidCredentialsException;
 import com.aklaa.api.mapper.UserMapper;
-import com.aklaa.api.model.PasswordResetToken;
 import com.aklaa.api.model.User;
+import com.aklaa.api.model.enums.TokenPurpose;
 import com.aklaa.api.model.enums.UserType;
 import com.aklaa.api.services.contract.AuthService;
 import com.aklaa.api.services.contract.EmailService;
+import com.aklaa.api.services.contract.PasswordHashingService;
+import com.aklaa.api.services.contract.UserTokenService;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
-import org.springframework.scheduling.annotation.Scheduled;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.security.SecureRandom;
-import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
 import java.util.Arrays;
-import java.util.Base64;
 import java.util.Optional;
 
 @Service
@@ -39,13 +35,12 @@ import java.util.Optional;
 public class AuthServiceImpl implements AuthService {
 
     private final UserMapper userMapper;
-    private final PasswordEncoder passwordEncoder;
-    private static final SecureRandom secureRandom = new SecureRandom();
+    private final PasswordHashingService passwordHashingService;
     private final UserRepository userRepository;
     private final EmailService emailService;
     private final JwtService jwtService;
-    private final ResetPasswordRepository resetPasswordRepository;
-    private final ResetEmailRepository resetEmailRepository;
+    private final UserTokenService userTokenService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public UserDTO register(RegistrationDTO registrationDTO) {
@@ -54,11 +49,11 @@ public class AuthServiceImpl implements AuthService {
         }
 
         User user = userMapper.toEntity(registrationDTO);
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
-        user.setActivationToken(generateSecureToken());
+        user.setPassword(passwordHashingService.encode(user.getPassword()));
         userRepository.save(user);
 
-        emailService.sendActivationEmail(user, user.getActivationToken());
+        String activationToken = userTokenService.issue(user, TokenPurpose.ACCOUNT_ACTIVATION);
+        emailService.sendActivationEmail(user, activationToken);
 
         return userMapper.toDTO(user);
     }
@@ -67,7 +62,7 @@ public class AuthServiceImpl implements AuthService {
     public void resetPassword(Long id, PasswordResetDTO passwordResetDTO) {
         Optional<User> userOpt = userRepository.findById(id);
 
-        if (userOpt.isEmpty() || !passwordEncoder.matches(passwordResetDTO.getOldPassword(), userOpt.get().getPassword())) {
+        if (userOpt.isEmpty() || !passwordHashingService.matches(passwordResetDTO.getOldPassword(), userOpt.get().getPassword())) {
             throw new InvalidCredentialsException("Invalid password.");
         }
 
@@ -76,19 +71,20 @@ public class AuthServiceImpl implements AuthService {
         }
 
         User user = userOpt.get();
-        user.setPassword(passwordEncoder.encode(passwordResetDTO.getNewPassword()));
+        user.setPassword(passwordHashingService.encode(passwordResetDTO.getNewPassword()));
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
     }
 
     @Override
     public AuthResponseDTO login(LoginDTO loginDTO){
             Optional<User> userOpt = userRepository.findByEmail(loginDTO.getEmail()).stream().findFirst();
 
-            if (userOpt.isEmpty() || !passwordEncoder.matches(loginDTO.getPassword(), userOpt.get().getPassword())) {
+            if (userOpt.isEmpty() || !passwordHashingService.matches(loginDTO.getPassword(), userOpt.get().getPassword())) {
                 throw new InvalidCredentialsException("Invalid email or password.");
             }
 
-            if (!userOpt.get().isEnabled() || userOpt.get().getActivationToken() != null) {
+            if (!userOpt.get().isEnabled()) {
                 throw new AccountNotActivatedException("Account not activated.");
             }
 
@@ -102,6 +98,11 @@ public class AuthServiceImpl implements AuthService {
 
             User user = userOpt.get();
 
+            if (passwordHashingService.needsRehash(user.getPassword())) {
+                user.setPassword(passwordHashingService.encode(loginDTO.getPassword()));
+                userRepository.save(user);
+            }
+
             String refreshToken = jwtService.generateRefreshToken(user.getId(), user.getUserType());
             String token = jwtService.generateToken(user.getId(), user.getUserType());
 
@@ -119,14 +120,8 @@ public class AuthServiceImpl implements AuthService {
             if (userOpt.isEmpty()) return;
 
             User user = userOpt.get();
-            String token = generateSecureToken();
-
-            PasswordResetToken resetToken = new PasswordResetToken();
-            resetToken.setToken(token);
-            resetToken.setUser(user);
-            resetToken.setExpiresAt(OffsetDateTime.now(ZoneOffset.UTC).plusMinutes(15));
+            String token = userTokenService.issue(user, TokenPurpose.PASSWORD_RESET);
 
-            resetPasswordRepository.save(resetToken);
             emailService.sendPasswordResetEmail(user, token);
     }
 
@@ -136,18 +131,14 @@ public class AuthServiceImpl implements AuthService {
             throw new IllegalArgumentException("Missing refresh token");
         }
 
-        if (!jwtService.validateToken(refreshToken)) {
-            throw new IllegalArgumentException("Invalid or expired refresh token");
-        }
+        VerifiedJwt verified = jwtService.verify(refreshToken)
+                .orElseThrow(() -> new IllegalArgumentException("Invalid or expired refresh token"));
 
-        String type = jwtService.getClaim(refreshToken, "type");
-        if (!"refresh".equals(type)) {
+        if (!verified.isRefreshToken()) {
             throw new IllegalArgumentException("Wrong token type");
         }
 
-        String userId = jwtService.getSubject(refreshToken);
-
-        User user = userRepository.findById(Long.parseLong(userId))
+        User user = userRepository.findById(verified.userId())
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
         return AuthResponseDTO.builder()
                 .success(true)
@@ -166,26 +157,4 @@ public class AuthServiceImpl implements AuthService {
                 .findFirst()
                 .orElse(null);
     }
-
-    public static String generateSecureToken() {
-        byte[] randomBytes = new byte[32];
-        secureRandom.nextBytes(randomBytes);
-        return Base64.getUrlEncoder().withoutPadding().encodeToString(randomBytes);
-    }
-
-    @Scheduled(cron = "0 33 15 * * *", zone = "Europe/Brussels")
-    @Transactional
-    public void deletePasswordResetTokenAutomatically() {
-        resetPasswordRepository.deletePasswordResetTokenAutomatically(
-                OffsetDateTime.now(ZoneOffset.UTC)
-        );
-    }
-
-    @Scheduled(cron = "0 0 5 * * *", zone = "Europe/Brussels")
-    @Transactional
-    public void deleteEmailResetTokenAutomatically() {
-        resetEmailRepository.deleteEmailResetTokenAutomatically(
-                OffsetDateTime.now(ZoneOffset.UTC)
-        );
-    }
-}
\ No newline at end of file
+}
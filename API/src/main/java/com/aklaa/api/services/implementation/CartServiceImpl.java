@@ -0,0 +1,62 @@
+package com.aklaa.api.services.implementation;
+
+import com.aklaa.api.dao.CartStore;
+import com.aklaa.api.dtos.request.CartDishRequestDTO;
+import com.aklaa.api.services.contract.CartService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class CartServiceImpl implements CartService {
+
+    private final CartStore cartStore;
+
+    @Override
+    public List<CartDishRequestDTO> getItems(Long userId) {
+        return cartStore.findAll(userId);
+    }
+
+    @Override
+    public CartDishRequestDTO add(Long userId, CartDishRequestDTO item) {
+        CartDishRequestDTO stored = copy(item);
+        do {
+            // Another node may take the same id first; the insert then fails and the next free id is tried.
+            stored.setId(cartStore.findMaxId(userId) + 1);
+        } while (!cartStore.insert(userId, stored));
+        return copy(stored);
+    }
+
+    @Override
+    public boolean edit(Long userId, int itemId, CartDishRequestDTO item) {
+        CartDishRequestDTO stored = copy(item);
+        stored.setId(itemId);
+        return cartStore.update(userId, stored);
+    }
+
+    @Override
+    public boolean remove(Long userId, int itemId) {
+        return cartStore.delete(userId, itemId);
+    }
+
+    @Override
+    public void clear(Long userId) {
+        cartStore.deleteAll(userId);
+    }
+
+    @Override
+    public void removeAll(Long userId, List<CartDishRequestDTO> items) {
+        cartStore.deleteUnchanged(userId, items);
+    }
+
+    private static CartDishRequestDTO copy(CartDishRequestDTO item) {
+        return CartDishRequestDTO.builder()
+                .id(item.getId())
+                .dishId(item.getDishId())
+                .dayOfWeek(item.getDayOfWeek())
+                .people(item.getPeople())
+                .build();
+    }
+}
@@ -0,0 +1,224 @@
+package com.aklaa.api.services.implementation;
+
+import com.aklaa.api.dao.DishRepository;
+import com.aklaa.api.dtos.response.DishImportErrorDTO;
+import com.aklaa.api.dtos.response.DishImportResultDTO;
+import com.aklaa.api.dtos.response.DishIngredientResponseInfoDTO;
+import com.aklaa.api.dtos.response.DishResponseDTO;
+import com.aklaa.api.dtos.response.IngredientResponseDTO;
+import com.aklaa.api.mapper.DishIngredientMapper;
+import com.aklaa.api.mapper.DishMapper;
+import com.aklaa.api.mapper.IngredientMapper;
+import com.aklaa.api.model.Dish;
+import com.aklaa.api.model.Ingredient;
+import com.aklaa.api.model.User;
+import com.aklaa.api.services.contract.DishImportService;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class DishImportServiceImpl implements DishImportService {
+
+    private final ObjectReader dishReader;
+    private final Validator validator;
+    private final DishRepository dishRepository;
+    private final IngredientIdentityResolver ingredientIdentityResolver;
+    private final IngredientMapper ingredientMapper;
+    private final DishMapper dishMapper;
+    private final DishIngredientMapper dishIngredientMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final int chunkSize;
+    private final int maxErrors;
+
+    public DishImportServiceImpl(
+            ObjectMapper objectMapper,
+            Validator validator,
+            DishRepository dishRepository,
+            IngredientIdentityResolver ingredientIdentityResolver,
+            IngredientMapper ingredientMapper,
+            DishMapper dishMapper,
+            DishIngredientMapper dishIngredientMapper,
+            TransactionTemplate transactionTemplate,
+            EntityManager entityManager,
+            @Value("${dishes.import.chunk-size:100}") int chunkSize,
+            @Value("${dishes.import.max-errors:100}") int maxErrors
+    ) {
+        // The caller owns the stream, so closing the iterator must not close it.
+        this.dishReader = objectMapper.readerFor(DishResponseDTO.class)
+                .without(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        this.validator = validator;
+        this.dishRepository = dishRepository;
+        this.ingredientIdentityResolver = ingredientIdentityResolver;
+        this.ingredientMapper = ingredientMapper;
+        this.dishMapper = dishMapper;
+        this.dishIngredientMapper = dishIngredientMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.maxErrors = Math.max(0, maxErrors);
+    }
+
+    @Override
+    public DishImportResultDTO importDishes(InputStream json, User user) {
+        ImportProgress progress = new ImportProgress(maxErrors);
+        List<ImportItem> chunk = new ArrayList<>(chunkSize);
+
+        // A top-level array is unwrapped by the iterator, anything else is read as a sequence of root values.
+        long index = 0;
+        try (MappingIterator<DishResponseDTO> dishes = dishReader.readValues(json)) {
+            for (; dishes.hasNextValue(); index++) {
+                DishResponseDTO dto;
+                try {
+                    dto = dishes.nextValue();
+                } catch (JsonMappingException e) {
+                    progress.fail(index, null, e.getOriginalMessage());
+                    continue;
+                }
+
+                String problem = validate(dto);
+                if (problem != null) {
+                    progress.fail(index, dto.getName(), problem);
+                    continue;
+                }
+
+                chunk.add(new ImportItem(index, dto));
+                if (chunk.size() == chunkSize) {
+                    persist(chunk, user, progress);
+                    chunk.clear();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            progress.fail(index, null, "Malformed JSON: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            progress.fail(index, null, "Could not read the upload: " + e.getMessage());
+        }
+
+        if (!chunk.isEmpty()) {
+            persist(chunk, user, progress);
+        }
+
+        log.info("Imported {} dishes for user {}, {} failed", progress.imported, user.getId(), progress.failed);
+        return progress.toResult();
+    }
+
+    private String validate(DishResponseDTO dto) {
+        if (dto == null) {
+            return "Dish is empty";
+        }
+
+        Set<ConstraintViolation<DishResponseDTO>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; "));
+        }
+
+        Set<String> keys = new HashSet<>();
+        for (DishIngredientResponseInfoDTO info : dto.getIngredients()) {
+            if (!keys.add(key(info.getIngredient()))) {
+                return "Ingredient '" + info.getIngredient().getName() + "' is listed more than once";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Saves a chunk in one transaction. When that fails the chunk is retried dish by dish,
+     * so a single bad dish only costs its own import.
+     */
+    private void persist(List<ImportItem> chunk, User user, ImportProgress progress) {
+        try {
+            Map<String, Ingredient> ingredients = ingredientIdentityResolver.resolve(
+                    chunk.stream()
+                            .flatMap(item -> item.dish().getIngredients().stream())
+                            .map(info -> ingredientMapper.toEntity(info.getIngredient(), user))
+                            .toList(),
+                    user
+            );
+            transactionTemplate.executeWithoutResult(status -> save(chunk, ingredients, user));
+            progress.imported += chunk.size();
+        } catch (RuntimeException e) {
+            if (chunk.size() == 1) {
+                ImportItem item = chunk.get(0);
+                log.warn("Could not import dish {} for user {}", item.index(), user.getId(), e);
+                progress.fail(item.index(), item.dish().getName(), "Dish could not be saved");
+                return;
+            }
+            chunk.forEach(item -> persist(List.of(item), user, progress));
+        }
+    }
+
+    private void save(List<ImportItem> chunk, Map<String, Ingredient> ingredients, User user) {
+        List<Dish> dishes = new ArrayList<>(chunk.size());
+        for (ImportItem item : chunk) {
+            DishResponseDTO dto = item.dish();
+            Dish dish = dishMapper.toEntity(dto, user);
+
+            dto.getIngredients().forEach(info -> dish.getDishIngredients().add(
+                    dishIngredientMapper.toEntity(dish, reference(ingredients.get(key(info.getIngredient()))), info.getQuantity())
+            ));
+            dish.getSteps().addAll(dishMapper.fromResponseDTOs(dto.getCookingSteps(), dish));
+
+            dishes.add(dish);
+        }
+
+        dishRepository.saveAll(dishes);
+
+        // Keep the persistence context from growing with the import; it outlives the transaction under open-in-view.
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Ingredient reference(Ingredient resolved) {
+        return entityManager.getReference(Ingredient.class, resolved.getId());
+    }
+
+    private static String key(IngredientResponseDTO ingredient) {
+        return Ingredient.keyOf(ingredient.getName(), ingredient.getUnit(), ingredient.getDescription());
+    }
+
+    private record ImportItem(long index, DishResponseDTO dish) {
+    }
+
+    private static final class ImportProgress {
+        private final int maxErrors;
+        private final List<DishImportErrorDTO> errors = new ArrayList<>();
+        private long imported;
+        private long failed;
+
+        private ImportProgress(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        private void fail(long index, String name, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new DishImportErrorDTO(index, name, message));
+            }
+        }
+
+        private DishImportResultDTO toResult() {
+            errors.sort(Comparator.comparingLong(DishImportErrorDTO::getIndex));
+            return new DishImportResultDTO(imported, failed, errors);
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.aklaa.api.services.implementation;
 
+import com.aklaa.api.config.FullTextFunctionContributor;
+import com.aklaa.api.config.FullTextSearch;
+import com.aklaa.api.dao.CursorPage;
 import com.aklaa.api.dao.DishRepository;
 import com.aklaa.api.dao.IngredientRepository;
 import com.aklaa.api.dtos.request.DishRequestDTO;
@@ -7,15 +10,21 @@ import com.aklaa.api.dtos.response.DishListResponseDTO;
 import com.aklaa.api.dtos.response.DishResponseDTO;
 import com.aklaa.api.dtos.request.DishIngredientRequestInfoDTO;
 import com.aklaa.api.dtos.response.IngredientResponseDTO;
+import com.aklaa.api.exceptions.InvalidDishTagException;
 import com.aklaa.api.mapper.DishIngredientMapper;
 import com.aklaa.api.mapper.DishMapper;
+import com.aklaa.api.mapper.IngredientMapper;
 import com.aklaa.api.model.*;
 import com.aklaa.api.model.enums.CuisineType;
+import com.aklaa.api.model.enums.DishTag;
 import com.aklaa.api.model.enums.MeasurementUnit;
 import com.aklaa.api.services.contract.DishService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Join;
-import jakarta.persistence.criteria.JoinType;
 import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -23,6 +32,7 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
 import java.util.function.Function;
@@ -32,10 +42,17 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class DishServiceImpl implements DishService {
 
+    private static final List<String> CURSOR_KEYS = List.of("name", "id");
+
     private final DishRepository dishRepository;
     private final DishMapper dishMapper;
     private final DishIngredientMapper dishIngredientMapper;
     private final IngredientRepository ingredientRepository;
+    private final IngredientMapper ingredientMapper;
+    private final IngredientIdentityResolver ingredientIdentityResolver;
+    private final FullTextSearch fullTextSearch;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
 
     @Override
     @Transactional
@@ -62,7 +79,7 @@ public class DishServiceImpl implements DishService {
             dish.getDishIngredients().add(dishIngredientMapper.toEntity(dish, ingredient, info.getQuantity()));
         });
 
-        dish.getSteps().addAll(dishMapper.fromRequestDTOs(dto.getSteps(), dish));
+        dish.replaceSteps(dishMapper.fromRequestDTOs(dto.getSteps(), dish));
 
         Dish savedDish = dishRepository.save(dish);
 
@@ -70,77 +87,43 @@ public class DishServiceImpl implements DishService {
     }
 
     @Override
-    @Transactional
     public DishResponseDTO createFromJson(DishResponseDTO dto, User user) {
+        Map<String, Ingredient> ingredientMap = ingredientIdentityResolver.resolve(
+                dto.getIngredients().stream()
+                        .map(info -> ingredientMapper.toEntity(info.getIngredient(), user))
+                        .toList(),
+                user
+        );
 
-        Dish dish = dishMapper.toEntity(dto, user);
-
-        Map<String, Ingredient> ingredientMap =
-                ingredientRepository.findAllByUserOrderByCategoryAscNameAsc(user).stream()
-                        .collect(Collectors.toMap(
-                                ing -> ingredientKey(ing.getName(), ing.getUnit(), ing.getDescription()),
-                                Function.identity()
-                        ));
-
-        List<Ingredient> newIngredients = new ArrayList<>();
+        return transactionTemplate.execute(status -> {
+            Dish dish = dishMapper.toEntity(dto, user);
 
-        dto.getIngredients().forEach(info -> {
-            IngredientResponseDTO dishingredient = info.getIngredient();
+            dto.getIngredients().forEach(info -> {
+                IngredientResponseDTO dishingredient = info.getIngredient();
+                String key = Ingredient.keyOf(
+                        dishingredient.getName(),
+                        dishingredient.getUnit(),
+                        dishingredient.getDescription()
+                );
+                Ingredient ingredient = entityManager.getReference(Ingredient.class, ingredientMap.get(key).getId());
+
+                dish.getDishIngredients().add(
+                        dishIngredientMapper.toEntity(
+                                dish,
+                                ingredient,
+                                info.getQuantity()
+                        )
+                );
+            });
 
-            String key = ingredientKey(
-                    dishingredient.getName(),
-                    dishingredient.getUnit(),
-                    dishingredient.getDescription()
+            dish.getSteps().addAll(
+                    dishMapper.fromResponseDTOs(dto.getCookingSteps(), dish)
             );
 
-            Ingredient ingredient = ingredientMap.get(key);
-
-            if (ingredient == null) {
-                ingredient = Ingredient.builder()
-                        .name(dishingredient.getName())
-                        .unit(dishingredient.getUnit())
-                        .description(dishingredient.getDescription())
-                        .category(dishingredient.getCategory())
-                        .user(user)
-                        .build();
-
-                newIngredients.add(ingredient);
-                ingredientMap.put(key, ingredient);
-            }
-        });
-
-        if (!newIngredients.isEmpty()) {
-            List<Ingredient> savedIngredients = ingredientRepository.saveAll(newIngredients);
-            savedIngredients.forEach(ing -> 
-                ingredientMap.put(ingredientKey(ing.getName(), ing.getUnit(), ing.getDescription()), ing)
-            );
-        }
+            Dish savedDish = dishRepository.save(dish);
 
-        dto.getIngredients().forEach(info -> {
-            IngredientResponseDTO dishingredient = info.getIngredient();
-            String key = ingredientKey(
-                    dishingredient.getName(),
-                    dishingredient.getUnit(),
-                    dishingredient.getDescription()
-            );
-            Ingredient ingredient = ingredientMap.get(key);
-
-            dish.getDishIngredients().add(
-                    dishIngredientMapper.toEntity(
-                            dish,
-                            ingredient,
-                            info.getQuantity()
-                    )
-            );
+            return dishMapper.toResponseDTO(savedDish);
         });
-
-        dish.getSteps().addAll(
-                dishMapper.fromResponseDTOs(dto.getCookingSteps(), dish)
-        );
-
-        Dish savedDish = dishRepository.save(dish);
-
-        return dishMapper.toResponseDTO(savedDish);
     }
 
     @Override
@@ -187,7 +170,7 @@ public class DishServiceImpl implements DishService {
         Dish dish = dishRepository.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("Dish not found"));
 
-        if(!dish.getUser().equals(user)){
+        if(!dish.getUser().getId().equals(user.getId())){
             throw new AccessDeniedException("Access denied");
         }
 
@@ -208,7 +191,8 @@ public class DishServiceImpl implements DishService {
     }
 
     @Override
-    public DishListResponseDTO filter(String search, List<String> countries, Pageable pageable, User user) {
+    @Transactional(readOnly = true)
+    public DishListResponseDTO filter(String search, List<String> countries, List<String> tags, boolean matchAllTags, Pageable pageable, String cursor, User user) {
         List<CuisineType> cuisineEnums = null;
         if (countries != null && !countries.isEmpty()) {
             cuisineEnums = countries.stream()
@@ -223,20 +207,47 @@ public class DishServiceImpl implements DishService {
                     .toList();
         }
 
+        int tagMask = 0;
+        if (tags != null) {
+            tagMask = DishTag.toMask(tags.stream()
+                    .map(t -> {
+                        try {
+                            return DishTag.valueOf(t.trim().toUpperCase());
+                        } catch (IllegalArgumentException e) {
+                            throw new InvalidDishTagException("Unknown tag: " + t);
+                        }
+                    })
+                    .toList());
+        }
+
         Specification<Dish> spec = userSpec(user)
                 .and(hasCuisineSpec(cuisineEnums))
+                .and(hasTagsSpec(tagMask, matchAllTags))
                 .and(searchSpec(search));
 
-        Page<Dish> dishesPage = dishRepository.findAll(spec, pageable);
+        if (cursor != null) {
+            CursorPage<Long> idPage = dishRepository.findIdsAfter(spec, CURSOR_KEYS, cursor, pageable.getPageSize());
+
+            return DishListResponseDTO.builder()
+                    .dishes(loadInOrder(idPage.content()).stream()
+                            .map(dishMapper::toResponseDTO)
+                            .toList())
+                    .totalElements(-1)
+                    .totalPages(-1)
+                    .nextCursor(idPage.nextCursor())
+                    .build();
+        }
+
+        Page<Long> idPage = dishRepository.findIds(spec, pageable);
 
-        List<DishResponseDTO> dishDTOs = dishesPage.getContent().stream()
+        List<DishResponseDTO> dishDTOs = loadInOrder(idPage.getContent()).stream()
                 .map(dishMapper::toResponseDTO)
                 .toList();
 
         return DishListResponseDTO.builder()
                 .dishes(dishDTOs)
-                .totalElements(dishesPage.getTotalElements())
-                .totalPages(dishesPage.getTotalPages())
+                .totalElements(idPage.getTotalElements())
+                .totalPages(idPage.getTotalPages())
                 .build();
     }
 
@@ -249,29 +260,134 @@ public class DishServiceImpl implements DishService {
                 .toList();
     }
 
+    /**
+     * Loads the given dishes with their ingredients and steps in two queries, keeping the order of the IDs.
+     */
+    private List<Dish> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Dish> dishesById = dishRepository.findAllWithIngredientsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Dish::getId, Function.identity()));
+        dishRepository.findAllWithStepsByIdIn(ids);
+
+        return ids.stream()
+                .map(dishesById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
     private Specification<Dish> searchSpec(String searchTerm) {
+        if (fullTextSearch.appliesTo(searchTerm)) {
+            return fullTextSearchSpec(searchTerm);
+        }
+
         return (root, query, builder) -> {
             if (searchTerm == null || searchTerm.isEmpty()) {
                 return builder.conjunction();
             }
 
             assert query != null;
-            query.distinct(true);
             String likeTerm = "%" + searchTerm.toLowerCase() + "%";
 
-            Join<Dish, DishIngredient> dishIngredientsJoin = root.join("dishIngredients", JoinType.LEFT);
-            Join<DishIngredient, Ingredient> ingredientJoin = dishIngredientsJoin.join("ingredient", JoinType.LEFT);
+            Subquery<Long> ingredientMatch = query.subquery(Long.class);
+            Root<DishIngredient> dishIngredient = ingredientMatch.from(DishIngredient.class);
+            Join<DishIngredient, Ingredient> ingredientJoin = dishIngredient.join("ingredient");
+            ingredientMatch.select(builder.literal(1L))
+                    .where(
+                            builder.equal(dishIngredient.get("dish"), root),
+                            builder.like(builder.lower(ingredientJoin.get("name")), likeTerm)
+                    );
 
             Predicate namePredicate = builder.like(builder.lower(root.get("name")), likeTerm);
             Predicate descriptionPredicate = builder.like(builder.lower(root.get("description")), likeTerm);
-            Predicate ingredientPredicate = builder.like(builder.lower(ingredientJoin.get("name")), likeTerm);
+            Predicate ingredientPredicate = builder.exists(ingredientMatch);
 
-            Predicate tagsPredicate = builder.like(builder.lower(root.get("tags")), likeTerm);
+            Predicate tagsPredicate = anyTagSpec(tagsNamedLike(searchTerm)).toPredicate(root, query, builder);
 
             return builder.or(namePredicate, descriptionPredicate, ingredientPredicate, tagsPredicate);
         };
     }
 
+    /**
+     * Searches name and description through the FULLTEXT index and orders the results by relevance.
+     * Ingredient names are matched through the ingredients FULLTEXT index, tags only when the term names a tag.
+     */
+    private Specification<Dish> fullTextSearchSpec(String searchTerm) {
+        return (root, query, builder) -> {
+            assert query != null;
+            Expression<String> phrase = builder.literal(FullTextSearch.phrase(searchTerm));
+
+            Expression<Double> relevance = builder.function(
+                    FullTextFunctionContributor.MATCH_AGAINST_2, Double.class,
+                    root.get("name"), root.get("description"), phrase
+            );
+
+            Subquery<Long> ingredientMatch = query.subquery(Long.class);
+            Root<DishIngredient> dishIngredient = ingredientMatch.from(DishIngredient.class);
+            Join<DishIngredient, Ingredient> ingredientJoin = dishIngredient.join("ingredient");
+            ingredientMatch.select(builder.literal(1L))
+                    .where(
+                            builder.equal(dishIngredient.get("dish"), root),
+                            builder.greaterThan(
+                                    builder.function(
+                                            FullTextFunctionContributor.MATCH_AGAINST_1, Double.class,
+                                            ingredientJoin.get("name"), phrase
+                                    ),
+                                    0.0
+                            )
+                    );
+
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(builder.greaterThan(relevance, 0.0));
+            predicates.add(builder.exists(ingredientMatch));
+
+            int matchingTags = tagsNamedLike(searchTerm);
+            if (matchingTags != 0) {
+                predicates.add(anyTagSpec(matchingTags).toPredicate(root, query, builder));
+            }
+
+            query.orderBy(builder.desc(relevance));
+            return builder.or(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+
+    private Specification<Dish> hasTagsSpec(int tagMask, boolean matchAll) {
+        if (tagMask == 0) {
+            return (root, query, builder) -> builder.conjunction();
+        }
+        if (!matchAll) {
+            return anyTagSpec(tagMask);
+        }
+        return (root, query, builder) -> builder.equal(
+                builder.function("bitand", Integer.class, root.get("tagMask"), builder.literal(tagMask)),
+                tagMask
+        );
+    }
+
+    private Specification<Dish> anyTagSpec(int tagMask) {
+        return (root, query, builder) -> {
+            if (tagMask == 0) {
+                return builder.disjunction();
+            }
+            return builder.notEqual(
+                    builder.function("bitand", Integer.class, root.get("tagMask"), builder.literal(tagMask)),
+                    0
+            );
+        };
+    }
+
+    /**
+     * @return the mask of all tags whose name contains the search term, the way the old tag text search matched
+     */
+    private int tagsNamedLike(String searchTerm) {
+        String upperTerm = searchTerm.strip().toUpperCase();
+        return DishTag.toMask(Arrays.stream(DishTag.values())
+                .filter(tag -> tag.name().contains(upperTerm))
+                .toList());
+    }
 
     private Specification<Dish> hasCuisineSpec(List<CuisineType> cuisines) {
         return (root, query, builder) -> {
@@ -286,10 +402,4 @@ public class DishServiceImpl implements DishService {
         return (root, query, builder) -> builder.equal(root.get("user"), user);
     }
 
-    private String ingredientKey(String name, MeasurementUnit unit, String description) {
-        return name.toLowerCase().trim()
-                + "|" + unit.name()
-                + "|" + (description == null ? "" : description.trim());
-    }
-
 }
\ No newline at end of file
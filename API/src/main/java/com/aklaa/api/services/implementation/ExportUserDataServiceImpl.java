@@ -1,76 +1,171 @@
 package com.aklaa.api.services.implementation;
 
-import com.aklaa.api.dao.GroceryListRepository;
-import com.aklaa.api.dtos.response.GroceryListIngredientResponseDTO;
+import com.aklaa.api.dao.*;
+import com.aklaa.api.dtos.response.DishResponseDTO;
 import com.aklaa.api.dtos.response.IngredientResponseDTO;
-import com.aklaa.api.model.GroceryList;
-import com.aklaa.api.model.GroceryListIngredient;
+import com.aklaa.api.mapper.DishMapper;
+import com.aklaa.api.mapper.GroceryListMapper;
+import com.aklaa.api.mapper.IngredientMapper;
+import com.aklaa.api.model.Dish;
 import com.aklaa.api.model.User;
-import com.aklaa.api.services.contract.*;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.aklaa.api.services.contract.ExportUserDataService;
+import com.aklaa.api.services.contract.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.*;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 public class ExportUserDataServiceImpl implements ExportUserDataService {
 
     private final UserService userService;
-    private final DishService dishService;
-    private final IngredientService ingredientService;
+    private final IngredientRepository ingredientRepository;
+    private final DishRepository dishRepository;
     private final GroceryListRepository groceryListRepository;
+    private final IngredientMapper ingredientMapper;
+    private final DishMapper dishMapper;
+    private final GroceryListMapper groceryListMapper;
     private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnly;
+    private final int chunkSize;
+
+    public ExportUserDataServiceImpl(
+            UserService userService,
+            IngredientRepository ingredientRepository,
+            DishRepository dishRepository,
+            GroceryListRepository groceryListRepository,
+            IngredientMapper ingredientMapper,
+            DishMapper dishMapper,
+            GroceryListMapper groceryListMapper,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${users.export.chunk-size:200}") int chunkSize
+    ) {
+        this.userService = userService;
+        this.ingredientRepository = ingredientRepository;
+        this.dishRepository = dishRepository;
+        this.groceryListRepository = groceryListRepository;
+        this.ingredientMapper = ingredientMapper;
+        this.dishMapper = dishMapper;
+        this.groceryListMapper = groceryListMapper;
+        this.objectMapper = objectMapper;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
 
     @Override
-    public byte[] getUserData(User user) throws JsonProcessingException {
-        List<GroceryList> groceryLists = groceryListRepository.findByUserWithIngredients(user);
-        
-        List<Map<String, Object>> groceryListsWithIngredients = groceryLists.stream()
-                .map(groceryList -> {
-                    Map<String, Object> groceryListMap = new HashMap<>();
-                    groceryListMap.put("groceryList", Map.of(
-                            "id", groceryList.getId(),
-                            "startOfWeek", groceryList.getStartOfWeek(),
-                            "endOfWeek", groceryList.getEndOfWeek()
-                    ));
-                    
-                    List<GroceryListIngredientResponseDTO> ingredients = groceryList.getGroceryListIngredients()
+    public void writeUserData(User user, OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            write(user.getId(), json);
+        }
+    }
+
+    private void write(Long userId, JsonGenerator json) throws IOException {
+        json.writeStartObject();
+        json.writeObjectField("user", readOnly.execute(status -> userService.get(userId)));
+        json.flush();
+
+        json.writeArrayFieldStart("ingredients");
+        writeChunks(json,
+                after -> ingredientRepository.findByUserAfter(userId, after, Limit.of(chunkSize)).stream()
+                        .map(ingredientMapper::toResponseDTO)
+                        .toList(),
+                IngredientResponseDTO::getId,
+                json::writeObject);
+        json.writeEndArray();
+
+        json.writeArrayFieldStart("dishes");
+        writeChunks(json,
+                after -> {
+                    List<Long> dishIds = dishRepository.findIdsByUserAfter(userId, after, Limit.of(chunkSize));
+                    if (dishIds.isEmpty()) {
+                        return List.of();
+                    }
+                    List<Dish> dishes = dishRepository.findAllWithIngredientsByIdIn(dishIds);
+                    dishRepository.findAllWithStepsByIdIn(dishIds);
+                    return dishes.stream()
+                            .sorted(Comparator.comparing(Dish::getId))
+                            .map(dishMapper::toResponseDTO)
+                            .toList();
+                },
+                DishResponseDTO::getId,
+                json::writeObject);
+        json.writeEndArray();
+
+        json.writeArrayFieldStart("groceryLists");
+        writeChunks(json,
+                after -> {
+                    List<GroceryListSummary> groceryLists = groceryListRepository.findSummariesByUserAfter(userId, after, Limit.of(chunkSize));
+                    Map<Long, List<GroceryListItemView>> items = groceryListRepository
+                            .findItems(groceryLists.stream().map(GroceryListSummary::id).toList())
                             .stream()
-                            .sorted(
-                                    Comparator.comparing(
-                                            (GroceryListIngredient item) ->
-                                                    item.getIngredient().getCategory()
-                                    ).thenComparing(
-                                            item -> item.getIngredient().getName()
-                                    )
-                            )
-                            .map(item -> GroceryListIngredientResponseDTO.builder()
-                                    .ingredient(IngredientResponseDTO.builder()
-                                            .id(item.getIngredient().getId())
-                                            .name(item.getIngredient().getName())
-                                            .description(item.getIngredient().getDescription())
-                                            .category(item.getIngredient().getCategory())
-                                            .unit(item.getIngredient().getUnit())
-                                            .build())
-                                    .quantity(item.getQuantity())
-                                    .build()
-                            )
+                            .collect(Collectors.groupingBy(GroceryListItemView::groceryListId));
+                    return groceryLists.stream()
+                            .map(groceryList -> new ExportedGroceryList(groceryList, items.getOrDefault(groceryList.id(), List.of())))
                             .toList();
-                    
-                    groceryListMap.put("ingredients", ingredients);
-                    return groceryListMap;
-                })
-                .toList();
-
-        Map<String, Object> map = new LinkedHashMap<>();
-        map.put("user", userService.get(user.getId()));
-        map.put("ingredients", ingredientService.getAll(user));
-        map.put("dishes", dishService.getAll(user));
-        map.put("groceryLists", groceryListsWithIngredients);
-
-        return objectMapper.writeValueAsBytes(map);
+                },
+                exported -> exported.groceryList().id(),
+                exported -> writeGroceryList(exported, json));
+        json.writeEndArray();
+
+        json.writeEndObject();
+    }
+
+    /**
+     * Writes rows chunk by chunk, each chunk read in its own read-only transaction. Writing happens outside of
+     * it, so a slow client never holds a database connection.
+     */
+    private <T> void writeChunks(JsonGenerator json, Function<Long, List<T>> readAfter, Function<T, Long> id,
+                                 RowWriter<T> writer) throws IOException {
+        Long after = 0L;
+        List<T> rows;
+        do {
+            Long from = after;
+            rows = readOnly.execute(status -> readAfter.apply(from));
+            for (T row : rows) {
+                writer.write(row);
+                after = id.apply(row);
+            }
+            json.flush();
+        } while (rows.size() == chunkSize);
+    }
+
+    private void writeGroceryList(ExportedGroceryList exported, JsonGenerator json) throws IOException {
+        GroceryListSummary groceryList = exported.groceryList();
+        BitSet checkedItems = groceryList.checkedItems() == null ? new BitSet() : BitSet.valueOf(groceryList.checkedItems());
+
+        json.writeStartObject();
+        json.writeObjectFieldStart("groceryList");
+        json.writeNumberField("id", groceryList.id());
+        json.writeObjectField("startOfWeek", groceryList.startOfWeek());
+        json.writeObjectField("endOfWeek", groceryList.endOfWeek());
+        json.writeEndObject();
+        json.writeArrayFieldStart("ingredients");
+        for (GroceryListItemView item : exported.items()) {
+            json.writeObject(groceryListMapper.toIngredientResponseDTO(item, checkedItems));
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+
+    private record ExportedGroceryList(GroceryListSummary groceryList, List<GroceryListItemView> items) {
+    }
+
+    @FunctionalInterface
+    private interface RowWriter<T> {
+        void write(T row) throws IOException;
     }
-}
\ No newline at end of file
+}
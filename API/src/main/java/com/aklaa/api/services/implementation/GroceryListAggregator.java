@@ -0,0 +1,62 @@
+package com.aklaa.api.services.implementation;
+
+import com.aklaa.api.dao.DishIngredientQuantity;
+import com.aklaa.api.dao.DishRepository;
+import com.aklaa.api.dtos.request.CartDishRequestDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Turns a cart into the total quantity to buy per ingredient.
+ * <p>
+ * Only (dish, ingredient, quantity, people) is loaded, for all dishes of the cart in one query;
+ * the quantities are then scaled to each cart entry's number of people and summed in a single pass.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class GroceryListAggregator {
+
+    private static final int SCALE = 3;
+
+    private final DishRepository dishRepository;
+
+    /**
+     * @return quantity per ingredient id, in the order the ingredients first appear in the cart;
+     *         empty when none of the cart's dishes exist
+     */
+    public Map<Long, BigDecimal> aggregate(List<CartDishRequestDTO> cart) {
+        Set<Long> dishIds = cart.stream()
+                .map(CartDishRequestDTO::getDishId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (dishIds.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+
+        Map<Long, List<DishIngredientQuantity>> byDish = dishRepository.findIngredientQuantitiesByDishIdIn(dishIds).stream()
+                .collect(Collectors.groupingBy(DishIngredientQuantity::dishId));
+
+        Map<Long, BigDecimal> totals = new LinkedHashMap<>();
+        for (CartDishRequestDTO entry : cart) {
+            for (DishIngredientQuantity row : byDish.getOrDefault(entry.getDishId(), List.of())) {
+                totals.merge(row.ingredientId(), scale(row, entry.getPeople()), BigDecimal::add);
+            }
+        }
+        return totals;
+    }
+
+    private static BigDecimal scale(DishIngredientQuantity row, int people) {
+        if (row.quantity() == null || row.people() <= 0) {
+            return BigDecimal.ZERO.setScale(SCALE);
+        }
+        return row.quantity()
+                .multiply(BigDecimal.valueOf(people))
+                .divide(BigDecimal.valueOf(row.people()), SCALE, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,265 @@
+package com.aklaa.api.services.implementation;
+
+import com.aklaa.api.dao.GroceryListItemView;
+import com.aklaa.api.dao.GroceryListRepository;
+import com.aklaa.api.dao.GroceryListSummary;
+import com.aklaa.api.dtos.response.ArchivedGroceryListDTO;
+import com.aklaa.api.dtos.response.ArchivedGroceryListPageDTO;
+import com.aklaa.api.mapper.GroceryListMapper;
+import com.aklaa.api.model.User;
+import com.aklaa.api.services.contract.GroceryListArchiveService;
+import com.aklaa.api.services.contract.MinioService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+@Slf4j
+@Service
+public class GroceryListArchiveServiceImpl implements GroceryListArchiveService {
+
+    static final String PREFIX = "archives/grocery-lists/";
+    private static final String CONTENT_TYPE = "application/gzip";
+
+    // {newest list id, zero-padded so names sort by it}-{oldest list id}-{number of lists}.ndjson.gz
+    private static final Pattern OBJECT_NAME = Pattern.compile("(\\d{19})-(\\d{19})-(\\d+)\\.ndjson\\.gz$");
+
+    private final GroceryListRepository groceryListRepository;
+    private final GroceryListMapper groceryListMapper;
+    private final GroceryListCheckBuffer groceryListCheckBuffer;
+    private final MinioService minioService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public GroceryListArchiveServiceImpl(
+            GroceryListRepository groceryListRepository,
+            GroceryListMapper groceryListMapper,
+            GroceryListCheckBuffer groceryListCheckBuffer,
+            MinioService minioService,
+            ObjectMapper objectMapper,
+            TransactionTemplate transactionTemplate,
+            @Value("${grocerylists.archive.chunk-size:500}") int chunkSize
+    ) {
+        this.groceryListRepository = groceryListRepository;
+        this.groceryListMapper = groceryListMapper;
+        this.groceryListCheckBuffer = groceryListCheckBuffer;
+        this.minioService = minioService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    @Override
+    public boolean archiveCreatedBefore(OffsetDateTime cutoff) {
+        groceryListCheckBuffer.flush();
+
+        boolean complete = true;
+        for (Long userId : groceryListRepository.findUserIdsWithListsCreatedBefore(cutoff)) {
+            try {
+                archive(userId, cutoff);
+            } catch (Exception e) {
+                log.warn("Could not archive the grocery lists of user {}, keeping them", userId, e);
+                complete = false;
+            }
+        }
+        return complete;
+    }
+
+    @Override
+    public ArchivedGroceryListPageDTO getArchivedGroceryLists(User user, Pageable pageable) throws Exception {
+        List<ArchiveObject> objects = archiveObjects(user.getId());
+        Collections.reverse(objects);
+
+        long total = objects.stream().mapToLong(ArchiveObject::lists).sum();
+        List<ArchivedGroceryListDTO> page = new ArrayList<>(pageable.getPageSize());
+        long skip = pageable.getOffset();
+        for (ArchiveObject object : objects) {
+            if (page.size() == pageable.getPageSize()) {
+                break;
+            }
+            if (skip >= object.lists()) {
+                skip -= object.lists();
+                continue;
+            }
+            skip = read(object.name(), skip, pageable.getPageSize(), page);
+        }
+
+        return ArchivedGroceryListPageDTO.builder()
+                .groceryLists(page)
+                .totalElements(total)
+                .totalPages((int) ((total + pageable.getPageSize() - 1) / pageable.getPageSize()))
+                .build();
+    }
+
+    @Override
+    public void deleteArchivedGroceryLists(Long userId) throws Exception {
+        for (String name : minioService.listObjects(prefix(userId))) {
+            minioService.removeObject(name);
+        }
+    }
+
+    @EventListener
+    public void onUserDeletion(UserDeletionEvent event) {
+        try {
+            deleteArchivedGroceryLists(event.userId());
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not delete the archived grocery lists of user " + event.userId(), e);
+        }
+    }
+
+    private void archive(Long userId, OffsetDateTime cutoff) throws Exception {
+        List<GroceryListSummary> lists = groceryListRepository.findSummariesCreatedBefore(userId, cutoff);
+        if (lists.isEmpty()) {
+            return;
+        }
+
+        // Lists stored by an earlier run whose deletes failed are only deleted now, not stored a second time.
+        Set<Long> archived = archivedIds(userId, lists.get(lists.size() - 1).id(), lists.get(0).id());
+        List<GroceryListSummary> toStore = lists.stream().filter(list -> !archived.contains(list.id())).toList();
+        if (!toStore.isEmpty()) {
+            store(userId, toStore);
+        }
+
+        for (List<GroceryListSummary> chunk : chunks(lists)) {
+            List<Long> ids = chunk.stream().map(GroceryListSummary::id).toList();
+            transactionTemplate.executeWithoutResult(status -> {
+                groceryListRepository.deleteItemsOfLists(ids);
+                groceryListRepository.deleteAllByIdIn(ids);
+            });
+        }
+        log.info("Archived {} grocery lists of user {}, {} of them were already stored", lists.size(), userId,
+                lists.size() - toStore.size());
+    }
+
+    private void store(Long userId, List<GroceryListSummary> lists) throws Exception {
+        String objectName = prefix(userId) + String.format("%019d-%019d-%d.ndjson.gz",
+                lists.get(0).id(), lists.get(lists.size() - 1).id(), lists.size());
+        Path file = Files.createTempFile("grocery-lists-" + userId + "-", ".ndjson.gz");
+        try {
+            try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+                for (List<GroceryListSummary> chunk : chunks(lists)) {
+                    write(chunk, out);
+                }
+            }
+            try (InputStream in = Files.newInputStream(file)) {
+                minioService.putObject(objectName, in, Files.size(file), CONTENT_TYPE);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * The ids of the lists between {@code oldest} and {@code newest} that are already stored. Only objects
+     * whose range of ids overlaps them are read.
+     */
+    private Set<Long> archivedIds(Long userId, long oldest, long newest) throws Exception {
+        Set<Long> ids = new HashSet<>();
+        for (ArchiveObject object : archiveObjects(userId)) {
+            if (object.oldest() > newest || object.newest() < oldest) {
+                continue;
+            }
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(minioService.getObject(object.name())), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.isBlank()) {
+                        ids.add(objectMapper.readTree(line).get("id").asLong());
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+
+    private void write(List<GroceryListSummary> lists, OutputStream out) throws IOException {
+        Map<Long, List<GroceryListItemView>> items = groceryListRepository
+                .findItems(lists.stream().map(GroceryListSummary::id).toList())
+                .stream()
+                .collect(Collectors.groupingBy(GroceryListItemView::groceryListId));
+
+        for (GroceryListSummary list : lists) {
+            BitSet checkedItems = groceryListCheckBuffer.checkedItems(list.id(), list.checkedItems());
+            ArchivedGroceryListDTO archived = ArchivedGroceryListDTO.builder()
+                    .id(list.id())
+                    .startOfWeek(list.startOfWeek())
+                    .endOfWeek(list.endOfWeek())
+                    .createdAt(list.createdAt())
+                    .ingredients(items.getOrDefault(list.id(), List.of()).stream()
+                            .map(item -> groceryListMapper.toIngredientResponseDTO(item, checkedItems))
+                            .toList())
+                    .build();
+            out.write(objectMapper.writeValueAsBytes(archived));
+            out.write('\n');
+        }
+    }
+
+    /**
+     * Adds the lists of an object to the page, after skipping {@code skip} of them.
+     *
+     * @return the number of lists still to skip in the next object
+     */
+    private long read(String objectName, long skip, int pageSize, List<ArchivedGroceryListDTO> page) throws Exception {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(minioService.getObject(objectName)), StandardCharsets.UTF_8))) {
+            String line;
+            while (page.size() < pageSize && (line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (skip > 0) {
+                    skip--;
+                    continue;
+                }
+                page.add(objectMapper.readValue(line, ArchivedGroceryListDTO.class));
+            }
+        }
+        return skip;
+    }
+
+    private List<List<GroceryListSummary>> chunks(List<GroceryListSummary> lists) {
+        List<List<GroceryListSummary>> chunks = new ArrayList<>();
+        for (int start = 0; start < lists.size(); start += chunkSize) {
+            chunks.add(lists.subList(start, Math.min(start + chunkSize, lists.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * The archive objects of a user, oldest first.
+     */
+    private List<ArchiveObject> archiveObjects(Long userId) throws Exception {
+        List<ArchiveObject> objects = new ArrayList<>();
+        for (String name : minioService.listObjects(prefix(userId))) {
+            Matcher matcher = OBJECT_NAME.matcher(name);
+            if (matcher.find()) {
+                objects.add(new ArchiveObject(name, Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2)),
+                        Long.parseLong(matcher.group(3))));
+            }
+        }
+        return objects;
+    }
+
+    private static String prefix(Long userId) {
+        return PREFIX + userId + "/";
+    }
+
+    private record ArchiveObject(String name, long newest, long oldest, long lists) {
+    }
+}
@@ -0,0 +1,119 @@
+package com.aklaa.api.services.implementation;
+
+import com.aklaa.api.dao.GroceryListCheckedItems;
+import com.aklaa.api.dao.GroceryListRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Write-behind buffer for checking off grocery list items.
+ * <p>
+ * Taps in the store come in bursts, so changes are collected per list and written every
+ * {@code grocerylists.checked.flush-interval} in one transaction: one locking read of the affected bitsets
+ * and one update per list, however many taps there were. A later change of the same item replaces an earlier
+ * one. Reads on this node see buffered changes through {@link #checkedItems}; other nodes see them after the
+ * next flush. Changes that were not flushed yet are lost if the node dies without shutting down.
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GroceryListCheckBuffer {
+
+    private final GroceryListRepository groceryListRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentMap<Long, Changes> pending = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Changes> flushing = new ConcurrentHashMap<>();
+
+    /**
+     * Buffers checked ({@code true}) and unchecked ({@code false}) states by slot.
+     */
+    public void record(Long groceryListId, Map<Integer, Boolean> states) {
+        pending.merge(groceryListId, Changes.of(states), Changes::then);
+    }
+
+    /**
+     * The checked slots of a list: its stored bitset with the changes of this node applied.
+     */
+    public BitSet checkedItems(Long groceryListId, byte[] stored) {
+        BitSet checked = stored == null ? new BitSet() : BitSet.valueOf(stored);
+        Optional.ofNullable(flushing.get(groceryListId)).ifPresent(changes -> changes.applyTo(checked));
+        Optional.ofNullable(pending.get(groceryListId)).ifPresent(changes -> changes.applyTo(checked));
+        return checked;
+    }
+
+    @Scheduled(fixedDelayString = "${grocerylists.checked.flush-interval:2s}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // Copied before they are removed, so reads never miss a change that is on its way to the database.
+        for (Long id : List.copyOf(pending.keySet())) {
+            Changes changes = pending.get(id);
+            if (changes != null) {
+                flushing.merge(id, changes, Changes::then);
+                pending.remove(id, changes);
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(flushing));
+        } catch (RuntimeException e) {
+            log.warn("Could not write checked items of {} grocery lists, retrying with the next flush", flushing.size(), e);
+            flushing.forEach((id, changes) -> pending.merge(id, changes, (newer, older) -> older.then(newer)));
+        }
+        flushing.clear();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void write(Map<Long, Changes> changes) {
+        for (GroceryListCheckedItems stored : groceryListRepository.findCheckedItemsForUpdate(changes.keySet())) {
+            BitSet checked = stored.checkedItems() == null ? new BitSet() : BitSet.valueOf(stored.checkedItems());
+            changes.get(stored.groceryListId()).applyTo(checked);
+            groceryListRepository.updateCheckedItems(stored.groceryListId(), checked.toByteArray());
+        }
+    }
+
+    /**
+     * Slots to check and slots to uncheck; a slot is never in both. Never modified once created.
+     */
+    private record Changes(BitSet checked, BitSet unchecked) {
+
+        private static Changes of(Map<Integer, Boolean> states) {
+            BitSet checked = new BitSet();
+            BitSet unchecked = new BitSet();
+            states.forEach((slot, state) -> (state ? checked : unchecked).set(slot));
+            return new Changes(checked, unchecked);
+        }
+
+        private Changes then(Changes newer) {
+            BitSet checked = (BitSet) this.checked.clone();
+            checked.andNot(newer.unchecked);
+            checked.or(newer.checked);
+
+            BitSet unchecked = (BitSet) this.unchecked.clone();
+            unchecked.andNot(newer.checked);
+            unchecked.or(newer.unchecked);
+            return new Changes(checked, unchecked);
+        }
+
+        private void applyTo(BitSet bits) {
+            bits.andNot(unchecked);
+            bits.or(checked);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.aklaa.api.services.implementation;
+
+import com.aklaa.api.config.GroceryListPartitioning;
+import com.aklaa.api.dao.GroceryListRepository;
+import com.aklaa.api.services.contract.GroceryListArchiveService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Removes grocery lists, and their items, created before a cutoff.
+ * <p>
+ * The nightly run first archives expired lists to object storage when {@code grocerylists.archive.enabled}
+ * is set, and skips the purge when not every list could be archived, so nothing is lost.
+ * </p>
+ * <p>
+ * When the tables are partitioned by month, every month that ended a day or more before the cutoff is
+ * dropped as a whole; the day of margin absorbs time zone differences in the stored timestamps. Items that
+ * were added to those lists in a later month are deleted by list id, in chunks, before a month of lists is
+ * dropped. What is left
+ * before the cutoff, or everything on an unpartitioned database, is deleted in chunks of
+ * {@code grocerylists.retention.chunk-size} lists, each chunk in its own short transaction.
+ * </p>
+ * <p>
+ * Publishes {@code grocerylists.retention.purged} (rows, by table and strategy) and
+ * {@code grocerylists.retention.duration} (by strategy).
+ * </p>
+ */
+@Slf4j
+@Component
+public class GroceryListRetention {
+
+    static final String PARTITION_DROP = "partition-drop";
+    static final String CHUNKED_DELETE = "chunked-delete";
+
+    private final GroceryListRepository groceryListRepository;
+    private final GroceryListPartitioning partitioning;
+    private final GroceryListArchiveService groceryListArchiveService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int chunkSize;
+    private final boolean archive;
+
+    public GroceryListRetention(
+            GroceryListRepository groceryListRepository,
+            GroceryListPartitioning partitioning,
+            GroceryListArchiveService groceryListArchiveService,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${grocerylists.retention.chunk-size:500}") int chunkSize,
+            @Value("${grocerylists.archive.enabled:true}") boolean archive
+    ) {
+        this.groceryListRepository = groceryListRepository;
+        this.partitioning = partitioning;
+        this.groceryListArchiveService = groceryListArchiveService;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.archive = archive;
+    }
+
+    @Scheduled(cron = "0 0 3 * * *", zone = "Europe/Brussels")
+    public void deleteGroceryListsAfter1Month() {
+        OffsetDateTime cutoff = OffsetDateTime.now(ZoneOffset.UTC).minusMonths(1);
+        if (archive && !groceryListArchiveService.archiveCreatedBefore(cutoff)) {
+            log.warn("Not every expired grocery list could be archived, skipping the purge until the next run");
+            return;
+        }
+        purgeCreatedBefore(cutoff);
+    }
+
+    public void purgeCreatedBefore(OffsetDateTime cutoff) {
+        if (partitioning.isEnabled()) {
+            timed(PARTITION_DROP, () -> dropPartitions(cutoff));
+            partitioning.addUpcomingPartitions();
+        }
+        timed(CHUNKED_DELETE, () -> deleteInChunks(cutoff));
+    }
+
+    private void dropPartitions(OffsetDateTime cutoff) {
+        LocalDateTime margin = cutoff.withOffsetSameInstant(ZoneOffset.UTC).toLocalDateTime().minusDays(1);
+        for (String partition : partitioning.partitionsBefore(GroceryListPartitioning.ITEMS_TABLE, margin)) {
+            dropPartition(GroceryListPartitioning.ITEMS_TABLE, partition);
+        }
+        for (String partition : partitioning.partitionsBefore(GroceryListPartitioning.LISTS_TABLE, margin)) {
+            deleteLaterItemsOfLists(partition);
+            dropPartition(GroceryListPartitioning.LISTS_TABLE, partition);
+        }
+    }
+
+    private void dropPartition(String table, String partition) {
+        long rows = partitioning.countRows(table, partition);
+        partitioning.drop(table, partition);
+        purged(table, PARTITION_DROP, rows);
+        log.info("Dropped partition {} of {} with {} rows", partition, table, rows);
+    }
+
+    /**
+     * Deletes the items that are left of the lists in a partition, which were added in a later month than the list.
+     */
+    private void deleteLaterItemsOfLists(String partition) {
+        long items = 0;
+        List<Long> ids;
+        long after = 0;
+        do {
+            ids = partitioning.findListIds(partition, after, chunkSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            List<Long> chunk = ids;
+            items += transactionTemplate.execute(status -> groceryListRepository.deleteItemsOfLists(chunk));
+            after = ids.get(ids.size() - 1);
+        } while (ids.size() == chunkSize);
+
+        purged(GroceryListPartitioning.ITEMS_TABLE, PARTITION_DROP, items);
+        if (items > 0) {
+            log.info("Deleted {} items added after the month of the grocery lists in partition {}", items, partition);
+        }
+    }
+
+    private void deleteInChunks(OffsetDateTime cutoff) {
+        long lists = 0;
+        long items = 0;
+        List<Long> ids;
+        do {
+            ids = groceryListRepository.findIdsCreatedBefore(cutoff, PageRequest.of(0, chunkSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            List<Long> chunk = ids;
+            int[] deleted = transactionTemplate.execute(status -> new int[]{
+                    groceryListRepository.deleteItemsOfLists(chunk),
+                    groceryListRepository.deleteAllByIdIn(chunk)
+            });
+            items += deleted[0];
+            lists += deleted[1];
+        } while (ids.size() == chunkSize);
+
+        purged(GroceryListPartitioning.ITEMS_TABLE, CHUNKED_DELETE, items);
+        purged(GroceryListPartitioning.LISTS_TABLE, CHUNKED_DELETE, lists);
+        if (lists > 0) {
+            log.info("Deleted {} grocery lists with {} items created before {}", lists, items, cutoff);
+        }
+    }
+
+    private void purged(String table, String strategy, long rows) {
+        meterRegistry.counter("grocerylists.retention.purged", "table", table, "strategy", strategy).increment(rows);
+    }
+
+    private void timed(String strategy, Runnable purge) {
+        Timer.builder("grocerylists.retention.duration")
+                .description("Time taken to remove expired grocery lists")
+                .tag("strategy", strategy)
+                .register(meterRegistry)
+                .record(purge);
+    }
+}
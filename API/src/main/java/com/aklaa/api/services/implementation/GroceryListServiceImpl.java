@@ -1,26 +1,31 @@
 package com.aklaa.api.services.implementation;
 
+import com.aklaa.api.config.security.AuthenticatedUser;
 import com.aklaa.api.dao.DishRepository;
+import com.aklaa.api.dao.GroceryListItemSlot;
 import com.aklaa.api.dao.GroceryListRepository;
 import com.aklaa.api.dao.IngredientRepository;
 import com.aklaa.api.dtos.request.CartDishRequestDTO;
+import com.aklaa.api.dtos.request.GroceryListCheckRequestDTO;
 import com.aklaa.api.dtos.request.GroceryListIngredientListRequestDTO;
+import com.aklaa.api.dtos.request.GroceryListItemsPatchRequestDTO;
 import com.aklaa.api.dtos.response.*;
+import com.aklaa.api.exceptions.EmptyGroceryListException;
+import com.aklaa.api.exceptions.InvalidGroceryListPatchException;
 import com.aklaa.api.mapper.DishMapper;
 import com.aklaa.api.mapper.GroceryListMapper;
+import com.aklaa.api.mapper.IngredientMapper;
 import com.aklaa.api.model.*;
 import com.aklaa.api.services.contract.GroceryListService;
-import jakarta.servlet.http.HttpSession;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -34,19 +39,51 @@ public class GroceryListServiceImpl implements GroceryListService {
     private final IngredientRepository ingredientRepository;
     private final GroceryListRepository groceryListRepository;
     private final GroceryListMapper groceryListMapper;
+    private final GroceryListAggregator groceryListAggregator;
+    private final IngredientMapper ingredientMapper;
+    private final GroceryListCheckBuffer groceryListCheckBuffer;
 
-    public List<CartDishRequestDTO> getCart(HttpSession session) {
-        String CART_KEY = "cart";
-        Object sessionCart = session.getAttribute(CART_KEY);
-        if (sessionCart instanceof List<?> rawList) {
-            boolean valid = rawList.stream().allMatch(CartDishRequestDTO.class::isInstance);
-            if (valid) {
-                return (List<CartDishRequestDTO>) rawList;
-            }
+    @Override
+    @Transactional(readOnly = true)
+    public List<GroceryListIngredientResponseDTO> previewCart(List<CartDishRequestDTO> cart) {
+        Map<Long, BigDecimal> totals = groceryListAggregator.aggregate(cart);
+
+        return ingredientRepository.findAllById(totals.keySet()).stream()
+                .sorted(Comparator.comparing(Ingredient::getCategory, Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(Ingredient::getName))
+                .map(ingredient -> GroceryListIngredientResponseDTO.builder()
+                        .ingredient(ingredientMapper.toResponseDTO(ingredient))
+                        .quantity(totals.get(ingredient.getId()))
+                        .build())
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public GroceryListResponseDTO createFromCart(List<CartDishRequestDTO> cart, OffsetDateTime startOfWeek, OffsetDateTime endOfWeek, User user) {
+        Map<Long, BigDecimal> totals = groceryListAggregator.aggregate(cart);
+        if (totals.isEmpty()) {
+            throw new EmptyGroceryListException("None of the dishes in the cart have ingredients");
         }
-        List<CartDishRequestDTO> newCart = new ArrayList<>();
-        session.setAttribute(CART_KEY, newCart);
-        return newCart;
+
+        GroceryList groceryList = GroceryList.builder()
+                .startOfWeek(startOfWeek)
+                .endOfWeek(endOfWeek)
+                .user(user)
+                .build();
+
+        totals.forEach((ingredientId, quantity) -> groceryList.getGroceryListIngredients().add(
+                GroceryListIngredient.builder()
+                        .id(new GroceryListIngredientKey(null, ingredientId))
+                        .groceryList(groceryList)
+                        .ingredient(ingredientRepository.getReferenceById(ingredientId))
+                        .quantity(quantity)
+                        .slot(groceryList.getGroceryListIngredients().size())
+                        .build()
+        ));
+        groceryList.setNextSlot(groceryList.getGroceryListIngredients().size());
+
+        return groceryListMapper.toResponseDTO(groceryListRepository.save(groceryList));
     }
 
     @Override
@@ -84,42 +121,18 @@ public class GroceryListServiceImpl implements GroceryListService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public GroceryListIngredientListResponseDTO getIngredientOfGroceryList(Long id, User user, Pageable pageable) {
         return groceryListRepository.findByIdAndUser(id, user)
                 .map(groceryList -> {
-                    List<GroceryListIngredient> allItems = groceryList.getGroceryListIngredients()
-                            .stream()
-                            .sorted(
-                                    Comparator.comparing((GroceryListIngredient item) ->
-                                                    item.getIngredient().getCategory())
-                                            .thenComparing(item ->
-                                                    item.getIngredient().getName())
-                            )
-                            .toList();
-
-                    List<GroceryListIngredientResponseDTO> pagedIngredients = allItems.stream()
-                            .skip(pageable.getOffset())
-                            .limit(pageable.getPageSize())
-                            .map(item -> GroceryListIngredientResponseDTO.builder()
-                                    .ingredient(IngredientResponseDTO.builder()
-                                            .id(item.getIngredient().getId())
-                                            .name(item.getIngredient().getName())
-                                            .description(item.getIngredient().getDescription())
-                                            .category(item.getIngredient().getCategory())
-                                            .unit(item.getIngredient().getUnit())
-                                            .build())
-                                    .quantity(item.getQuantity())
-                                    .build()
-                            )
-                            .collect(Collectors.toList());
-
-                    long totalElements = allItems.size();
-                    int totalPages = (int) Math.ceil((double) totalElements / pageable.getPageSize());
+                    BitSet checkedItems = groceryListCheckBuffer.checkedItems(groceryList.getId(), groceryList.getCheckedItems());
+                    Page<GroceryListIngredientResponseDTO> page = groceryListRepository.findItems(groceryList.getId(), pageable)
+                            .map(item -> groceryListMapper.toIngredientResponseDTO(item, checkedItems));
 
                     return GroceryListIngredientListResponseDTO.builder()
-                            .ingredients(pagedIngredients)
-                            .totalElements(totalElements)
-                            .totalPages(totalPages)
+                            .ingredients(page.getContent())
+                            .totalElements(page.getTotalElements())
+                            .totalPages(page.getTotalPages())
                             .startOfWeek(groceryList.getStartOfWeek() != null ? groceryList.getStartOfWeek().toLocalDate() : null)
                             .endOfWeek(groceryList.getEndOfWeek() != null ? groceryList.getEndOfWeek().toLocalDate() : null)
                             .build();
@@ -130,35 +143,20 @@ public class GroceryListServiceImpl implements GroceryListService {
                         .totalPages(0)
                         .build());
     }
+
     @Override
+    @Transactional(readOnly = true)
     public List<IngredientResponseDTO> getIngredientOfGroceryList(Long id, User user) {
         return groceryListRepository.findByIdAndUser(id, user)
-                .map(groceryList ->
-                        groceryList.getGroceryListIngredients()
-                                .stream()
-                                .sorted(
-                                        Comparator.comparing(
-                                                (GroceryListIngredient item) ->
-                                                        item.getIngredient().getCategory()
-                                        ).thenComparing(
-                                                item -> item.getIngredient().getName()
-                                        )
-                                )
-                                .map(item -> IngredientResponseDTO.builder()
-                                        .id(item.getIngredient().getId())
-                                        .name(item.getIngredient().getName())
-                                        .description(item.getIngredient().getDescription())
-                                        .category(item.getIngredient().getCategory())
-                                        .unit(item.getIngredient().getUnit())
-                                        .build()
-                                )
-                                .toList()
-                )
+                .map(groceryList -> groceryListRepository.findItems(List.of(groceryList.getId()))
+                        .stream()
+                        .map(groceryListMapper::toIngredientDTO)
+                        .toList())
                 .orElse(List.of());
     }
 
     @Override
-    public GroceryListResponseDTO delete(Long id, User actionTaker) {
+    public GroceryListResponseDTO delete(Long id, AuthenticatedUser actionTaker) {
         GroceryList list = groceryListRepository.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("Grocery list not found"));
 
@@ -172,6 +170,7 @@ public class GroceryListServiceImpl implements GroceryListService {
     }
 
     @Override
+    @Transactional
     public void updateIngredientsOfGroceryList(Long listId, GroceryListIngredientListRequestDTO updatedList, User user) {
         groceryListRepository.findByIdAndUser(listId, user).ifPresent(groceryList -> {
 
@@ -181,26 +180,22 @@ public class GroceryListServiceImpl implements GroceryListService {
             List<GroceryListIngredient> existingIngredients =
                     groceryList.getGroceryListIngredients();
 
-            List<GroceryListIngredient> ingredientsToRemove = new ArrayList<>();
-
-            for (GroceryListIngredient existingItem : existingIngredients) {
-                Long ingredientId = existingItem.getIngredient().getId();
-
-                if (updatedQuantities.containsKey(ingredientId)) {
-                    existingItem.setQuantity(updatedQuantities.get(ingredientId));
-                    updatedQuantities.remove(ingredientId);
-                } else {
-                    ingredientsToRemove.add(existingItem);
+            existingIngredients.removeIf(existingItem -> {
+                BigDecimal quantity = updatedQuantities.remove(existingItem.getIngredient().getId());
+                if (quantity == null) {
+                    return true;
                 }
-            }
-
-            existingIngredients.removeAll(ingredientsToRemove);
+                existingItem.setQuantity(quantity);
+                return false;
+            });
 
             if (!updatedQuantities.isEmpty()) {
                 Map<Long, Ingredient> ingredientsMap = ingredientRepository
                         .findAllById(updatedQuantities.keySet())
                         .stream()
                         .collect(Collectors.toMap(Ingredient::getId, Function.identity()));
+                int nextSlot = groceryListRepository.allocateSlots(groceryList.getId(), ingredientsMap.size());
+                List<Integer> newSlots = new ArrayList<>();
 
                 updatedQuantities.forEach((ingredientId, quantity) -> {
                     Ingredient ingredient = ingredientsMap.get(ingredientId);
@@ -213,6 +208,8 @@ public class GroceryListServiceImpl implements GroceryListService {
                         newItem.setGroceryList(groceryList);
                         newItem.setIngredient(ingredient);
                         newItem.setQuantity(quantity);
+                        newItem.setSlot(nextSlot + newSlots.size());
+                        newSlots.add(newItem.getSlot());
 
                         existingIngredients.add(newItem);
                     }
@@ -223,11 +220,86 @@ public class GroceryListServiceImpl implements GroceryListService {
         });
     }
 
-    @Scheduled(cron = "0 0 3 * * *", zone = "Europe/Brussels")
+    @Override
     @Transactional
-    public void deleteGroceryListsAfter1Month() {
-        groceryListRepository.deleteByCreatedAtBefore(
-                OffsetDateTime.now(ZoneOffset.UTC).minusMonths(1)
-        );
+    public boolean patchIngredientsOfGroceryList(Long id, GroceryListItemsPatchRequestDTO patch, User user) {
+        if (!groceryListRepository.existsByIdAndUser(id, user)) {
+            return false;
+        }
+
+        Map<Long, BigDecimal> add = patch.getAdd() != null ? patch.getAdd() : Map.of();
+        Map<Long, BigDecimal> update = patch.getUpdate() != null ? patch.getUpdate() : Map.of();
+        Set<Long> remove = patch.getRemove() != null ? patch.getRemove() : Set.of();
+
+        Set<Long> touched = new HashSet<>();
+        for (Long ingredientId : concat(add.keySet(), update.keySet(), remove)) {
+            if (!touched.add(ingredientId)) {
+                throw new InvalidGroceryListPatchException("Ingredient " + ingredientId + " appears in more than one operation");
+            }
+        }
+
+        Set<Long> onList = groceryListRepository.findItemIngredientIds(id, touched);
+        for (Long ingredientId : add.keySet()) {
+            if (onList.contains(ingredientId)) {
+                throw new InvalidGroceryListPatchException("Ingredient " + ingredientId + " is already on the grocery list");
+            }
+        }
+        for (Long ingredientId : concat(update.keySet(), remove)) {
+            if (!onList.contains(ingredientId)) {
+                throw new InvalidGroceryListPatchException("Ingredient " + ingredientId + " is not on the grocery list");
+            }
+        }
+        if (!add.isEmpty() && ingredientRepository.countByUserAndIdIn(user, add.keySet()) != add.size()) {
+            throw new InvalidGroceryListPatchException("Only your own existing ingredients can be added");
+        }
+
+        if (!remove.isEmpty()) {
+            groceryListRepository.deleteItems(id, remove);
+        }
+        update.forEach((ingredientId, quantity) -> groceryListRepository.updateItemQuantity(id, ingredientId, quantity));
+        if (!add.isEmpty()) {
+            groceryListRepository.addItems(id, add);
+        }
+        return true;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean checkIngredientsOfGroceryList(Long id, GroceryListCheckRequestDTO request, User user) {
+        if (!groceryListRepository.existsByIdAndUser(id, user)) {
+            return false;
+        }
+
+        Map<Long, Integer> slots = groceryListRepository.findItemSlots(id, request.getChecked().keySet()).stream()
+                .filter(item -> item.slot() != null)
+                .collect(Collectors.toMap(GroceryListItemSlot::ingredientId, GroceryListItemSlot::slot));
+
+        Map<Integer, Boolean> states = new HashMap<>();
+        request.getChecked().forEach((ingredientId, checked) -> {
+            Integer slot = slots.get(ingredientId);
+            if (slot == null) {
+                throw new InvalidGroceryListPatchException("Ingredient " + ingredientId + " is not on the grocery list");
+            }
+            if (slot >= GroceryList.MAX_CHECKABLE_ITEMS) {
+                throw new InvalidGroceryListPatchException("Ingredient " + ingredientId + " cannot be checked off: only the first "
+                        + GroceryList.MAX_CHECKABLE_ITEMS + " items ever added to a grocery list can be checked off");
+            }
+            states.put(slot, checked);
+        });
+
+        groceryListCheckBuffer.record(id, states);
+        return true;
+    }
+
+    private static List<Long> concat(Collection<Long> first, Collection<Long> second) {
+        List<Long> all = new ArrayList<>(first);
+        all.addAll(second);
+        return all;
+    }
+
+    private static List<Long> concat(Collection<Long> first, Collection<Long> second, Collection<Long> third) {
+        List<Long> all = concat(first, second);
+        all.addAll(third);
+        return all;
     }
 }
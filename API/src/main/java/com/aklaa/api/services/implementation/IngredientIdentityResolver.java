@@ -0,0 +1,93 @@
+package com.aklaa.api.services.implementation;
+
+import com.aklaa.api.dao.IngredientRepository;
+import com.aklaa.api.model.Ingredient;
+import com.aklaa.api.model.User;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.function.IntConsumer;
+
+/**
+ * Finds or creates a user's ingredients by identity key, with one lookup per batch.
+ * <p>
+ * Lookups and inserts run in their own transaction. When a concurrent import inserts the same
+ * ingredient first, the unique (user_id, identity_key) index rejects the duplicate and the batch is
+ * resolved again, now finding the other transaction's row.
+ * </p>
+ */
+@Component
+public class IngredientIdentityResolver {
+
+    private final IngredientRepository ingredientRepository;
+    private final TransactionTemplate requiresNew;
+
+    public IngredientIdentityResolver(IngredientRepository ingredientRepository, PlatformTransactionManager transactionManager) {
+        this.ingredientRepository = ingredientRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Resolves the ingredients in a transaction of its own, which takes a connection of its own even when the caller
+     * is in a transaction already. Call it before opening the transaction that uses the result, so a caller never
+     * holds two connections at the same time and a busy pool cannot run out while every holder waits for a second one.
+     *
+     * @param wanted unsaved ingredients describing what is needed; they are used as templates and never persisted themselves
+     * @param user the owner of the ingredients
+     * @return the persisted ingredients keyed by {@link Ingredient#keyOf identity key}, detached from the caller's persistence context
+     */
+    public Map<String, Ingredient> resolve(Collection<Ingredient> wanted, User user) {
+        return resolve(wanted, user, created -> {});
+    }
+
+    /**
+     * @param created called with the number of ingredients that did not exist yet, once they are committed
+     * @see #resolve(Collection, User)
+     */
+    public Map<String, Ingredient> resolve(Collection<Ingredient> wanted, User user, IntConsumer created) {
+        Map<String, Ingredient> byKey = new LinkedHashMap<>();
+        wanted.forEach(ingredient -> byKey.putIfAbsent(
+                Ingredient.keyOf(ingredient.getName(), ingredient.getUnit(), ingredient.getDescription()), ingredient));
+
+        if (byKey.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        List<Ingredient> inserted = new ArrayList<>();
+        Map<String, Ingredient> resolved;
+        try {
+            resolved = requiresNew.execute(status -> findOrInsert(byKey, user, inserted));
+        } catch (DataIntegrityViolationException e) {
+            inserted.clear();
+            resolved = requiresNew.execute(status -> findOrInsert(byKey, user, inserted));
+        }
+        created.accept(inserted.size());
+        return resolved;
+    }
+
+    private Map<String, Ingredient> findOrInsert(Map<String, Ingredient> wanted, User user, List<Ingredient> inserted) {
+        Map<String, Ingredient> resolved = new HashMap<>();
+        ingredientRepository.findAllByUserAndIdentityKeyIn(user, wanted.keySet())
+                .forEach(ingredient -> resolved.put(ingredient.getIdentityKey(), ingredient));
+
+        List<Ingredient> missing = wanted.entrySet().stream()
+                .filter(entry -> !resolved.containsKey(entry.getKey()))
+                .map(entry -> Ingredient.builder()
+                        .name(entry.getValue().getName())
+                        .description(entry.getValue().getDescription())
+                        .category(entry.getValue().getCategory())
+                        .unit(entry.getValue().getUnit())
+                        .user(user)
+                        .build())
+                .toList();
+
+        inserted.addAll(ingredientRepository.saveAllAndFlush(missing));
+        inserted.forEach(ingredient -> resolved.put(ingredient.getIdentityKey(), ingredient));
+        return resolved;
+    }
+}
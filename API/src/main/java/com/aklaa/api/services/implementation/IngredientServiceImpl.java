@@ -1,5 +1,8 @@
 package com.aklaa.api.services.implementation;
 
+import com.aklaa.api.config.FullTextFunctionContributor;
+import com.aklaa.api.config.FullTextSearch;
+import com.aklaa.api.dao.CursorPage;
 import com.aklaa.api.dao.IngredientRepository;
 import com.aklaa.api.dtos.request.IngredientRequestDTO;
 import com.aklaa.api.dtos.response.IngredientListResponseDTO;
@@ -9,6 +12,7 @@ import com.aklaa.api.model.Ingredient;
 import com.aklaa.api.model.User;
 import com.aklaa.api.model.enums.IngredientCategory;
 import com.aklaa.api.services.contract.IngredientService;
+import jakarta.persistence.criteria.Expression;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -24,8 +28,11 @@ import java.util.Objects;
 @RequiredArgsConstructor
 public class IngredientServiceImpl implements IngredientService {
 
+    private static final List<String> CURSOR_KEYS = List.of("category", "name", "id");
+
     private final IngredientRepository ingredientRepository;
     private final IngredientMapper ingredientMapper;
+    private final FullTextSearch fullTextSearch;
 
     @Override
     public IngredientResponseDTO create(IngredientRequestDTO ingredientRequestDTO,  User user) {
@@ -40,7 +47,7 @@ public class IngredientServiceImpl implements IngredientService {
         Ingredient ingredient = ingredientRepository.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("Ingredient not found"));
 
-        if(!ingredient.getUser().equals(user)){
+        if(!ingredient.getUser().getId().equals(user.getId())){
             throw new AccessDeniedException("Access denied");
         }
 
@@ -57,7 +64,7 @@ public class IngredientServiceImpl implements IngredientService {
         Ingredient ingredient = ingredientRepository.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("Ingredient not found"));
 
-        if(!ingredient.getUser().equals(user)){
+        if(!ingredient.getUser().getId().equals(user.getId())){
             throw new AccessDeniedException("Access denied");
         }
 
@@ -65,7 +72,7 @@ public class IngredientServiceImpl implements IngredientService {
         return ingredientMapper.toResponseDTO(ingredient);
     }
     @Override
-    public IngredientListResponseDTO filter(String search, List<String> categories, Pageable pageable, User user) {
+    public IngredientListResponseDTO filter(String search, List<String> categories, Pageable pageable, String cursor, User user) {
         List<IngredientCategory> categoryEnums = null;
         if (categories != null && !categories.isEmpty()) {
             categoryEnums = categories.stream()
@@ -84,16 +91,21 @@ public class IngredientServiceImpl implements IngredientService {
                 .and(hasCategoriesSpec(categoryEnums))
                 .and(userSpec(user));
 
-        Page<Ingredient> ingredientsPage = ingredientRepository.findAll(spec, pageable);
+        if (cursor != null) {
+            CursorPage<Ingredient> ingredientsPage = ingredientRepository.findAllAfter(spec, CURSOR_KEYS, cursor, pageable.getPageSize());
+
+            return IngredientListResponseDTO.builder()
+                    .ingredients(ingredientsPage.content().stream().map(ingredientMapper::toResponseDTO).toList())
+                    .totalElements(-1)
+                    .totalPages(-1)
+                    .nextCursor(ingredientsPage.nextCursor())
+                    .build();
+        }
+
+        Page<Ingredient> ingredientsPage = ingredientRepository.findAllRanked(spec, pageable);
 
         List<IngredientResponseDTO> ingredientDTOs = ingredientsPage.getContent().stream()
-                .map(ingredient -> IngredientResponseDTO.builder()
-                        .id(ingredient.getId())
-                        .name(ingredient.getName())
-                        .description(ingredient.getDescription())
-                        .category(ingredient.getCategory())
-                        .unit(ingredient.getUnit())
-                        .build())
+                .map(ingredientMapper::toResponseDTO)
                 .toList();
 
         return IngredientListResponseDTO.builder()
@@ -108,7 +120,7 @@ public class IngredientServiceImpl implements IngredientService {
         Ingredient ingredient = ingredientRepository.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("Ingredient not found"));
 
-        if(!ingredient.getUser().equals(user)){
+        if(!ingredient.getUser().getId().equals(user.getId())){
             throw new AccessDeniedException("Access denied");
         }
         return ingredientMapper.toResponseDTO(ingredient);
@@ -140,6 +152,18 @@ public class IngredientServiceImpl implements IngredientService {
     }
 
     private Specification<Ingredient> searchSpec(String searchTerm) {
+        if (fullTextSearch.appliesTo(searchTerm)) {
+            return (root, query, builder) -> {
+                assert query != null;
+                Expression<Double> relevance = builder.function(
+                        FullTextFunctionContributor.MATCH_AGAINST_2, Double.class,
+                        root.get("name"), root.get("description"), builder.literal(FullTextSearch.phrase(searchTerm))
+                );
+                query.orderBy(builder.desc(relevance));
+                return builder.greaterThan(relevance, 0.0);
+            };
+        }
+
         return (root, query, builder) -> {
             if (searchTerm == null || searchTerm.isEmpty()) {
                 return builder.conjunction();
@@ -2,16 +2,31 @@ package com.aklaa.api.services.implementation;
 
 import com.aklaa.api.services.contract.MinioService;
 import io.minio.*;
+import io.minio.http.Method;
+import io.minio.messages.Item;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class MinioServiceImpl implements MinioService {
 
+    // The only objects that are public; everything else in the bucket belongs to a single user.
+    private static final String UPLOADS_PREFIX = "uploads/";
+
+    // Smallest part size MinIO accepts for uploads of unknown size.
+    private static final long PART_SIZE = 5L * 1024 * 1024;
+
     private final MinioClient minioClient;
+    // Signs links for the external endpoint. It is never used to connect, so its region is set up front.
+    private final MinioClient presigningClient;
     private final String bucketName;
     private final String url;
 
@@ -20,7 +35,8 @@ public class MinioServiceImpl implements MinioService {
             @Value("${minio.access-key}") String accessKey,
             @Value("${minio.secret-key}") String secretKey,
             @Value("${minio.bucket.name}") String bucketName,
-            @Value("${minio.endpoint.extern}") String url
+            @Value("${minio.endpoint.extern}") String url,
+            @Value("${minio.region:us-east-1}") String region
     ) throws Exception {
         this.bucketName = bucketName;
         this.url = url;
@@ -29,6 +45,11 @@ public class MinioServiceImpl implements MinioService {
                 .endpoint(endpoint)
                 .credentials(accessKey, secretKey)
                 .build();
+        this.presigningClient = MinioClient.builder()
+                .endpoint(url)
+                .credentials(accessKey, secretKey)
+                .region(region)
+                .build();
 
         boolean found = minioClient.bucketExists(BucketExistsArgs.builder().bucket(bucketName).build());
         if (!found) {
@@ -41,7 +62,7 @@ public class MinioServiceImpl implements MinioService {
                 "    \"Effect\": \"Allow\",\n" +
                 "    \"Principal\": {\"AWS\": [\"*\"]},\n" +
                 "    \"Action\": [\"s3:GetObject\"],\n" +
-                "    \"Resource\": [\"arn:aws:s3:::" + bucketName + "/*\"]\n" +
+                "    \"Resource\": [\"arn:aws:s3:::" + bucketName + "/uploads/*\"]\n" +
                 "  }]\n" +
                 "}";
         minioClient.setBucketPolicy(SetBucketPolicyArgs.builder()
@@ -67,4 +88,72 @@ public class MinioServiceImpl implements MinioService {
 
         return url + "/" + bucketName + "/" + objectName;
     }
-}
\ No newline at end of file
+
+    @Override
+    public void putObject(String objectName, InputStream stream, long size, String contentType) throws Exception {
+        minioClient.putObject(
+                PutObjectArgs.builder()
+                        .bucket(bucketName)
+                        .object(objectName)
+                        .stream(stream, size, size < 0 ? PART_SIZE : -1)
+                        .contentType(contentType)
+                        .build()
+        );
+    }
+
+    @Override
+    public InputStream getObject(String objectName) throws Exception {
+        return minioClient.getObject(GetObjectArgs.builder().bucket(bucketName).object(objectName).build());
+    }
+
+    @Override
+    public List<String> listObjects(String prefix) throws Exception {
+        List<String> names = new ArrayList<>();
+        for (Result<Item> result : minioClient.listObjects(ListObjectsArgs.builder()
+                .bucket(bucketName)
+                .prefix(prefix)
+                .recursive(true)
+                .build())) {
+            names.add(result.get().objectName());
+        }
+        return names;
+    }
+
+    @Override
+    public void removeObject(String objectName) throws Exception {
+        minioClient.removeObject(RemoveObjectArgs.builder().bucket(bucketName).object(objectName).build());
+    }
+
+    @Override
+    public String getPresignedUrl(String objectName, Duration expiry) throws Exception {
+        return presigningClient.getPresignedObjectUrl(GetPresignedObjectUrlArgs.builder()
+                .method(Method.GET)
+                .bucket(bucketName)
+                .object(objectName)
+                .expiry((int) expiry.toSeconds(), TimeUnit.SECONDS)
+                .build());
+    }
+
+    @Override
+    public Optional<String> findObjectName(String url) {
+        String prefix = bucketUrl();
+        if (url == null || !url.startsWith(prefix)) {
+            return Optional.empty();
+        }
+        String objectName = url.substring(prefix.length());
+        if (!objectName.startsWith(UPLOADS_PREFIX) || objectName.length() == UPLOADS_PREFIX.length()
+                || objectName.contains("..")) {
+            return Optional.empty();
+        }
+        return Optional.of(objectName);
+    }
+
+    @Override
+    public boolean isPublicUrl(String url) {
+        return url == null || !url.startsWith(bucketUrl()) || findObjectName(url).isPresent();
+    }
+
+    private String bucketUrl() {
+        return url + "/" + bucketName + "/";
+    }
+}
@@ -0,0 +1,313 @@
+package com.aklaa.api.services.implementation;
+
+import com.aklaa.api.dao.DishRepository;
+import com.aklaa.api.dao.UserDataExportJobRepository;
+import com.aklaa.api.dtos.response.UserDataExportJobDTO;
+import com.aklaa.api.exceptions.ExportNotReadyException;
+import com.aklaa.api.exceptions.TooManyRequestsException;
+import com.aklaa.api.model.User;
+import com.aklaa.api.model.UserDataExportJob;
+import com.aklaa.api.model.enums.ExportJobStatus;
+import com.aklaa.api.services.contract.ExportUserDataService;
+import com.aklaa.api.services.contract.MinioService;
+import com.aklaa.api.services.contract.UserDataExportJobService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+@Slf4j
+@Service
+public class UserDataExportJobServiceImpl implements UserDataExportJobService {
+
+    static final String PREFIX = "exports/users/";
+    static final String DATA_ENTRY = "data.json";
+    static final String IMAGES_DIRECTORY = "images/";
+    private static final String CONTENT_TYPE = "application/zip";
+    private static final Set<ExportJobStatus> UNFINISHED = EnumSet.of(ExportJobStatus.QUEUED, ExportJobStatus.RUNNING);
+
+    private final UserDataExportJobRepository jobRepository;
+    private final DishRepository dishRepository;
+    private final ExportUserDataService exportUserDataService;
+    private final MinioService minioService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor executor;
+    private final Duration queueTimeout;
+    private final Duration timeout;
+    private final Duration retention;
+    private final Duration linkExpiry;
+    private final long retryAfterSeconds;
+
+    public UserDataExportJobServiceImpl(
+            UserDataExportJobRepository jobRepository,
+            DishRepository dishRepository,
+            ExportUserDataService exportUserDataService,
+            MinioService minioService,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${users.export.jobs.pool-size:2}") int poolSize,
+            @Value("${users.export.jobs.queue-capacity:20}") int queueCapacity,
+            @Value("${users.export.jobs.queue-timeout:6h}") Duration queueTimeout,
+            @Value("${users.export.jobs.timeout:1h}") Duration timeout,
+            @Value("${users.export.jobs.retention:7d}") Duration retention,
+            @Value("${users.export.jobs.link-expiry:15m}") Duration linkExpiry,
+            @Value("${users.export.jobs.retry-after-seconds:60}") long retryAfterSeconds
+    ) {
+        this.jobRepository = jobRepository;
+        this.dishRepository = dishRepository;
+        this.exportUserDataService = exportUserDataService;
+        this.minioService = minioService;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.queueTimeout = queueTimeout;
+        this.timeout = timeout;
+        this.retention = retention;
+        this.linkExpiry = linkExpiry;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("user-export-"),
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        Gauge.builder("users.export.jobs.queue", executor, e -> e.getQueue().size())
+                .description("Export jobs waiting for a worker on this node")
+                .register(meterRegistry);
+        Gauge.builder("users.export.jobs.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Export jobs currently running on this node")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public UserDataExportJobDTO submit(User user) {
+        Optional<UserDataExportJob> unfinished = jobRepository
+                .findFirstByUserIdAndStatusInOrderByCreatedAtDesc(user.getId(), UNFINISHED)
+                .filter(job -> !expireIfStale(job));
+        if (unfinished.isPresent()) {
+            return toDTO(unfinished.get());
+        }
+
+        UserDataExportJob job = jobRepository.save(UserDataExportJob.builder()
+                .id(UUID.randomUUID().toString())
+                .status(ExportJobStatus.QUEUED)
+                .user(user)
+                .build());
+
+        try {
+            executor.execute(() -> run(job.getId(), user));
+        } catch (RejectedExecutionException e) {
+            jobRepository.deleteById(job.getId());
+            meterRegistry.counter("users.export.jobs.rejected").increment();
+            throw new TooManyRequestsException("Too many exports are in progress, please try again later.", retryAfterSeconds);
+        }
+
+        return toDTO(job);
+    }
+
+    @Override
+    public UserDataExportJobDTO get(String id, User user) {
+        UserDataExportJob job = find(id, user);
+        if (expireIfStale(job)) {
+            job = find(id, user);
+        }
+        return toDTO(job);
+    }
+
+    @Override
+    public String getDownloadUrl(String id, User user) throws Exception {
+        UserDataExportJob job = find(id, user);
+        if (job.getStatus() != ExportJobStatus.COMPLETED) {
+            throw new ExportNotReadyException("The export is " + job.getStatus().name().toLowerCase() + ", not completed");
+        }
+        return minioService.getPresignedUrl(job.getObjectName(), linkExpiry);
+    }
+
+    private UserDataExportJob find(String id, User user) {
+        return jobRepository.findByIdAndUserId(id, user.getId())
+                .orElseThrow(() -> new NoSuchElementException("Export not found"));
+    }
+
+    @Scheduled(cron = "0 30 3 * * *", zone = "Europe/Brussels")
+    public void deleteExpiredExports() throws Exception {
+        deleteExportsFinishedBefore(OffsetDateTime.now(ZoneOffset.UTC).minus(retention));
+    }
+
+    /**
+     * Removes the archives of jobs that finished before the cutoff, and those without a job, then the jobs.
+     */
+    void deleteExportsFinishedBefore(OffsetDateTime cutoff) throws Exception {
+        Map<String, String> objectNamesByJobId = new HashMap<>();
+        for (String objectName : minioService.listObjects(PREFIX)) {
+            String jobId = objectName.substring(objectName.lastIndexOf('/') + 1).replace(".zip", "");
+            objectNamesByJobId.put(jobId, objectName);
+        }
+        for (UserDataExportJob job : jobRepository.findAllById(objectNamesByJobId.keySet())) {
+            if (job.getCompletedAt() == null || !job.getCompletedAt().isBefore(cutoff)) {
+                objectNamesByJobId.remove(job.getId());
+            }
+        }
+        for (String objectName : objectNamesByJobId.values()) {
+            minioService.removeObject(objectName);
+        }
+
+        int jobs = transactionTemplate.execute(status -> jobRepository.deleteFinishedBefore(cutoff));
+        log.info("Deleted {} export archives and {} export jobs that finished before {}", objectNamesByJobId.size(), jobs, cutoff);
+    }
+
+    @EventListener
+    public void onUserDeletion(UserDeletionEvent event) {
+        try {
+            for (String objectName : minioService.listObjects(PREFIX + event.userId() + "/")) {
+                minioService.removeObject(objectName);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Could not delete the exports of user " + event.userId(), e);
+        }
+    }
+
+    /**
+     * Marks an unfinished job as failed when it waited too long to start, because its node stopped, or ran too
+     * long, because its node stopped or it hangs.
+     */
+    private boolean expireIfStale(UserDataExportJob job) {
+        if (job.getStatus().isFinished()) {
+            return false;
+        }
+        OffsetDateTime deadline = job.getStatus() == ExportJobStatus.RUNNING
+                ? job.getStartedAt().plus(timeout)
+                : job.getCreatedAt().plus(queueTimeout);
+        if (deadline.isAfter(OffsetDateTime.now(ZoneOffset.UTC))) {
+            return false;
+        }
+        fail(job.getId(), "The export did not finish in time", EnumSet.of(job.getStatus()));
+        return true;
+    }
+
+    private void run(String jobId, User user) {
+        long startedAt = System.nanoTime();
+        Path file = null;
+        try {
+            // A job that expired while it was queued stays failed.
+            if (transactionTemplate.execute(status -> jobRepository.start(jobId, OffsetDateTime.now(ZoneOffset.UTC))) == 0) {
+                log.info("Export job {} of user {} is no longer queued, skipping it", jobId, user.getId());
+                return;
+            }
+
+            file = Files.createTempFile("user-data-export-" + user.getId() + "-", ".zip");
+            try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+                zip.putNextEntry(new ZipEntry(DATA_ENTRY));
+                exportUserDataService.writeUserData(user, zip);
+                zip.closeEntry();
+                writeImages(user.getId(), zip);
+            }
+
+            String objectName = PREFIX + user.getId() + "/" + jobId + ".zip";
+            try (InputStream in = Files.newInputStream(file)) {
+                minioService.putObject(objectName, in, Files.size(file), CONTENT_TYPE);
+            }
+
+            // A job that expired or was deleted with its user while it ran does not come back; its archive goes.
+            if (transactionTemplate.execute(status ->
+                    jobRepository.complete(jobId, objectName, OffsetDateTime.now(ZoneOffset.UTC))) == 0) {
+                log.warn("Export job {} of user {} is no longer running, removing its archive", jobId, user.getId());
+                minioService.removeObject(objectName);
+                record(startedAt, "expired");
+                return;
+            }
+            record(startedAt, "completed");
+        } catch (Exception e) {
+            log.warn("Export job {} of user {} failed", jobId, user.getId(), e);
+            fail(jobId, "The export could not be created", UNFINISHED);
+            record(startedAt, "failed");
+        } finally {
+            if (file != null) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    log.warn("Could not delete temporary export file {}", file, e);
+                }
+            }
+        }
+    }
+
+    // Images are already compressed, so they are stored as they are. An image that can no longer be read is
+    // left out rather than failing the whole export.
+    private void writeImages(Long userId, ZipOutputStream zip) throws IOException {
+        zip.setLevel(Deflater.NO_COMPRESSION);
+        Set<String> entries = new HashSet<>();
+        for (String url : dishRepository.findImageUrlsByUserId(userId)) {
+            Optional<String> objectName = minioService.findObjectName(url);
+            if (objectName.isEmpty()) {
+                continue;
+            }
+            String entry = IMAGES_DIRECTORY + objectName.get().substring(objectName.get().lastIndexOf('/') + 1);
+            if (!entries.add(entry)) {
+                continue;
+            }
+
+            try (InputStream in = minioService.getObject(objectName.get())) {
+                zip.putNextEntry(new ZipEntry(entry));
+                in.transferTo(zip);
+                zip.closeEntry();
+            } catch (IOException e) {
+                throw e;
+            } catch (Exception e) {
+                log.warn("Could not add image {} to the export of user {}", objectName.get(), userId, e);
+            }
+        }
+    }
+
+    private void fail(String jobId, String error, Set<ExportJobStatus> statuses) {
+        transactionTemplate.executeWithoutResult(status ->
+                jobRepository.fail(jobId, error, OffsetDateTime.now(ZoneOffset.UTC), statuses));
+    }
+
+    private void record(long startedAt, String outcome) {
+        meterRegistry.timer("users.export.jobs.duration", "outcome", outcome)
+                .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+
+    private UserDataExportJobDTO toDTO(UserDataExportJob job) {
+        return UserDataExportJobDTO.builder()
+                .id(job.getId())
+                .status(job.getStatus())
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .completedAt(job.getCompletedAt())
+                .error(job.getError())
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,364 @@
+package com.aklaa.api.services.implementation;
+
+import com.aklaa.api.dao.DishRepository;
+import com.aklaa.api.dao.GroceryListRepository;
+import com.aklaa.api.dtos.response.*;
+import com.aklaa.api.mapper.DishIngredientMapper;
+import com.aklaa.api.mapper.DishMapper;
+import com.aklaa.api.mapper.IngredientMapper;
+import com.aklaa.api.model.*;
+import com.aklaa.api.services.contract.MinioService;
+import com.aklaa.api.services.contract.UserDataImportService;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+@Slf4j
+@Service
+public class UserDataImportServiceImpl implements UserDataImportService {
+
+    private static final byte[] ZIP_SIGNATURE = {'P', 'K', 3, 4};
+
+    private final ObjectReader reader;
+    private final Validator validator;
+    private final DishRepository dishRepository;
+    private final GroceryListRepository groceryListRepository;
+    private final IngredientIdentityResolver ingredientIdentityResolver;
+    private final IngredientMapper ingredientMapper;
+    private final DishMapper dishMapper;
+    private final DishIngredientMapper dishIngredientMapper;
+    private final MinioService minioService;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final int chunkSize;
+
+    public UserDataImportServiceImpl(
+            ObjectMapper objectMapper,
+            Validator validator,
+            DishRepository dishRepository,
+            GroceryListRepository groceryListRepository,
+            IngredientIdentityResolver ingredientIdentityResolver,
+            IngredientMapper ingredientMapper,
+            DishMapper dishMapper,
+            DishIngredientMapper dishIngredientMapper,
+            MinioService minioService,
+            TransactionTemplate transactionTemplate,
+            EntityManager entityManager,
+            @Value("${users.import.chunk-size:100}") int chunkSize
+    ) {
+        // The caller owns the stream, so closing the parser must not close it.
+        this.reader = objectMapper.reader().without(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        this.validator = validator;
+        this.dishRepository = dishRepository;
+        this.groceryListRepository = groceryListRepository;
+        this.ingredientIdentityResolver = ingredientIdentityResolver;
+        this.ingredientMapper = ingredientMapper;
+        this.dishMapper = dishMapper;
+        this.dishIngredientMapper = dishIngredientMapper;
+        this.minioService = minioService;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    @Override
+    public UserDataImportResultDTO importUserData(InputStream upload, User user, Consumer<UserDataImportResultDTO> progress) {
+        ImportProgress state = new ImportProgress(progress);
+
+        try (JsonParser parser = reader.createParser(document(upload))) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected an export document");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String section = parser.currentName();
+                parser.nextToken();
+                switch (section) {
+                    case "ingredients" -> read(parser, IngredientResponseDTO.class, Section.INGREDIENTS, this::saveIngredients, user, state);
+                    case "dishes" -> read(parser, DishResponseDTO.class, Section.DISHES, this::saveDishes, user, state);
+                    case "groceryLists" -> read(parser, ExportedGroceryList.class, Section.GROCERY_LISTS, this::saveGroceryLists, user, state);
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (JsonProcessingException e) {
+            state.error = "Malformed JSON: " + e.getOriginalMessage();
+        } catch (IOException e) {
+            state.error = "Could not read the upload: " + e.getMessage();
+        }
+
+        log.info("Imported {} ingredients, {} dishes and {} grocery lists for user {}, {} failed",
+                state.ingredients, state.dishes, state.groceryLists, user.getId(), state.failed);
+        return state.finish();
+    }
+
+    /**
+     * The export itself, or the {@code data.json} entry when the upload is the zip archive of an export job.
+     */
+    private InputStream document(InputStream upload) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(upload);
+        in.mark(ZIP_SIGNATURE.length);
+        byte[] signature = in.readNBytes(ZIP_SIGNATURE.length);
+        in.reset();
+        if (!Arrays.equals(signature, ZIP_SIGNATURE)) {
+            return in;
+        }
+
+        ZipInputStream zip = new ZipInputStream(in);
+        for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+            if (entry.getName().equals(UserDataExportJobServiceImpl.DATA_ENTRY)) {
+                return zip;
+            }
+        }
+        throw new IOException("The archive has no " + UserDataExportJobServiceImpl.DATA_ENTRY);
+    }
+
+    private <T> void read(JsonParser parser, Class<T> type, Section section, ChunkSaver<T> saver, User user, ImportProgress state) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+
+        ObjectReader elementReader = reader.forType(type);
+        List<T> chunk = new ArrayList<>(chunkSize);
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            chunk.add(elementReader.readValue(parser));
+            if (chunk.size() == chunkSize) {
+                persist(chunk, section, saver, user, state);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            persist(chunk, section, saver, user, state);
+        }
+    }
+
+    private <T> void persist(List<T> chunk, Section section, ChunkSaver<T> saver, User user, ImportProgress state) {
+        save(chunk, section, saver, user, state);
+        state.report();
+    }
+
+    /**
+     * Saves a chunk. When that fails the chunk is retried element by element, so a single bad element only
+     * costs its own import.
+     */
+    private <T> void save(List<T> chunk, Section section, ChunkSaver<T> saver, User user, ImportProgress state) {
+        try {
+            state.failed += saver.save(chunk, user, state);
+        } catch (RuntimeException e) {
+            if (chunk.size() == 1) {
+                log.warn("Could not import one of the {} for user {}", section.name().toLowerCase(), user.getId(), e);
+                state.failed++;
+                return;
+            }
+            chunk.forEach(element -> save(List.of(element), section, saver, user, state));
+        }
+    }
+
+    // Ingredients that already exist are matched, not imported, so only the created ones count.
+    private int saveIngredients(List<IngredientResponseDTO> chunk, User user, ImportProgress state) {
+        resolveIngredients(chunk.stream().map(dto -> ingredientMapper.toEntity(dto, user)).toList(), user, state);
+        return 0;
+    }
+
+    // Image URLs may only point at public uploads, so an import cannot link a dish to another user's objects.
+    private int saveDishes(List<DishResponseDTO> chunk, User user, ImportProgress state) {
+        List<DishResponseDTO> valid = chunk.stream()
+                .filter(dto -> dto != null && validator.validate(dto).isEmpty() && minioService.isPublicUrl(dto.getImageUrl()))
+                .toList();
+        if (valid.isEmpty()) {
+            return chunk.size();
+        }
+
+        Map<String, Ingredient> ingredients = resolveIngredients(
+                valid.stream()
+                        .flatMap(dto -> dto.getIngredients().stream())
+                        .map(info -> ingredientMapper.toEntity(info.getIngredient(), user))
+                        .toList(),
+                user,
+                state
+        );
+
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Dish> dishes = new ArrayList<>(valid.size());
+            for (DishResponseDTO dto : valid) {
+                Dish dish = dishMapper.toEntity(dto, user);
+                dto.getIngredients().forEach(info -> dish.getDishIngredients().add(
+                        dishIngredientMapper.toEntity(dish, reference(ingredients, info.getIngredient()), info.getQuantity())
+                ));
+                dish.getSteps().addAll(dishMapper.fromResponseDTOs(dto.getCookingSteps(), dish));
+                dishes.add(dish);
+            }
+            dishRepository.saveAll(dishes);
+            endChunk();
+        });
+        state.imported(Section.DISHES, valid.size());
+        return chunk.size() - valid.size();
+    }
+
+    private int saveGroceryLists(List<ExportedGroceryList> chunk, User user, ImportProgress state) {
+        Map<String, Ingredient> ingredients = resolveIngredients(
+                chunk.stream()
+                        .flatMap(exported -> exported.ingredients().stream())
+                        .map(item -> ingredientMapper.toEntity(item.getIngredient(), user))
+                        .toList(),
+                user,
+                state
+        );
+
+        transactionTemplate.executeWithoutResult(status -> {
+            List<GroceryList> groceryLists = new ArrayList<>(chunk.size());
+            List<BitSet> checked = new ArrayList<>(chunk.size());
+            for (ExportedGroceryList exported : chunk) {
+                GroceryList groceryList = GroceryList.builder()
+                        .startOfWeek(exported.groceryList().getStartOfWeek())
+                        .endOfWeek(exported.groceryList().getEndOfWeek())
+                        .user(user)
+                        .build();
+                checked.add(addItems(groceryList, exported.ingredients(), ingredients));
+                groceryList.setNextSlot(groceryList.getGroceryListIngredients().size());
+                groceryLists.add(groceryList);
+            }
+            groceryListRepository.saveAll(groceryLists);
+            entityManager.flush();
+
+            for (int i = 0; i < groceryLists.size(); i++) {
+                if (!checked.get(i).isEmpty()) {
+                    groceryListRepository.updateCheckedItems(groceryLists.get(i).getId(), checked.get(i).toByteArray());
+                }
+            }
+            endChunk();
+        });
+        state.imported(Section.GROCERY_LISTS, chunk.size());
+        return 0;
+    }
+
+    /**
+     * Created ingredients are committed right away, so they are counted as imported even when the chunk that
+     * needed them fails afterwards.
+     */
+    private Map<String, Ingredient> resolveIngredients(List<Ingredient> wanted, User user, ImportProgress state) {
+        return ingredientIdentityResolver.resolve(wanted, user, created -> state.imported(Section.INGREDIENTS, created));
+    }
+
+    /**
+     * Adds the exported items to a new list. Items that resolve to the same ingredient are merged into one, which is
+     * checked only if all of them were.
+     *
+     * @return the checked items, indexed by slot
+     */
+    private BitSet addItems(GroceryList groceryList, List<GroceryListIngredientResponseDTO> exported, Map<String, Ingredient> ingredients) {
+        Map<Long, GroceryListIngredient> byIngredient = new LinkedHashMap<>();
+        BitSet checked = new BitSet();
+        BitSet unchecked = new BitSet();
+        for (GroceryListIngredientResponseDTO item : exported) {
+            Ingredient ingredient = reference(ingredients, item.getIngredient());
+            GroceryListIngredient existing = byIngredient.get(ingredient.getId());
+            BigDecimal quantity = item.getQuantity() == null ? BigDecimal.ZERO : item.getQuantity();
+            if (existing == null) {
+                existing = GroceryListIngredient.builder()
+                        .id(new GroceryListIngredientKey(null, ingredient.getId()))
+                        .groceryList(groceryList)
+                        .ingredient(ingredient)
+                        .quantity(quantity)
+                        .slot(byIngredient.size())
+                        .build();
+                byIngredient.put(ingredient.getId(), existing);
+                groceryList.getGroceryListIngredients().add(existing);
+            } else {
+                existing.setQuantity(existing.getQuantity().add(quantity));
+            }
+            (item.isChecked() ? checked : unchecked).set(existing.getSlot());
+        }
+
+        checked.andNot(unchecked);
+        return checked.get(0, GroceryList.MAX_CHECKABLE_ITEMS);
+    }
+
+    private Ingredient reference(Map<String, Ingredient> ingredients, IngredientResponseDTO dto) {
+        Ingredient resolved = ingredients.get(Ingredient.keyOf(dto.getName(), dto.getUnit(), dto.getDescription()));
+        return entityManager.getReference(Ingredient.class, resolved.getId());
+    }
+
+    // Keep the persistence context from growing with the import; it outlives the transaction under open-in-view.
+    private void endChunk() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    /**
+     * One element of the {@code groceryLists} section of an export.
+     */
+    record ExportedGroceryList(GroceryListResponseDTO groceryList, List<GroceryListIngredientResponseDTO> ingredients) {
+        ExportedGroceryList {
+            ingredients = ingredients == null ? List.of() : ingredients;
+        }
+    }
+
+    private enum Section {
+        INGREDIENTS,
+        DISHES,
+        GROCERY_LISTS
+    }
+
+    @FunctionalInterface
+    private interface ChunkSaver<T> {
+        /**
+         * Saves a chunk and records what it imported in {@code state}.
+         *
+         * @return the number of elements that were rejected and count as failed
+         */
+        int save(List<T> chunk, User user, ImportProgress state);
+    }
+
+    private static final class ImportProgress {
+        private final Consumer<UserDataImportResultDTO> listener;
+        private long ingredients;
+        private long dishes;
+        private long groceryLists;
+        private long failed;
+        private String error;
+
+        private ImportProgress(Consumer<UserDataImportResultDTO> listener) {
+            this.listener = listener;
+        }
+
+        private void imported(Section section, int count) {
+            switch (section) {
+                case INGREDIENTS -> ingredients += count;
+                case DISHES -> dishes += count;
+                case GROCERY_LISTS -> groceryLists += count;
+            }
+        }
+
+        private void report() {
+            listener.accept(toResult(false));
+        }
+
+        private UserDataImportResultDTO finish() {
+            UserDataImportResultDTO result = toResult(true);
+            listener.accept(result);
+            return result;
+        }
+
+        private UserDataImportResultDTO toResult(boolean done) {
+            return new UserDataImportResultDTO(ingredients, dishes, groceryLists, failed, done, error);
+        }
+    }
+}
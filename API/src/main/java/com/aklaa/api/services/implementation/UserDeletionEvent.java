@@ -0,0 +1,8 @@
+package com.aklaa.api.services.implementation;
+
+/**
+ * Published right before a user is deleted, so what they stored outside the database can be removed.
+ * A listener that throws stops the deletion, leaving the user in place to be deleted again.
+ */
+public record UserDeletionEvent(Long userId) {
+}
@@ -1,19 +1,23 @@
 package com.aklaa.api.services.implementation;
 
-import com.aklaa.api.dao.ResetEmailRepository;
+import com.aklaa.api.config.security.AuthenticatedUser;
+import com.aklaa.api.config.security.UserChangedEvent;
+import com.aklaa.api.dao.CursorPage;
 import com.aklaa.api.dao.UserRepository;
 import com.aklaa.api.dtos.request.UpdatedUserDTO;
 import com.aklaa.api.dtos.response.UserDTO;
 import com.aklaa.api.dtos.response.UserListResponseDTO;
 import com.aklaa.api.mapper.UserMapper;
-import com.aklaa.api.model.EmailResetToken;
 import com.aklaa.api.model.User;
+import com.aklaa.api.model.enums.TokenPurpose;
 import com.aklaa.api.model.enums.UserType;
 import com.aklaa.api.services.contract.EmailService;
 import com.aklaa.api.services.contract.UserService;
+import com.aklaa.api.services.contract.UserTokenService;
 import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
@@ -21,29 +25,26 @@ import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Component;
 
-import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
 import java.util.List;
 import java.util.NoSuchElementException;
 
-import static com.aklaa.api.services.implementation.AuthServiceImpl.generateSecureToken;
-
 @Component
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    private static final List<String> CURSOR_KEYS = List.of("id");
+
     private final UserRepository userRepository;
-    private final ResetEmailRepository resetEmailRepository;
+    private final UserTokenService userTokenService;
     private final UserMapper userMapper;
-    private final UserDetailsService userDetailsService;
     private final EmailService emailService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
-    public UserListResponseDTO getUsers(String search, String type, Pageable pageable) {
+    public UserListResponseDTO getUsers(String search, String type, Pageable pageable, String cursor) {
         UserType typeEnum = null;
         if (type != null && !type.isEmpty()) {
             try {
@@ -56,17 +57,21 @@ public class UserServiceImpl implements UserService {
         Specification<User> spec = searchSpec(search)
                 .and(hasUserTypeSpec(typeEnum));
 
+        if (cursor != null) {
+            CursorPage<User> userPage = userRepository.findAllAfter(spec, CURSOR_KEYS, cursor, pageable.getPageSize());
+
+            return UserListResponseDTO.builder()
+                    .users(userPage.content().stream().map(this::toListDTO).toList())
+                    .totalElements(-1)
+                    .totalPages(-1)
+                    .nextCursor(userPage.nextCursor())
+                    .build();
+        }
+
         Page<User> userPage = userRepository.findAll(spec, pageable);
 
         List<UserDTO> userDTOs = userPage.getContent().stream()
-                .map(user -> UserDTO.builder()
-                        .id(user.getId())
-                        .firstName(user.getFirstName())
-                        .lastName(user.getLastName())
-                        .email(user.getEmail())
-                        .userType(user.getUserType().name())
-                        .enabled(user.isEnabled())
-                        .build())
+                .map(this::toListDTO)
                 .toList();
 
         return UserListResponseDTO.builder()
@@ -91,6 +96,7 @@ public class UserServiceImpl implements UserService {
 
         user.setUserType(userType);
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
 
         refreshAuthentication(user.getEmail());
 
@@ -111,8 +117,9 @@ public class UserServiceImpl implements UserService {
 
         if(!user.isEnabled()) {
             user.setEnabled(true);
-            user.setActivationToken(null);
             userRepository.save(user);
+            userTokenService.revokeAll(user.getId(), TokenPurpose.ACCOUNT_ACTIVATION);
+            eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
 
             refreshAuthentication(user.getEmail());
         }
@@ -133,13 +140,14 @@ public class UserServiceImpl implements UserService {
         }
 
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
         refreshAuthentication(user.getEmail());
 
         return userMapper.toDTO(user);
     }
 
     @Override
-    public UserDTO delete(Long id, User actionTaker) {
+    public UserDTO delete(Long id, AuthenticatedUser actionTaker) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new NoSuchElementException("User not found"));
 
@@ -147,7 +155,9 @@ public class UserServiceImpl implements UserService {
             throw new AccessDeniedException("User not allowed to delete");
         }
 
+        eventPublisher.publishEvent(new UserDeletionEvent(user.getId()));
         userRepository.delete(user);
+        eventPublisher.publishEvent(new UserChangedEvent(user.getId()));
 
         return userMapper.toDTO(user);
     }
@@ -156,12 +166,14 @@ public class UserServiceImpl implements UserService {
     public void refreshAuthentication(String email) {
         Authentication existingAuth = SecurityContextHolder.getContext().getAuthentication();
 
-        UserDetails updatedUserDetails = userDetailsService.loadUserByUsername(email);
+        AuthenticatedUser updatedPrincipal = userRepository.findByEmail(email)
+                .map(AuthenticatedUser::from)
+                .orElseThrow(() -> new UsernameNotFoundException("user '" + email + "' not found"));
 
         Authentication newAuth = new UsernamePasswordAuthenticationToken(
-                updatedUserDetails,
+                updatedPrincipal,
                 existingAuth != null ? existingAuth.getCredentials() : null,
-                updatedUserDetails.getAuthorities()
+                updatedPrincipal.getAuthorities()
         );
 
         SecurityContextHolder.getContext().setAuthentication(newAuth);
@@ -176,6 +188,17 @@ public class UserServiceImpl implements UserService {
         };
     }
 
+    private UserDTO toListDTO(User user) {
+        return UserDTO.builder()
+                .id(user.getId())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .email(user.getEmail())
+                .userType(user.getUserType().name())
+                .enabled(user.isEnabled())
+                .build();
+    }
+
     private Specification<User> searchSpec(String searchTerm) {
         return (root, query, builder) -> {
             if (searchTerm == null || searchTerm.isEmpty()) {
@@ -205,8 +228,8 @@ public class UserServiceImpl implements UserService {
     }
 
 
-    public static boolean canDelete(User user, User actionTaker) {
-        return actionTaker.getUserType() == UserType.ADMIN || actionTaker.getId().equals(user.getId());
+    public static boolean canDelete(User user, AuthenticatedUser actionTaker) {
+        return actionTaker.userType() == UserType.ADMIN || actionTaker.id().equals(user.getId());
     }
 
     private boolean emailHasChanged(String newEmail, User user) {
@@ -214,14 +237,7 @@ public class UserServiceImpl implements UserService {
     }
 
     private void requestEmailChange(User user, String newEmail) {
-        String token = generateSecureToken();
-
-        EmailResetToken tokenEntity = new EmailResetToken();
-        tokenEntity.setToken(token);
-        tokenEntity.setExpiresAt(OffsetDateTime.now(ZoneOffset.UTC).plusHours(2));
-        tokenEntity.setUser(user);
-
-        resetEmailRepository.save(tokenEntity);
+        String token = userTokenService.issue(user, TokenPurpose.EMAIL_CHANGE);
 
         user.setPendingEmail(newEmail);
         emailService.sendActivationUpdatedEmail(newEmail, token);
@@ -0,0 +1,140 @@
+package com.aklaa.api.services.implementation;
+
+import com.aklaa.api.dao.UserTokenRepository;
+import com.aklaa.api.model.User;
+import com.aklaa.api.model.UserToken;
+import com.aklaa.api.model.enums.TokenPurpose;
+import com.aklaa.api.services.contract.UserTokenService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Optional;
+
+@Service
+public class UserTokenServiceImpl implements UserTokenService {
+
+    private static final SecureRandom secureRandom = new SecureRandom();
+
+    private final UserTokenRepository userTokenRepository;
+    private final Duration activationTtl;
+    private final Duration passwordResetTtl;
+    private final Duration emailChangeTtl;
+
+    /**
+     * Hashes of tokens that were recently looked up and found missing or expired.
+     */
+    private final Cache<String, Boolean> invalidTokens;
+
+    public UserTokenServiceImpl(
+            UserTokenRepository userTokenRepository,
+            @Value("${auth.tokens.activation-ttl:30d}") Duration activationTtl,
+            @Value("${auth.tokens.password-reset-ttl:15m}") Duration passwordResetTtl,
+            @Value("${auth.tokens.email-change-ttl:2h}") Duration emailChangeTtl,
+            @Value("${auth.tokens.negative-cache.ttl:1m}") Duration negativeCacheTtl,
+            @Value("${auth.tokens.negative-cache.max-size:10000}") long negativeCacheMaxSize
+    ) {
+        this.userTokenRepository = userTokenRepository;
+        this.activationTtl = activationTtl;
+        this.passwordResetTtl = passwordResetTtl;
+        this.emailChangeTtl = emailChangeTtl;
+        this.invalidTokens = Caffeine.newBuilder()
+                .maximumSize(negativeCacheMaxSize)
+                .expireAfterWrite(negativeCacheTtl)
+                .build();
+    }
+
+    @Override
+    public String issue(User user, TokenPurpose purpose) {
+        String rawToken = generateSecureToken();
+        String hash = hash(rawToken);
+
+        UserToken token = UserToken.builder()
+                .tokenHash(hash)
+                .purpose(purpose)
+                .user(user)
+                .expiresAt(OffsetDateTime.now(ZoneOffset.UTC).plus(ttl(purpose)))
+                .build();
+        userTokenRepository.save(token);
+        invalidTokens.invalidate(cacheKey(hash, purpose));
+
+        return rawToken;
+    }
+
+    @Override
+    public Optional<UserToken> findValid(String rawToken, TokenPurpose purpose) {
+        if (rawToken == null || rawToken.isBlank()) {
+            return Optional.empty();
+        }
+
+        String hash = hash(rawToken);
+        String key = cacheKey(hash, purpose);
+        if (invalidTokens.getIfPresent(key) != null) {
+            return Optional.empty();
+        }
+
+        Optional<UserToken> token = userTokenRepository.findByTokenHashAndPurpose(hash, purpose)
+                .filter(t -> !t.isExpired());
+        if (token.isEmpty()) {
+            invalidTokens.put(key, Boolean.TRUE);
+        }
+        return token;
+    }
+
+    @Override
+    public void consume(UserToken token) {
+        userTokenRepository.delete(token);
+        invalidTokens.put(cacheKey(token.getTokenHash(), token.getPurpose()), Boolean.TRUE);
+    }
+
+    @Override
+    @Transactional
+    public void revokeAll(Long userId, TokenPurpose purpose) {
+        userTokenRepository.deleteByUserIdAndPurpose(userId, purpose);
+    }
+
+    @Scheduled(cron = "0 33 15 * * *", zone = "Europe/Brussels")
+    @Transactional
+    public void deleteExpiredTokensAutomatically() {
+        userTokenRepository.deleteExpired(OffsetDateTime.now(ZoneOffset.UTC));
+    }
+
+    private Duration ttl(TokenPurpose purpose) {
+        return switch (purpose) {
+            case ACCOUNT_ACTIVATION -> activationTtl;
+            case PASSWORD_RESET -> passwordResetTtl;
+            case EMAIL_CHANGE -> emailChangeTtl;
+        };
+    }
+
+    private static String cacheKey(String hash, TokenPurpose purpose) {
+        return purpose.name() + ':' + hash;
+    }
+
+    private static String generateSecureToken() {
+        byte[] randomBytes = new byte[32];
+        secureRandom.nextBytes(randomBytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(randomBytes);
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(rawToken.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
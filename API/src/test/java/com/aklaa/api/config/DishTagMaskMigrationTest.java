@@ -0,0 +1,79 @@
+package com.aklaa.api.config;
+
+import com.aklaa.api.dao.DishRepository;
+import com.aklaa.api.dao.UserRepository;
+import com.aklaa.api.model.Dish;
+import com.aklaa.api.model.User;
+import com.aklaa.api.model.enums.CuisineType;
+import com.aklaa.api.model.enums.DishTag;
+import com.aklaa.api.model.enums.UserType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(DishTagMaskMigration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DishTagMaskMigrationTest {
+
+    @Autowired
+    private DishTagMaskMigration dishTagMaskMigration;
+
+    @Autowired
+    private DishRepository dishRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @AfterEach
+    void tearDown() {
+        dishRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void unknownLegacyTagsAreSkipped() {
+        User user = userRepository.save(User.builder()
+                .firstName("Test")
+                .lastName("User")
+                .email("migration@example.com")
+                .password("Password1!")
+                .userType(UserType.USER)
+                .enabled(true)
+                .build());
+        Dish dish = dishRepository.save(Dish.builder()
+                .name("Legacy dish")
+                .description("A dish with legacy tags")
+                .type(CuisineType.ITALIAN)
+                .imageUrl("/images/dish.png")
+                .people(2)
+                .user(user)
+                .build());
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("ALTER TABLE dishes ADD COLUMN tags VARCHAR(255)");
+        jdbcTemplate.update("UPDATE dishes SET tags = ? WHERE id = ?", "DINNER, SPICY,VEGAN", dish.getId());
+
+        dishTagMaskMigration.migrate();
+
+        assertThat(dishRepository.findById(dish.getId()).orElseThrow().getTags())
+                .containsExactly(DishTag.DINNER, DishTag.VEGAN);
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT column_name FROM information_schema.columns WHERE UPPER(table_name) = 'DISHES'", String.class))
+                .map(String::toUpperCase)
+                .doesNotContain("TAGS");
+    }
+}
@@ -0,0 +1,94 @@
+package com.aklaa.api.config;
+
+import com.aklaa.api.model.*;
+import com.aklaa.api.model.enums.IngredientCategory;
+import com.aklaa.api.model.enums.MeasurementUnit;
+import com.aklaa.api.model.enums.UserType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(GroceryListSlotMigration.class)
+class GroceryListSlotMigrationTest {
+
+    @Autowired
+    private GroceryListSlotMigration groceryListSlotMigration;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void itemsWithoutASlotContinueAfterTheSlotsOfTheirList() {
+        User user = entityManager.persist(User.builder()
+                .firstName("Test")
+                .lastName("User")
+                .email("slots@example.com")
+                .password("Password1!")
+                .userType(UserType.USER)
+                .enabled(true)
+                .build());
+        List<Ingredient> ingredients = List.of("Tomato", "Onion", "Garlic", "Basil").stream()
+                .map(name -> entityManager.persist(Ingredient.builder()
+                        .name(name)
+                        .category(IngredientCategory.VEGETABLES)
+                        .unit(MeasurementUnit.G)
+                        .user(user)
+                        .build()))
+                .toList();
+
+        GroceryList slotted = list(user, ingredients);
+        GroceryList unslotted = list(user, ingredients.subList(0, 2));
+        entityManager.flush();
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("UPDATE grocery_list_ingredient SET slot = NULL WHERE grocery_list_id = ? AND ingredient_id IN (?, ?)",
+                slotted.getId(), ingredients.get(2).getId(), ingredients.get(3).getId());
+        jdbcTemplate.update("UPDATE grocery_list_ingredient SET slot = NULL WHERE grocery_list_id = ?", unslotted.getId());
+
+        groceryListSlotMigration.migrate();
+
+        assertThat(slots(jdbcTemplate, slotted)).containsExactly(
+                Map.entry(ingredients.get(0).getId(), 0),
+                Map.entry(ingredients.get(1).getId(), 1),
+                Map.entry(ingredients.get(2).getId(), 2),
+                Map.entry(ingredients.get(3).getId(), 3));
+        assertThat(slots(jdbcTemplate, unslotted)).containsExactly(
+                Map.entry(ingredients.get(0).getId(), 0),
+                Map.entry(ingredients.get(1).getId(), 1));
+    }
+
+    private GroceryList list(User user, List<Ingredient> ingredients) {
+        GroceryList list = GroceryList.builder().user(user).build();
+        for (int slot = 0; slot < ingredients.size(); slot++) {
+            list.getGroceryListIngredients().add(GroceryListIngredient.builder()
+                    .id(new GroceryListIngredientKey(null, ingredients.get(slot).getId()))
+                    .groceryList(list)
+                    .ingredient(ingredients.get(slot))
+                    .quantity(BigDecimal.ONE)
+                    .slot(slot)
+                    .build());
+        }
+        return entityManager.persist(list);
+    }
+
+    private static List<Map.Entry<Long, Integer>> slots(JdbcTemplate jdbcTemplate, GroceryList list) {
+        return jdbcTemplate.query(
+                "SELECT ingredient_id, slot FROM grocery_list_ingredient WHERE grocery_list_id = ? ORDER BY ingredient_id",
+                (rs, row) -> Map.entry(rs.getLong("ingredient_id"), rs.getInt("slot")),
+                list.getId());
+    }
+}
@@ -0,0 +1,89 @@
+package com.aklaa.api.config;
+
+import com.aklaa.api.dao.IngredientRepository;
+import com.aklaa.api.dao.UserRepository;
+import com.aklaa.api.model.Ingredient;
+import com.aklaa.api.model.User;
+import com.aklaa.api.model.enums.IngredientCategory;
+import com.aklaa.api.model.enums.MeasurementUnit;
+import com.aklaa.api.model.enums.UserType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(IngredientIdentityKeyMigration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IngredientIdentityKeyMigrationTest {
+
+    @Autowired
+    private IngredientIdentityKeyMigration ingredientIdentityKeyMigration;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @AfterEach
+    void tearDown() {
+        ingredientRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void duplicateKeysAreShortenedToFitTheColumn() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("ALTER TABLE ingredients DROP CONSTRAINT " + Ingredient.IDENTITY_KEY_INDEX);
+
+        User user = userRepository.save(User.builder()
+                .firstName("Test")
+                .lastName("User")
+                .email("identity@example.com")
+                .password("Password1!")
+                .userType(UserType.USER)
+                .enabled(true)
+                .build());
+        String name = "a".repeat(100);
+        Ingredient first = ingredient(name, user);
+        Ingredient second = ingredient(name, user);
+        long secondId = 9_000_000_000_000_000_000L;
+        jdbcTemplate.update("UPDATE ingredients SET id = ? WHERE id = ?", secondId, second.getId());
+        jdbcTemplate.update("UPDATE ingredients SET identity_key = ''");
+
+        ingredientIdentityKeyMigration.migrate();
+
+        String key = Ingredient.keyOf(name, MeasurementUnit.PINCH, "Freshly ground");
+        assertThat(identityKey(jdbcTemplate, first.getId())).isEqualTo(key);
+        assertThat(identityKey(jdbcTemplate, secondId))
+                .hasSize(Ingredient.IDENTITY_KEY_LENGTH)
+                .startsWith("a".repeat(90))
+                .endsWith(key.substring(name.length()) + "#" + secondId);
+    }
+
+    private Ingredient ingredient(String name, User user) {
+        return ingredientRepository.save(Ingredient.builder()
+                .name(name)
+                .description("Freshly ground")
+                .category(IngredientCategory.SPICES)
+                .unit(MeasurementUnit.PINCH)
+                .user(user)
+                .build());
+    }
+
+    private static String identityKey(JdbcTemplate jdbcTemplate, Long id) {
+        return jdbcTemplate.queryForObject("SELECT identity_key FROM ingredients WHERE id = ?", String.class, id);
+    }
+}
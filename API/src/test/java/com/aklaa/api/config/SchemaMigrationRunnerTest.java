@@ -0,0 +1,92 @@
+package com.aklaa.api.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SchemaMigrationRunnerTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<String> runs = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM applied_migrations");
+        jdbcTemplate.update("DELETE FROM migration_lock");
+    }
+
+    @Test
+    void migrationsRunInOrderUntilTheyComplete() {
+        boolean[] failing = {true};
+        List<SchemaMigration> migrations = List.of(
+                migration("first", () -> { }),
+                migration("second", () -> {
+                    if (failing[0]) {
+                        throw new IllegalStateException("Interrupted");
+                    }
+                })
+        );
+
+        assertThatThrownBy(() -> new SchemaMigrationRunner(dataSource, migrations, Duration.ZERO).run())
+                .hasMessage("Interrupted");
+        failing[0] = false;
+        new SchemaMigrationRunner(dataSource, migrations, Duration.ZERO).run();
+        new SchemaMigrationRunner(dataSource, migrations, Duration.ZERO).run();
+
+        assertThat(runs).containsExactly("first", "second", "second");
+        assertThat(jdbcTemplate.queryForList("SELECT name FROM applied_migrations ORDER BY name", String.class))
+                .containsExactly("first", "second");
+        assertThat(jdbcTemplate.queryForObject("SELECT locked_by FROM migration_lock", String.class)).isNull();
+    }
+
+    @Test
+    void migrationsWaitForTheNodeHoldingTheLock() {
+        jdbcTemplate.update("INSERT INTO migration_lock (id, locked_by, locked_at) VALUES (1, 'other-node', CURRENT_TIMESTAMP)");
+
+        assertThatThrownBy(() -> new SchemaMigrationRunner(dataSource, List.of(migration("first", () -> { })), Duration.ZERO).run())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("other-node");
+
+        assertThat(runs).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("SELECT locked_by FROM migration_lock", String.class)).isEqualTo("other-node");
+    }
+
+    private SchemaMigration migration(String name, Runnable work) {
+        return new SchemaMigration() {
+            @Override
+            public String name() {
+                return name;
+            }
+
+            @Override
+            public void migrate() {
+                runs.add(name);
+                work.run();
+            }
+        };
+    }
+}
@@ -0,0 +1,91 @@
+package com.aklaa.api.config.security;
+
+import com.aklaa.api.exceptions.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuthRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private AuthRateLimiter authRateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        // Email: 2 attempts, one token back every 30 seconds. IP: 3 attempts, one token back every 20 seconds.
+        authRateLimiter = new AuthRateLimiter(
+                new SimpleMeterRegistry(), 2, Duration.ofMinutes(1), 3, Duration.ofMinutes(1), 1000, now::get);
+    }
+
+    @Test
+    void emailBucketIsSharedAcrossAddressesAndIgnoresCase() {
+        acquire("user@example.com", "10.0.0.1");
+        acquire("USER@example.com ", "10.0.0.2");
+
+        assertThatThrownBy(() -> acquire("user@example.com", "10.0.0.3")).isInstanceOf(TooManyRequestsException.class);
+        assertThatCode(() -> acquire("other@example.com", "10.0.0.3")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void ipBucketIsSharedAcrossEmails() {
+        acquire("a@example.com", "10.0.0.1");
+        acquire("b@example.com", "10.0.0.1");
+        acquire("c@example.com", "10.0.0.1");
+
+        assertThatThrownBy(() -> acquire("d@example.com", "10.0.0.1")).isInstanceOf(TooManyRequestsException.class);
+        assertThatCode(() -> acquire("d@example.com", "10.0.0.2")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void bucketsAreSeparatePerAction() {
+        acquire("user@example.com", "10.0.0.1");
+        acquire("user@example.com", "10.0.0.1");
+
+        assertThatCode(() -> authRateLimiter.acquire(AuthRateLimiter.PASSWORD_RESET, "user@example.com", "10.0.0.1"))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void tokensRefillOneIntervalAtATimeAndRetryAfterCountsDownToTheNextToken() {
+        acquire("user@example.com", "10.0.0.1");
+        acquire("user@example.com", "10.0.0.2");
+
+        assertThat(retryAfter("user@example.com", "10.0.0.3")).isEqualTo(30);
+
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertThat(retryAfter("user@example.com", "10.0.0.3")).isEqualTo(20);
+
+        now.addAndGet(Duration.ofSeconds(20).toNanos());
+        acquire("user@example.com", "10.0.0.3");
+        assertThat(retryAfter("user@example.com", "10.0.0.4")).isEqualTo(30);
+    }
+
+    @Test
+    void retryAfterIsRoundedUpToWholeSeconds() {
+        acquire("user@example.com", "10.0.0.1");
+        acquire("user@example.com", "10.0.0.2");
+        now.addAndGet(Duration.ofMillis(29_500).toNanos());
+
+        assertThat(retryAfter("user@example.com", "10.0.0.3")).isEqualTo(1);
+    }
+
+    private void acquire(String email, String ip) {
+        authRateLimiter.acquire(AuthRateLimiter.LOGIN, email, ip);
+    }
+
+    private long retryAfter(String email, String ip) {
+        try {
+            acquire(email, ip);
+        } catch (TooManyRequestsException e) {
+            return e.getRetryAfterSeconds();
+        }
+        throw new AssertionError("Expected the attempt to be rejected");
+    }
+}
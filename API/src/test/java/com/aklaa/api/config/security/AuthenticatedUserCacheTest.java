@@ -0,0 +1,117 @@
+package com.aklaa.api.config.security;
+
+import com.aklaa.api.controller.UserController;
+import com.aklaa.api.dao.UserRepository;
+import com.aklaa.api.dtos.request.PasswordResetDTO;
+import com.aklaa.api.mapper.UserMapper;
+import com.aklaa.api.model.User;
+import com.aklaa.api.model.UserToken;
+import com.aklaa.api.model.enums.TokenPurpose;
+import com.aklaa.api.model.enums.UserType;
+import com.aklaa.api.services.contract.EmailService;
+import com.aklaa.api.services.contract.PasswordHashingService;
+import com.aklaa.api.services.contract.UserTokenService;
+import com.aklaa.api.services.implementation.AuthServiceImpl;
+import com.aklaa.api.services.implementation.UserServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest
+@Import({AuthenticatedUserCache.class, UserServiceImpl.class, AuthServiceImpl.class, UserController.class, UserMapper.class})
+class AuthenticatedUserCacheTest {
+
+    @MockitoBean
+    private UserTokenService userTokenService;
+
+    @MockitoBean
+    private EmailService emailService;
+
+    @MockitoBean
+    private PasswordHashingService passwordHashingService;
+
+    @MockitoBean
+    private JwtService jwtService;
+
+    @Autowired
+    private AuthenticatedUserCache authenticatedUserCache;
+
+    @Autowired
+    private UserServiceImpl userService;
+
+    @Autowired
+    private AuthServiceImpl authService;
+
+    @Autowired
+    private UserController userController;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private AuthenticatedUser cached;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .firstName("Test")
+                .lastName("User")
+                .email("cached@example.com")
+                .password("Password1!")
+                .userType(UserType.USER)
+                .enabled(true)
+                .build());
+        cached = authenticatedUserCache.get(user.getId()).orElseThrow();
+        assertThat(authenticatedUserCache.get(user.getId())).containsSame(cached);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void roleChangeEvictsThePrincipal() {
+        userService.updateUserRole(user.getId(), UserType.ADMIN);
+
+        assertThat(authenticatedUserCache.get(user.getId()).orElseThrow().userType()).isEqualTo(UserType.ADMIN);
+    }
+
+    @Test
+    void confirmedEmailChangeEvictsThePrincipal() {
+        user.setPendingEmail("changed@example.com");
+        UserToken token = UserToken.builder().tokenHash("hash").purpose(TokenPurpose.EMAIL_CHANGE).user(user).build();
+        when(userTokenService.findValid("token", TokenPurpose.EMAIL_CHANGE)).thenReturn(Optional.of(token));
+
+        userController.emailReset("token");
+
+        assertThat(authenticatedUserCache.get(user.getId()).orElseThrow().email()).isEqualTo("changed@example.com");
+    }
+
+    @Test
+    void passwordChangeEvictsThePrincipal() {
+        when(passwordHashingService.matches(any(), anyString())).thenReturn(true);
+        when(passwordHashingService.encode(any())).thenReturn("Encoded2!");
+        PasswordResetDTO reset = new PasswordResetDTO();
+        reset.setOldPassword("Password1!");
+        reset.setNewPassword("Password2!");
+        reset.setConfirmNewPassword("Password2!");
+
+        authService.resetPassword(user.getId(), reset);
+
+        assertThat(userRepository.findById(user.getId()).orElseThrow().getPassword()).isEqualTo("Encoded2!");
+        assertThat(authenticatedUserCache.get(user.getId()).orElseThrow()).isNotSameAs(cached);
+    }
+}
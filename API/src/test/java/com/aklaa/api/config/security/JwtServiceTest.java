@@ -0,0 +1,89 @@
+package com.aklaa.api.config.security;
+
+import com.aklaa.api.model.enums.UserType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "a-test-secret-that-is-at-least-32-bytes-long";
+
+    private JwtService jwtService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jwtService = new JwtService(SECRET, 100);
+    }
+
+    @Test
+    void repeatedVerificationIsAnsweredFromTheCache() {
+        String token = jwtService.generateToken(42, UserType.USER);
+
+        VerifiedJwt first = jwtService.verify(token).orElseThrow();
+
+        assertThat(first.userId()).isEqualTo(42);
+        assertThat(first.role()).isEqualTo(UserType.USER);
+        assertThat(first.isAccessToken()).isTrue();
+        assertThat(jwtService.verify(token)).containsSame(first);
+    }
+
+    @Test
+    void cachedTokenIsRejectedOnceItsExpirationHasPassed() throws Exception {
+        Instant expiresAt = Instant.now().plusMillis(1500);
+        String token = sign(new JWTClaimsSet.Builder()
+                .subject("42")
+                .claim("role", UserType.USER.name())
+                .claim("type", "access")
+                .expirationTime(Date.from(expiresAt))
+                .build(), SECRET);
+
+        assertThat(jwtService.verify(token)).isPresent();
+
+        Thread.sleep(Math.max(0, expiresAt.toEpochMilli() - System.currentTimeMillis()) + 100);
+        assertThat(jwtService.verify(token)).isEmpty();
+    }
+
+    @Test
+    void tamperedTokenIsRejectedEvenWhenTheOriginalIsCached() throws Exception {
+        String token = jwtService.generateToken(42, UserType.USER);
+        assertThat(jwtService.verify(token)).isPresent();
+
+        // Same header and signature, but the payload now claims another user and the admin role.
+        String[] parts = token.split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+                .replace("\"sub\":\"42\"", "\"sub\":\"1\"")
+                .replace("\"USER\"", "\"ADMIN\"");
+        String tamperedPayload = parts[0] + "." + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "." + parts[2];
+        String tamperedSignature = parts[0] + "." + parts[1] + "." + flipFirstCharacter(parts[2]);
+        String otherKey = sign(SignedJWT.parse(token).getJWTClaimsSet(), "another-secret-that-is-at-least-32-bytes-long");
+
+        assertThat(jwtService.verify(tamperedPayload)).isEmpty();
+        assertThat(jwtService.verify(tamperedSignature)).isEmpty();
+        assertThat(jwtService.verify(otherKey)).isEmpty();
+        assertThat(jwtService.verify(token)).isPresent();
+    }
+
+    private static String sign(JWTClaimsSet claims, String secret) throws Exception {
+        SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256), claims);
+        jwt.sign(new MACSigner(secret));
+        return jwt.serialize();
+    }
+
+    // The first character carries six significant bits; the last one of a signature can be partly padding.
+    private static String flipFirstCharacter(String value) {
+        return (value.charAt(0) == 'A' ? 'B' : 'A') + value.substring(1);
+    }
+}
@@ -0,0 +1,131 @@
+package com.aklaa.api.services.implementation;
+
+import com.aklaa.api.config.JpaConfig;
+import com.aklaa.api.dao.JdbcCartStore;
+import com.aklaa.api.dtos.request.CartDishRequestDTO;
+import com.aklaa.api.model.Dish;
+import com.aklaa.api.model.User;
+import com.aklaa.api.model.enums.CuisineType;
+import com.aklaa.api.model.enums.DishTag;
+import com.aklaa.api.model.enums.UserType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import javax.sql.DataSource;
+import java.time.DayOfWeek;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest
+@Import({CartServiceImpl.class, JdbcCartStore.class, JpaConfig.class})
+class CartServiceImplTest {
+
+    @Autowired
+    private CartServiceImpl cartService;
+
+    @Autowired
+    private JdbcCartStore cartStore;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Long userId;
+    private Long dishId;
+
+    @BeforeEach
+    void setUp() {
+        User user = entityManager.persist(User.builder()
+                .firstName("Test")
+                .lastName("User")
+                .email("cart-store@example.com")
+                .password("Password1!")
+                .userType(UserType.USER)
+                .enabled(true)
+                .build());
+        Dish dish = entityManager.persist(Dish.builder()
+                .name("Dish")
+                .description("A dish used for testing")
+                .tags(List.of(DishTag.DINNER))
+                .type(CuisineType.ITALIAN)
+                .imageUrl("/images/dish.png")
+                .people(2)
+                .user(user)
+                .build());
+        entityManager.flush();
+
+        userId = user.getId();
+        dishId = dish.getId();
+    }
+
+    @Test
+    void changesAreStoredAndSurviveAnotherNode() {
+        int first = cartService.add(userId, item(DayOfWeek.MONDAY, 2)).getId();
+        int second = cartService.add(userId, item(DayOfWeek.TUESDAY, 3)).getId();
+        assertThat(cartService.edit(userId, second, item(DayOfWeek.FRIDAY, 4))).isTrue();
+        assertThat(cartService.remove(userId, first)).isTrue();
+
+        // A second service instance stands in for another node.
+        CartServiceImpl otherNode = new CartServiceImpl(new JdbcCartStore(dataSource));
+        assertThat(otherNode.getItems(userId))
+                .extracting(CartDishRequestDTO::getId, CartDishRequestDTO::getDayOfWeek, CartDishRequestDTO::getPeople)
+                .containsExactly(tuple(second, DayOfWeek.FRIDAY, 4));
+    }
+
+    @Test
+    void missingItemsAreReportedAsNotFound() {
+        assertThat(cartService.edit(userId, 42, item(DayOfWeek.MONDAY, 2))).isFalse();
+        assertThat(cartService.remove(userId, 42)).isFalse();
+    }
+
+    @Test
+    void addingAfterAnotherNodeAddedContinuesWithTheNextFreeId() {
+        assertThat(cartService.getItems(userId)).isEmpty();
+
+        CartDishRequestDTO concurrent = item(DayOfWeek.MONDAY, 2);
+        concurrent.setId(1);
+        cartStore.insert(userId, concurrent);
+
+        assertThat(cartService.add(userId, item(DayOfWeek.SUNDAY, 1)).getId()).isEqualTo(2);
+        assertThat(cartService.getItems(userId)).extracting(CartDishRequestDTO::getId).containsExactly(1, 2);
+
+        cartService.clear(userId);
+        assertThat(cartStore.findAll(userId)).isEmpty();
+        assertThat(cartService.getItems(userId)).isEmpty();
+    }
+
+    @Test
+    void savingACartOnlyRemovesTheItemsThatWereRead() {
+        cartService.add(userId, item(DayOfWeek.MONDAY, 2));
+        int edited = cartService.add(userId, item(DayOfWeek.TUESDAY, 3)).getId();
+        List<CartDishRequestDTO> saved = cartService.getItems(userId);
+
+        // Meanwhile another node adds an item and edits one of the items that were read.
+        CartServiceImpl otherNode = new CartServiceImpl(new JdbcCartStore(dataSource));
+        int added = otherNode.add(userId, item(DayOfWeek.FRIDAY, 4)).getId();
+        otherNode.edit(userId, edited, item(DayOfWeek.SATURDAY, 5));
+        assertThat(cartService.getItems(userId)).hasSize(3);
+
+        cartService.removeAll(userId, saved);
+
+        assertThat(cartService.getItems(userId))
+                .extracting(CartDishRequestDTO::getId, CartDishRequestDTO::getDayOfWeek)
+                .containsExactly(tuple(edited, DayOfWeek.SATURDAY), tuple(added, DayOfWeek.FRIDAY));
+    }
+
+    private CartDishRequestDTO item(DayOfWeek day, int people) {
+        return CartDishRequestDTO.builder()
+                .dishId(dishId)
+                .dayOfWeek(day)
+                .people(people)
+                .build();
+    }
+}
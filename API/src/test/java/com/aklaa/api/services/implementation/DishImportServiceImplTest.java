@@ -0,0 +1,143 @@
+package com.aklaa.api.services.implementation;
+
+import com.aklaa.api.config.JpaConfig;
+import com.aklaa.api.dao.DishRepository;
+import com.aklaa.api.dao.IngredientRepository;
+import com.aklaa.api.dao.UserRepository;
+import com.aklaa.api.dtos.response.DishImportErrorDTO;
+import com.aklaa.api.dtos.response.DishImportResultDTO;
+import com.aklaa.api.mapper.DishIngredientMapper;
+import com.aklaa.api.mapper.DishMapper;
+import com.aklaa.api.mapper.IngredientMapper;
+import com.aklaa.api.model.Ingredient;
+import com.aklaa.api.model.User;
+import com.aklaa.api.model.enums.IngredientCategory;
+import com.aklaa.api.model.enums.MeasurementUnit;
+import com.aklaa.api.model.enums.UserType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The import manages its own transactions, so the test must not wrap it in one.
+@DataJpaTest(properties = "dishes.import.chunk-size=2")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+@Import({DishImportServiceImpl.class, IngredientIdentityResolver.class, DishMapper.class, IngredientMapper.class, DishIngredientMapper.class, JpaConfig.class})
+class DishImportServiceImplTest {
+
+    @Autowired
+    private DishImportServiceImpl dishImportService;
+
+    @Autowired
+    private DishRepository dishRepository;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(User.builder()
+                .firstName("Test")
+                .lastName("User")
+                .email("import@example.com")
+                .password("Password1!")
+                .userType(UserType.USER)
+                .enabled(true)
+                .build());
+
+        ingredientRepository.save(Ingredient.builder()
+                .name("Tomato")
+                .category(IngredientCategory.VEGETABLES)
+                .unit(MeasurementUnit.PCS)
+                .user(user)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        dishRepository.deleteAll();
+        ingredientRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void importsNdjsonAndReportsFailedDishesWithoutStopping() {
+        String ndjson = String.join("\n",
+                dish("Soup", "tomato", "PCS"),
+                dish("Broken", "Tomato", "NOT_A_UNIT"),
+                dish("Salad", "Basil", "G").replace("\"people\":2", "\"people\":0"),
+                dish("Pasta", "Basil", "G"),
+                dish("Stew", "TOMATO", "PCS"));
+
+        DishImportResultDTO result = dishImportService.importDishes(stream(ndjson), user);
+
+        assertThat(result.getImported()).isEqualTo(3);
+        assertThat(result.getFailed()).isEqualTo(2);
+        assertThat(result.getErrors()).extracting(DishImportErrorDTO::getIndex).containsExactly(1L, 2L);
+        assertThat(result.getErrors().get(1).getName()).isEqualTo("Salad");
+
+        assertThat(dishRepository.count()).isEqualTo(3);
+        assertThat(ingredientRepository.findByUserOrderByNameAsc(user))
+                .extracting(Ingredient::getName)
+                .containsExactly("Basil", "Tomato");
+    }
+
+    @Test
+    void importsJsonArrayInChunks() {
+        String array = IntStream.range(0, 5)
+                .mapToObj(i -> dish("Dish " + i, "Onion", "PCS"))
+                .collect(Collectors.joining(",", "[", "]"));
+
+        DishImportResultDTO result = dishImportService.importDishes(stream(array), user);
+
+        assertThat(result.getImported()).isEqualTo(5);
+        assertThat(result.getFailed()).isZero();
+        assertThat(ingredientRepository.findByUserOrderByNameAsc(user))
+                .extracting(Ingredient::getName)
+                .containsExactly("Onion", "Tomato");
+    }
+
+    @Test
+    void keepsDishesReadBeforeMalformedJson() {
+        String ndjson = dish("Soup", "Tomato", "PCS") + "\n{\"name\": ";
+
+        DishImportResultDTO result = dishImportService.importDishes(stream(ndjson), user);
+
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getFailed()).isEqualTo(1);
+        assertThat(result.getErrors().get(0).getMessage()).startsWith("Malformed JSON");
+    }
+
+    private static String dish(String name, String ingredient, String unit) {
+        return """
+                {"name":"%s","description":"A dish used for testing","tags":["DINNER"],"type":"ITALIAN",\
+                "imageUrl":"/images/dish.png","people":2,\
+                "cookingSteps":[{"orderIndex":1,"recipeStep":"Cook it"}],\
+                "ingredients":[{"ingredient":{"name":"%s","category":"VEGETABLES","unit":"%s"},"quantity":1}]}"""
+                .formatted(name, ingredient, unit);
+    }
+
+    private static ByteArrayInputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
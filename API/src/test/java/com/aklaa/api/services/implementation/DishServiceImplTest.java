@@ -0,0 +1,266 @@
+package com.aklaa.api.services.implementation;
+
+import com.aklaa.api.config.FullTextSearch;
+import com.aklaa.api.config.JpaConfig;
+import com.aklaa.api.dtos.request.DishIngredientRequestInfoDTO;
+import com.aklaa.api.dtos.request.DishRequestDTO;
+import com.aklaa.api.dtos.request.RecipeStepRequestDTO;
+import com.aklaa.api.dtos.response.DishListResponseDTO;
+import com.aklaa.api.dtos.response.DishResponseDTO;
+import com.aklaa.api.exceptions.InvalidDishTagException;
+import com.aklaa.api.mapper.DishIngredientMapper;
+import com.aklaa.api.mapper.DishMapper;
+import com.aklaa.api.mapper.IngredientMapper;
+import com.aklaa.api.model.*;
+import com.aklaa.api.model.enums.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({DishServiceImpl.class, IngredientIdentityResolver.class, DishMapper.class, IngredientMapper.class, DishIngredientMapper.class, FullTextSearch.class, JpaConfig.class})
+class DishServiceImplTest {
+
+    private static final int DISH_COUNT = 15;
+
+    @Autowired
+    private DishServiceImpl dishService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(User.builder()
+                .firstName("Test")
+                .lastName("User")
+                .email("test@example.com")
+                .password("Password1!")
+                .userType(UserType.USER)
+                .enabled(true)
+                .build());
+
+        Ingredient tomato = entityManager.persist(ingredient("Tomato"));
+        Ingredient basil = entityManager.persist(ingredient("Basil"));
+
+        for (int i = 0; i < DISH_COUNT; i++) {
+            Dish dish = entityManager.persist(Dish.builder()
+                    .name(String.format("Dish %02d", i))
+                    .description("A dish used for testing")
+                    .tags(i % 2 == 0 ? List.of(DishTag.DINNER, DishTag.VEGAN) : List.of(DishTag.DINNER))
+                    .type(CuisineType.ITALIAN)
+                    .imageUrl("/images/dish.png")
+                    .people(2)
+                    .user(user)
+                    .build());
+
+            for (Ingredient ingredient : List.of(tomato, basil)) {
+                dish.getDishIngredients().add(entityManager.persist(DishIngredient.builder()
+                        .id(new DishIngredientKey(dish.getId(), ingredient.getId()))
+                        .dish(dish)
+                        .ingredient(ingredient)
+                        .quantity(BigDecimal.ONE)
+                        .build()));
+            }
+            for (int step = 1; step <= 3; step++) {
+                dish.addStep(entityManager.persist(RecipeStep.builder()
+                        .orderIndex(step)
+                        .recipeStep("Step number " + step)
+                        .dish(dish)
+                        .build()));
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void filterUsesFixedNumberOfQueriesRegardlessOfPageSize() {
+        assertThat(countQueries(() -> dishService.filter(null, null, null, false, PageRequest.of(0, 5, Sort.by("name")), null, user)))
+                .isEqualTo(4);
+
+        entityManager.clear();
+
+        assertThat(countQueries(() -> dishService.filter(null, null, null, false, PageRequest.of(0, 10, Sort.by("name")), null, user)))
+                .isEqualTo(4);
+    }
+
+    @Test
+    void filterReturnsFullyLoadedDishesInRequestedOrder() {
+        DishListResponseDTO result = dishService.filter(null, null, null, false, PageRequest.of(1, 10, Sort.by(Sort.Direction.DESC, "name")), null, user);
+
+        assertThat(result.getTotalElements()).isEqualTo(DISH_COUNT);
+        assertThat(result.getTotalPages()).isEqualTo(2);
+        assertThat(result.getDishes())
+                .extracting(DishResponseDTO::getName)
+                .containsExactly("Dish 04", "Dish 03", "Dish 02", "Dish 01", "Dish 00");
+        assertThat(result.getDishes()).allSatisfy(dish -> {
+            assertThat(dish.getIngredients()).hasSize(2);
+            assertThat(dish.getCookingSteps()).hasSize(3);
+        });
+    }
+
+    @Test
+    void searchOnIngredientNameDoesNotDuplicateDishes() {
+        DishListResponseDTO result = dishService.filter("a", null, null, false, PageRequest.of(0, 50), null, user);
+
+        assertThat(result.getDishes()).hasSize(DISH_COUNT);
+        assertThat(result.getTotalElements()).isEqualTo(DISH_COUNT);
+    }
+
+    @Test
+    void filterOnTagsSupportsAnyAndAllMatching() {
+        PageRequest page = PageRequest.of(0, 50, Sort.by("name"));
+
+        assertThat(dishService.filter(null, null, List.of("vegan", "lunch"), false, page, null, user).getTotalElements())
+                .isEqualTo(8);
+        assertThat(dishService.filter(null, null, List.of("vegan", "dinner"), true, page, null, user).getTotalElements())
+                .isEqualTo(8);
+        assertThat(dishService.filter(null, null, List.of("vegan", "lunch"), true, page, null, user).getTotalElements())
+                .isZero();
+
+        DishResponseDTO first = dishService.filter(null, null, List.of("VEGAN"), false, page, null, user).getDishes().get(0);
+        assertThat(first.getTags()).containsExactly(DishTag.DINNER, DishTag.VEGAN);
+    }
+
+    @Test
+    void filterRejectsUnknownTags() {
+        assertThatThrownBy(() -> dishService.filter(null, null, List.of("vegan", "spicy"), false, PageRequest.of(0, 50), null, user))
+                .isInstanceOf(InvalidDishTagException.class)
+                .hasMessageContaining("spicy");
+    }
+
+    @Test
+    void searchMatchesTagNames() {
+        DishListResponseDTO result = dishService.filter("vega", null, null, false, PageRequest.of(0, 50), null, user);
+
+        assertThat(result.getTotalElements()).isEqualTo(8);
+    }
+
+    @Test
+    void cursorModeWalksAllDishesWithoutCountQuery() {
+        List<String> names = new ArrayList<>();
+        String cursor = "";
+        int pages = 0;
+
+        while (cursor != null) {
+            String current = cursor;
+            DishListResponseDTO[] result = new DishListResponseDTO[1];
+            long queries = countQueries(() -> result[0] = dishService.filter(null, null, null, false, PageRequest.of(0, 4), current, user));
+
+            assertThat(queries).isEqualTo(3);
+            assertThat(result[0].getTotalElements()).isEqualTo(-1);
+            result[0].getDishes().forEach(dish -> names.add(dish.getName()));
+            cursor = result[0].getNextCursor();
+            pages++;
+            entityManager.clear();
+        }
+
+        assertThat(pages).isEqualTo(4);
+        assertThat(names).hasSize(DISH_COUNT).isSorted();
+    }
+
+    @Test
+    void updatingOneStepOnlyWritesThatStep() {
+        Dish dish = entityManager.getEntityManager()
+                .createQuery("SELECT d FROM Dish d WHERE d.name = 'Dish 00'", Dish.class)
+                .getSingleResult();
+
+        DishRequestDTO request = DishRequestDTO.builder()
+                .name(dish.getName())
+                .description(dish.getDescription())
+                .tags(dish.getTags())
+                .type(dish.getType())
+                .imageUrl(dish.getImageUrl())
+                .people(dish.getPeople())
+                .ingredients(dish.getDishIngredients().stream()
+                        .map(di -> new DishIngredientRequestInfoDTO(di.getIngredient().getId(), new BigDecimal("1.0")))
+                        .toList())
+                .steps(dish.getSteps().stream()
+                        .map(step -> RecipeStepRequestDTO.builder()
+                                .id(step.getId())
+                                .orderIndex(step.getOrderIndex())
+                                .stepText(step.getOrderIndex() == 2 ? "Changed second step" : step.getRecipeStep())
+                                .build())
+                        .toList())
+                .build();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        dishService.update(request, dish.getId(), user);
+        entityManager.flush();
+
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(1);
+        assertThat(statistics.getEntityInsertCount()).isZero();
+        assertThat(statistics.getEntityDeleteCount()).isZero();
+    }
+
+    @Test
+    void creatingDishBatchesChildInserts() {
+        List<Ingredient> ingredients = entityManager.getEntityManager()
+                .createQuery("SELECT i FROM Ingredient i", Ingredient.class)
+                .getResultList();
+        entityManager.clear();
+
+        DishRequestDTO request = DishRequestDTO.builder()
+                .name("Big dish")
+                .description("A dish with many steps")
+                .tags(List.of(DishTag.LUNCH))
+                .type(CuisineType.FRENCH)
+                .imageUrl("/images/big.png")
+                .people(4)
+                .ingredients(ingredients.stream()
+                        .map(i -> new DishIngredientRequestInfoDTO(i.getId(), BigDecimal.TEN))
+                        .toList())
+                .steps(IntStream.rangeClosed(1, 20)
+                        .mapToObj(i -> RecipeStepRequestDTO.builder().orderIndex(i).stepText("Step number " + i).build())
+                        .toList())
+                .build();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        dishService.create(request, user);
+        entityManager.flush();
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(23);
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(8);
+    }
+
+    private Ingredient ingredient(String name) {
+        return Ingredient.builder()
+                .name(name)
+                .category(IngredientCategory.VEGETABLES)
+                .unit(MeasurementUnit.G)
+                .user(user)
+                .build();
+    }
+
+    private long countQueries(Runnable action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
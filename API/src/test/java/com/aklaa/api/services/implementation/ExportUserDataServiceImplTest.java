@@ -0,0 +1,146 @@
+package com.aklaa.api.services.implementation;
+
+import com.aklaa.api.config.JpaConfig;
+import com.aklaa.api.dtos.response.UserDTO;
+import com.aklaa.api.mapper.DishMapper;
+import com.aklaa.api.mapper.GroceryListMapper;
+import com.aklaa.api.mapper.IngredientMapper;
+import com.aklaa.api.model.*;
+import com.aklaa.api.model.enums.CuisineType;
+import com.aklaa.api.model.enums.DishTag;
+import com.aklaa.api.model.enums.IngredientCategory;
+import com.aklaa.api.model.enums.MeasurementUnit;
+import com.aklaa.api.model.enums.UserType;
+import com.aklaa.api.services.contract.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = "users.export.chunk-size=2")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({ExportUserDataServiceImpl.class, GroceryListMapper.class, DishMapper.class, IngredientMapper.class, JpaConfig.class})
+class ExportUserDataServiceImplTest {
+
+    @Autowired
+    private ExportUserDataServiceImpl exportUserDataService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @MockitoBean
+    private UserService userService;
+
+    private User user;
+    private final List<Long> ingredients = new ArrayList<>();
+    private final List<Long> dishes = new ArrayList<>();
+    private final List<Long> groceryLists = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(User.builder()
+                .firstName("Test")
+                .lastName("User")
+                .email("export@example.com")
+                .password("Password1!")
+                .userType(UserType.USER)
+                .enabled(true)
+                .build());
+        when(userService.get(user.getId())).thenReturn(UserDTO.builder().id(user.getId()).email(user.getEmail()).build());
+
+        // Five of each, so every section spans several chunks and ends with a partial one.
+        for (int i = 0; i < 5; i++) {
+            Ingredient ingredient = entityManager.persist(Ingredient.builder()
+                    .name("Ingredient " + i)
+                    .category(IngredientCategory.VEGETABLES)
+                    .unit(MeasurementUnit.G)
+                    .user(user)
+                    .build());
+            ingredients.add(ingredient.getId());
+
+            Dish dish = entityManager.persist(Dish.builder()
+                    .name("Dish " + i)
+                    .description("A dish used for testing")
+                    .tags(List.of(DishTag.DINNER))
+                    .type(CuisineType.ITALIAN)
+                    .imageUrl("/images/dish.png")
+                    .people(2)
+                    .user(user)
+                    .build());
+            dish.getDishIngredients().add(entityManager.persist(DishIngredient.builder()
+                    .id(new DishIngredientKey(dish.getId(), ingredient.getId()))
+                    .dish(dish)
+                    .ingredient(ingredient)
+                    .quantity(BigDecimal.ONE)
+                    .build()));
+            dish.addStep(entityManager.persist(RecipeStep.builder()
+                    .orderIndex(1)
+                    .recipeStep("Only step")
+                    .dish(dish)
+                    .build()));
+            dishes.add(dish.getId());
+
+            GroceryList list = GroceryList.builder().user(user).build();
+            list.getGroceryListIngredients().add(GroceryListIngredient.builder()
+                    .id(new GroceryListIngredientKey(null, ingredient.getId()))
+                    .groceryList(list)
+                    .ingredient(ingredient)
+                    .quantity(BigDecimal.valueOf(i + 1))
+                    .slot(0)
+                    .build());
+            entityManager.persist(list);
+            groceryLists.add(list.getId());
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void writesEverySectionInChunksWithoutClosingTheStream() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                throw new AssertionError("The export must not close the stream");
+            }
+        };
+
+        exportUserDataService.writeUserData(user, out);
+
+        JsonNode export = objectMapper.readTree(out.toByteArray());
+        assertThat(export.get("user").get("email").asText()).isEqualTo("export@example.com");
+        assertThat(ids(export.get("ingredients"))).containsExactlyElementsOf(ingredients);
+        assertThat(ids(export.get("dishes"))).containsExactlyElementsOf(dishes);
+        assertThat(export.get("dishes").get(4).get("ingredients")).hasSize(1);
+        assertThat(export.get("dishes").get(4).get("cookingSteps")).hasSize(1);
+        assertThat(StreamSupport.stream(export.get("groceryLists").spliterator(), false)
+                .map(list -> list.get("groceryList").get("id").asLong())
+                .toList())
+                .containsExactlyElementsOf(groceryLists);
+        assertThat(export.get("groceryLists").get(2).get("ingredients").get(0).get("quantity").decimalValue())
+                .isEqualByComparingTo("3");
+    }
+
+    private List<Long> ids(JsonNode array) {
+        return StreamSupport.stream(array.spliterator(), false).map(node -> node.get("id").asLong()).toList();
+    }
+}
@@ -0,0 +1,213 @@
+package com.aklaa.api.services.implementation;
+
+import com.aklaa.api.config.JpaConfig;
+import com.aklaa.api.dao.GroceryListRepository;
+import com.aklaa.api.dtos.response.ArchivedGroceryListDTO;
+import com.aklaa.api.dtos.response.ArchivedGroceryListPageDTO;
+import com.aklaa.api.mapper.DishMapper;
+import com.aklaa.api.mapper.GroceryListMapper;
+import com.aklaa.api.mapper.IngredientMapper;
+import com.aklaa.api.model.*;
+import com.aklaa.api.model.enums.IngredientCategory;
+import com.aklaa.api.model.enums.MeasurementUnit;
+import com.aklaa.api.model.enums.UserType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest(properties = "grocerylists.archive.chunk-size=2")
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({GroceryListArchiveServiceImpl.class, GroceryListCheckBuffer.class, GroceryListMapper.class, DishMapper.class, IngredientMapper.class, JpaConfig.class, GroceryListArchiveServiceImplTest.StorageConfig.class})
+class GroceryListArchiveServiceImplTest {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.parse("2026-10-17T12:00:00Z");
+
+    @TestConfiguration
+    static class StorageConfig {
+        @Bean
+        InMemoryMinioService minioService() {
+            return new InMemoryMinioService();
+        }
+    }
+
+    @Autowired
+    private GroceryListArchiveServiceImpl groceryListArchiveService;
+
+    @Autowired
+    private GroceryListCheckBuffer groceryListCheckBuffer;
+
+    @Autowired
+    private InMemoryMinioService minioService;
+
+    @Autowired
+    private GroceryListRepository groceryListRepository;
+
+    @Autowired
+    private GroceryListMapper groceryListMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User user;
+    private Ingredient tomato;
+    private final List<Long> expired = new ArrayList<>();
+    private Long kept;
+
+    @BeforeEach
+    void setUp() {
+        minioService.objects.clear();
+
+        user = entityManager.persist(User.builder()
+                .firstName("Test")
+                .lastName("User")
+                .email("archive@example.com")
+                .password("Password1!")
+                .userType(UserType.USER)
+                .enabled(true)
+                .build());
+        tomato = entityManager.persist(Ingredient.builder()
+                .name("Tomato")
+                .category(IngredientCategory.VEGETABLES)
+                .unit(MeasurementUnit.G)
+                .user(user)
+                .build());
+
+        for (int i = 0; i < 5; i++) {
+            expired.add(groceryList(NOW.minusMonths(2).plusDays(i), i + 1));
+        }
+        kept = groceryList(NOW.minusDays(1), 9);
+        entityManager.clear();
+    }
+
+    @Test
+    void expiredListsAreMovedToOneCompressedObjectPerUser() {
+        assertThat(groceryListArchiveService.archiveCreatedBefore(NOW.minusMonths(1))).isTrue();
+
+        assertThat(minioService.objects).hasSize(1);
+        assertThat(minioService.objects.keySet().iterator().next())
+                .startsWith(GroceryListArchiveServiceImpl.PREFIX + user.getId() + "/")
+                .endsWith("-5.ndjson.gz");
+        assertThat(entityManager.getEntityManager().createQuery("SELECT g.id FROM GroceryList g", Long.class).getResultList())
+                .containsExactly(kept);
+        assertThat(entityManager.getEntityManager().createQuery("SELECT gli.id.groceryListId FROM GroceryListIngredient gli", Long.class).getResultList())
+                .containsExactly(kept);
+    }
+
+    @Test
+    void archivedListsArePagedNewestFirstAcrossObjects() throws Exception {
+        groceryListArchiveService.archiveCreatedBefore(NOW.minusMonths(2).plusDays(2));
+        groceryListArchiveService.archiveCreatedBefore(NOW.minusMonths(1));
+        assertThat(minioService.objects).hasSize(2);
+
+        ArchivedGroceryListPageDTO first = groceryListArchiveService.getArchivedGroceryLists(user, PageRequest.of(0, 2));
+        ArchivedGroceryListPageDTO second = groceryListArchiveService.getArchivedGroceryLists(user, PageRequest.of(1, 2));
+        ArchivedGroceryListPageDTO third = groceryListArchiveService.getArchivedGroceryLists(user, PageRequest.of(2, 2));
+
+        assertThat(first.getTotalElements()).isEqualTo(5);
+        assertThat(first.getTotalPages()).isEqualTo(3);
+        assertThat(List.of(first, second, third))
+                .flatExtracting(ArchivedGroceryListPageDTO::getGroceryLists)
+                .extracting(ArchivedGroceryListDTO::getId)
+                .containsExactlyElementsOf(expired.reversed());
+        assertThat(second.getGroceryLists().get(0).getIngredients())
+                .singleElement()
+                .satisfies(item -> {
+                    assertThat(item.getIngredient().getName()).isEqualTo("Tomato");
+                    assertThat(item.getQuantity()).isEqualByComparingTo("3");
+                });
+    }
+
+    @Test
+    void listsStoredBeforeAFailedDeleteAreNotStoredAgain() throws Exception {
+        GroceryListRepository failingRepository = mock(GroceryListRepository.class, delegatesTo(groceryListRepository));
+        AtomicInteger deletes = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (deletes.incrementAndGet() > 1) {
+                throw new IllegalStateException("connection lost");
+            }
+            return groceryListRepository.deleteAllByIdIn(invocation.getArgument(0));
+        }).when(failingRepository).deleteAllByIdIn(anyCollection());
+        GroceryListArchiveServiceImpl failingService = new GroceryListArchiveServiceImpl(failingRepository,
+                groceryListMapper, groceryListCheckBuffer, minioService, objectMapper, transactionTemplate, 2);
+
+        assertThat(failingService.archiveCreatedBefore(NOW.minusMonths(1))).isFalse();
+        assertThat(groceryListArchiveService.archiveCreatedBefore(NOW.minusMonths(1))).isTrue();
+
+        assertThat(minioService.objects).hasSize(1);
+        assertThat(groceryListArchiveService.getArchivedGroceryLists(user, PageRequest.of(0, 10)).getGroceryLists())
+                .extracting(ArchivedGroceryListDTO::getId)
+                .containsExactlyElementsOf(expired.reversed());
+        assertThat(entityManager.getEntityManager().createQuery("SELECT g.id FROM GroceryList g", Long.class).getResultList())
+                .containsExactly(kept);
+    }
+
+    @Test
+    void checkOffsThatAreStillBufferedAreArchived() throws Exception {
+        groceryListCheckBuffer.record(expired.get(0), Map.of(0, true));
+
+        groceryListArchiveService.archiveCreatedBefore(NOW.minusMonths(1));
+
+        assertThat(groceryListArchiveService.getArchivedGroceryLists(user, PageRequest.of(0, 10)).getGroceryLists())
+                .filteredOn(list -> list.getId().equals(expired.get(0)))
+                .singleElement()
+                .satisfies(list -> assertThat(list.getIngredients()).singleElement().extracting("checked").isEqualTo(true));
+    }
+
+    @Test
+    void deletingTheArchiveOfAUserKeepsTheArchivesOfOthers() throws Exception {
+        groceryListArchiveService.archiveCreatedBefore(NOW.minusMonths(1));
+        String otherUsersObject = GroceryListArchiveServiceImpl.PREFIX + (user.getId() + 1) + "/other.ndjson.gz";
+        minioService.objects.put(otherUsersObject, new byte[0]);
+
+        groceryListArchiveService.deleteArchivedGroceryLists(user.getId());
+
+        assertThat(minioService.objects).containsOnlyKeys(otherUsersObject);
+    }
+
+    private Long groceryList(OffsetDateTime createdAt, int quantity) {
+        GroceryList list = GroceryList.builder().user(user).build();
+        list.getGroceryListIngredients().add(GroceryListIngredient.builder()
+                .id(new GroceryListIngredientKey(null, tomato.getId()))
+                .groceryList(list)
+                .ingredient(tomato)
+                .quantity(BigDecimal.valueOf(quantity))
+                .slot(0)
+                .build());
+        entityManager.persist(list);
+        entityManager.flush();
+        entityManager.getEntityManager().createQuery("UPDATE GroceryList g SET g.createdAt = :createdAt WHERE g.id = :id")
+                .setParameter("createdAt", createdAt)
+                .setParameter("id", list.getId())
+                .executeUpdate();
+        return list.getId();
+    }
+}
@@ -0,0 +1,172 @@
+package com.aklaa.api.services.implementation;
+
+import com.aklaa.api.config.GroceryListPartitioning;
+import com.aklaa.api.config.JpaConfig;
+import com.aklaa.api.dao.GroceryListRepository;
+import com.aklaa.api.model.*;
+import com.aklaa.api.model.enums.IngredientCategory;
+import com.aklaa.api.model.enums.MeasurementUnit;
+import com.aklaa.api.model.enums.UserType;
+import com.aklaa.api.services.contract.GroceryListArchiveService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = "grocerylists.retention.chunk-size=2")
+@Import({GroceryListRetention.class, GroceryListPartitioning.class, JpaConfig.class, GroceryListRetentionTest.MetricsConfig.class})
+class GroceryListRetentionTest {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.parse("2026-10-17T12:00:00Z");
+
+    @TestConfiguration
+    static class MetricsConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @MockitoBean
+    private GroceryListArchiveService groceryListArchiveService;
+
+    @Autowired
+    private GroceryListRetention groceryListRetention;
+
+    @Autowired
+    private GroceryListRepository groceryListRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final List<Long> expired = new ArrayList<>();
+    private final List<Long> kept = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User user = entityManager.persist(User.builder()
+                .firstName("Test")
+                .lastName("User")
+                .email("retention@example.com")
+                .password("Password1!")
+                .userType(UserType.USER)
+                .enabled(true)
+                .build());
+        Ingredient tomato = entityManager.persist(Ingredient.builder()
+                .name("Tomato")
+                .category(IngredientCategory.VEGETABLES)
+                .unit(MeasurementUnit.G)
+                .user(user)
+                .build());
+
+        for (int i = 0; i < 7; i++) {
+            GroceryList list = GroceryList.builder().user(user).build();
+            list.getGroceryListIngredients().add(GroceryListIngredient.builder()
+                    .id(new GroceryListIngredientKey(null, tomato.getId()))
+                    .groceryList(list)
+                    .ingredient(tomato)
+                    .quantity(BigDecimal.ONE)
+                    .slot(0)
+                    .build());
+            entityManager.persist(list);
+            entityManager.flush();
+
+            OffsetDateTime createdAt = i < 5 ? NOW.minusMonths(2).plusDays(i) : NOW.minusDays(i);
+            entityManager.getEntityManager().createQuery("UPDATE GroceryList g SET g.createdAt = :createdAt WHERE g.id = :id")
+                    .setParameter("createdAt", createdAt)
+                    .setParameter("id", list.getId())
+                    .executeUpdate();
+            (i < 5 ? expired : kept).add(list.getId());
+        }
+        entityManager.clear();
+    }
+
+    @Test
+    void expiredListsAndTheirItemsAreDeletedInChunks() {
+        groceryListRetention.purgeCreatedBefore(NOW.minusMonths(1));
+
+        assertThat(entityManager.getEntityManager().createQuery("SELECT g.id FROM GroceryList g", Long.class).getResultList())
+                .containsExactlyInAnyOrderElementsOf(kept);
+        assertThat(entityManager.getEntityManager().createQuery("SELECT gli.id.groceryListId FROM GroceryListIngredient gli", Long.class).getResultList())
+                .containsExactlyInAnyOrderElementsOf(kept);
+
+        assertThat(purged(GroceryListPartitioning.LISTS_TABLE)).isEqualTo(expired.size());
+        assertThat(purged(GroceryListPartitioning.ITEMS_TABLE)).isEqualTo(expired.size());
+        assertThat(meterRegistry.get("grocerylists.retention.duration").tag("strategy", GroceryListRetention.CHUNKED_DELETE).timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void itemsAddedInALaterMonthAreDeletedBeforeTheMonthOfTheirListIsDropped() {
+        // The partitions are simulated: every item is taken to be in a later, kept month than its list.
+        GroceryListPartitioning partitioning = mock(GroceryListPartitioning.class);
+        when(partitioning.isEnabled()).thenReturn(true);
+        when(partitioning.partitionsBefore(eq(GroceryListPartitioning.LISTS_TABLE), any())).thenReturn(List.of("p202608"));
+        when(partitioning.partitionsBefore(eq(GroceryListPartitioning.ITEMS_TABLE), any())).thenReturn(List.of());
+        when(partitioning.findListIds(eq("p202608"), anyLong(), anyInt())).thenAnswer(invocation -> expired.stream()
+                .filter(id -> id > invocation.<Long>getArgument(1))
+                .limit(invocation.<Integer>getArgument(2))
+                .toList());
+        doAnswer(invocation -> {
+            assertThat(remainingItemsOf(expired)).isEmpty();
+            return null;
+        }).when(partitioning).drop(GroceryListPartitioning.LISTS_TABLE, "p202608");
+
+        MeterRegistry registry = new SimpleMeterRegistry();
+        new GroceryListRetention(groceryListRepository, partitioning, groceryListArchiveService, transactionTemplate, registry, 2, false)
+                .purgeCreatedBefore(NOW.minusMonths(1));
+
+        verify(partitioning).drop(GroceryListPartitioning.LISTS_TABLE, "p202608");
+        assertThat(remainingItemsOf(kept)).hasSize(kept.size());
+        assertThat(registry.get("grocerylists.retention.purged")
+                .tag("table", GroceryListPartitioning.ITEMS_TABLE)
+                .tag("strategy", GroceryListRetention.PARTITION_DROP)
+                .counter()
+                .count())
+                .isEqualTo(expired.size());
+    }
+
+    private List<Long> remainingItemsOf(List<Long> groceryListIds) {
+        return entityManager.getEntityManager()
+                .createQuery("SELECT gli.id.groceryListId FROM GroceryListIngredient gli WHERE gli.id.groceryListId IN :ids", Long.class)
+                .setParameter("ids", groceryListIds)
+                .getResultList();
+    }
+
+    private double purged(String table) {
+        return meterRegistry.get("grocerylists.retention.purged")
+                .tag("table", table)
+                .tag("strategy", GroceryListRetention.CHUNKED_DELETE)
+                .counter()
+                .count();
+    }
+}
@@ -0,0 +1,423 @@
+package com.aklaa.api.services.implementation;
+
+import com.aklaa.api.config.JpaConfig;
+import com.aklaa.api.dao.GroceryListItemSlot;
+import com.aklaa.api.dao.GroceryListRepository;
+import com.aklaa.api.dtos.request.CartDishRequestDTO;
+import com.aklaa.api.dtos.request.GroceryListCheckRequestDTO;
+import com.aklaa.api.dtos.request.GroceryListItemsPatchRequestDTO;
+import com.aklaa.api.dtos.response.GroceryListIngredientListResponseDTO;
+import com.aklaa.api.dtos.response.GroceryListIngredientResponseDTO;
+import com.aklaa.api.dtos.response.GroceryListResponseDTO;
+import com.aklaa.api.dtos.response.IngredientResponseDTO;
+import com.aklaa.api.exceptions.EmptyGroceryListException;
+import com.aklaa.api.exceptions.InvalidGroceryListPatchException;
+import com.aklaa.api.mapper.DishMapper;
+import com.aklaa.api.mapper.GroceryListMapper;
+import com.aklaa.api.mapper.IngredientMapper;
+import com.aklaa.api.model.*;
+import com.aklaa.api.model.enums.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({GroceryListServiceImpl.class, GroceryListAggregator.class, GroceryListCheckBuffer.class, GroceryListMapper.class, IngredientMapper.class, DishMapper.class, JpaConfig.class})
+class GroceryListServiceImplTest {
+
+    private static final int DISH_COUNT = 14;
+
+    @Autowired
+    private GroceryListServiceImpl groceryListService;
+
+    @Autowired
+    private GroceryListAggregator groceryListAggregator;
+
+    @Autowired
+    private GroceryListCheckBuffer groceryListCheckBuffer;
+
+    @Autowired
+    private GroceryListRepository groceryListRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User user;
+    private Ingredient tomato;
+    private Ingredient onion;
+    private final List<Long> dishIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // Ids are reused once a test rolls back, so buffered changes must not outlive their test.
+        groceryListCheckBuffer.flush();
+
+        user = entityManager.persist(User.builder()
+                .firstName("Test")
+                .lastName("User")
+                .email("groceries@example.com")
+                .password("Password1!")
+                .userType(UserType.USER)
+                .enabled(true)
+                .build());
+
+        tomato = entityManager.persist(ingredient("Tomato", IngredientCategory.VEGETABLES));
+        onion = entityManager.persist(ingredient("Onion", IngredientCategory.VEGETABLES));
+        Ingredient pasta = entityManager.persist(ingredient("Pasta", IngredientCategory.PASTA));
+
+        for (int i = 0; i < DISH_COUNT; i++) {
+            Dish dish = entityManager.persist(Dish.builder()
+                    .name("Dish " + i)
+                    .description("A dish used for testing")
+                    .tags(List.of(DishTag.DINNER))
+                    .type(CuisineType.ITALIAN)
+                    .imageUrl("/images/dish.png")
+                    .people(3)
+                    .user(user)
+                    .build());
+
+            Map<Ingredient, String> quantities = i % 2 == 0
+                    ? Map.of(tomato, "1", onion, "0.5")
+                    : Map.of(tomato, "2", pasta, "300");
+            quantities.forEach((ingredient, quantity) -> dish.getDishIngredients().add(entityManager.persist(DishIngredient.builder()
+                    .id(new DishIngredientKey(dish.getId(), ingredient.getId()))
+                    .dish(dish)
+                    .ingredient(ingredient)
+                    .quantity(new BigDecimal(quantity))
+                    .build())));
+            dish.addStep(entityManager.persist(RecipeStep.builder()
+                    .orderIndex(1)
+                    .recipeStep("Cook it")
+                    .dish(dish)
+                    .build()));
+            dishIds.add(dish.getId());
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void aggregatingACartIsOneQueryRegardlessOfItsSize() {
+        assertThat(countQueries(() -> groceryListAggregator.aggregate(cart(DISH_COUNT, 2)))).isEqualTo(1);
+        assertThat(countQueries(() -> groceryListAggregator.aggregate(cart(2, 2)))).isEqualTo(1);
+    }
+
+    @Test
+    void aggregationScalesPerCartEntryAndSums() {
+        List<CartDishRequestDTO> cart = new ArrayList<>(cart(2, 6));
+        cart.add(entry(dishIds.get(0), 1));
+
+        Map<Long, BigDecimal> totals = groceryListAggregator.aggregate(cart);
+
+        // 1 * 6/3 + 2 * 6/3 + 1 * 1/3
+        assertThat(totals.get(tomato.getId())).isEqualByComparingTo("6.333");
+        // 0.5 * 6/3 + 0.5 * 1/3
+        assertThat(totals.get(onion.getId())).isEqualByComparingTo("1.167");
+        assertThat(totals).hasSize(3);
+    }
+
+    @Test
+    void previewSortsByCategoryAndNameWithoutSaving() {
+        List<GroceryListIngredientResponseDTO> preview = groceryListService.previewCart(cart(DISH_COUNT, 3));
+
+        assertThat(preview)
+                .extracting(item -> item.getIngredient().getName())
+                .containsExactly("Onion", "Tomato", "Pasta");
+        assertThat(preview.get(1).getQuantity()).isEqualByComparingTo("21");
+        assertThat(entityManager.getEntityManager().createQuery("SELECT COUNT(g) FROM GroceryList g", Long.class).getSingleResult())
+                .isZero();
+    }
+
+    @Test
+    void createFromCartSavesTheAggregatedQuantities() {
+        OffsetDateTime start = OffsetDateTime.parse("2026-01-05T00:00:00Z");
+        GroceryListResponseDTO created = groceryListService.createFromCart(cart(DISH_COUNT, 3), start, start.plusDays(6), user);
+        entityManager.flush();
+        entityManager.clear();
+
+        GroceryList saved = entityManager.find(GroceryList.class, created.getId());
+        assertThat(saved.getGroceryListIngredients())
+                .extracting(item -> item.getIngredient().getName(), item -> item.getQuantity().stripTrailingZeros().toPlainString())
+                .containsExactlyInAnyOrder(
+                        tuple("Tomato", "21"),
+                        tuple("Onion", "3.5"),
+                        tuple("Pasta", "2100"));
+    }
+
+    @Test
+    void cartIngredientsAreLoadedInOneQueryInsteadOfOneByOne() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        OffsetDateTime start = OffsetDateTime.parse("2026-01-05T00:00:00Z");
+
+        // The cart's quantities, its ingredients and their owner, however many dishes and ingredients there are.
+        assertThat(countQueries(() -> groceryListService.previewCart(cart(DISH_COUNT, 3)))).isEqualTo(3);
+        entityManager.clear();
+        assertThat(countQueries(() -> groceryListService.previewCart(cart(1, 3)))).isEqualTo(3);
+
+        // Saving refers to the ingredients by id, so none of them is read at all.
+        statistics.clear();
+        groceryListService.createFromCart(cart(DISH_COUNT, 3), start, start.plusDays(6), user);
+        entityManager.flush();
+        assertThat(statistics.getEntityStatistics(Ingredient.class.getName()).getLoadCount()).isZero();
+        assertThat(statistics.getEntityStatistics(Ingredient.class.getName()).getFetchCount()).isZero();
+    }
+
+    @Test
+    void createFromCartWithoutExistingDishesIsRejected() {
+        assertThatThrownBy(() -> groceryListService.createFromCart(List.of(entry(-1L, 2)), OffsetDateTime.now(), OffsetDateTime.now(), user))
+                .isInstanceOf(EmptyGroceryListException.class)
+                .hasMessage("None of the dishes in the cart have ingredients");
+        assertThat(entityManager.getEntityManager().createQuery("SELECT COUNT(g) FROM GroceryList g", Long.class).getSingleResult())
+                .isZero();
+    }
+
+    @Test
+    void ingredientsOfAGroceryListArePagedAndOrderedInTheDatabase() {
+        OffsetDateTime start = OffsetDateTime.parse("2026-01-05T00:00:00Z");
+        Long id = groceryListService.createFromCart(cart(DISH_COUNT, 3), start, start.plusDays(6), user).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        // The list with its (eagerly loaded) owner, one page of items and the count.
+        GroceryListIngredientListResponseDTO[] page = new GroceryListIngredientListResponseDTO[1];
+        assertThat(countQueries(() -> page[0] = groceryListService.getIngredientOfGroceryList(id, user, PageRequest.of(0, 2))))
+                .isEqualTo(4);
+        assertThat(page[0].getIngredients())
+                .extracting(item -> item.getIngredient().getName())
+                .containsExactly("Onion", "Tomato");
+        assertThat(page[0].getTotalElements()).isEqualTo(3);
+        assertThat(page[0].getTotalPages()).isEqualTo(2);
+
+        assertThat(groceryListService.getIngredientOfGroceryList(id, user, PageRequest.of(1, 2)).getIngredients())
+                .extracting(item -> item.getIngredient().getName(), item -> item.getQuantity().stripTrailingZeros().toPlainString())
+                .containsExactly(tuple("Pasta", "2100"));
+        assertThat(groceryListService.getIngredientOfGroceryList(id, user))
+                .extracting(IngredientResponseDTO::getName)
+                .containsExactly("Onion", "Tomato", "Pasta");
+    }
+
+    @Test
+    void patchTouchesOnlyTheAffectedItems() {
+        OffsetDateTime start = OffsetDateTime.parse("2026-01-05T00:00:00Z");
+        Long id = groceryListService.createFromCart(cart(2, 3), start, start.plusDays(6), user).getId();
+        Ingredient garlic = entityManager.persist(ingredient("Garlic", IngredientCategory.VEGETABLES));
+        entityManager.flush();
+        entityManager.clear();
+
+        GroceryListItemsPatchRequestDTO patch = GroceryListItemsPatchRequestDTO.builder()
+                .add(Map.of(garlic.getId(), new BigDecimal("2")))
+                .update(Map.of(tomato.getId(), new BigDecimal("5")))
+                .remove(Set.of(onion.getId()))
+                .build();
+
+        // Ownership, the touched items, the added ingredients, then one delete, one update,
+        // reserving a slot (advance and read the counter) and one insert.
+        assertThat(countQueries(() -> assertThat(groceryListService.patchIngredientsOfGroceryList(id, patch, user)).isTrue()))
+                .isLessThanOrEqualTo(8);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(groceryListService.getIngredientOfGroceryList(id, user, PageRequest.of(0, 10)).getIngredients())
+                .extracting(item -> item.getIngredient().getName(), item -> item.getQuantity().stripTrailingZeros().toPlainString())
+                .containsExactly(tuple("Garlic", "2"), tuple("Tomato", "5"), tuple("Pasta", "300"));
+    }
+
+    @Test
+    void patchRejectsImpossibleOperationsAndUnknownLists() {
+        OffsetDateTime start = OffsetDateTime.parse("2026-01-05T00:00:00Z");
+        Long id = groceryListService.createFromCart(cart(1, 3), start, start.plusDays(6), user).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThatThrownBy(() -> groceryListService.patchIngredientsOfGroceryList(id, GroceryListItemsPatchRequestDTO.builder()
+                .add(Map.of(tomato.getId(), BigDecimal.ONE))
+                .build(), user))
+                .isInstanceOf(InvalidGroceryListPatchException.class);
+        assertThatThrownBy(() -> groceryListService.patchIngredientsOfGroceryList(id, GroceryListItemsPatchRequestDTO.builder()
+                .update(Map.of(tomato.getId(), BigDecimal.ONE))
+                .remove(Set.of(tomato.getId()))
+                .build(), user))
+                .isInstanceOf(InvalidGroceryListPatchException.class);
+        assertThatThrownBy(() -> groceryListService.patchIngredientsOfGroceryList(id, GroceryListItemsPatchRequestDTO.builder()
+                .remove(Set.of(-1L))
+                .build(), user))
+                .isInstanceOf(InvalidGroceryListPatchException.class);
+        assertThat(groceryListService.patchIngredientsOfGroceryList(-1L, GroceryListItemsPatchRequestDTO.builder()
+                .remove(Set.of(tomato.getId()))
+                .build(), user))
+                .isFalse();
+    }
+
+    @Test
+    void checkedItemsAreBufferedAndFlushedInOneWritePerList() {
+        OffsetDateTime start = OffsetDateTime.parse("2026-01-05T00:00:00Z");
+        Long id = groceryListService.createFromCart(cart(2, 3), start, start.plusDays(6), user).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        // Ownership and the slots of the items; nothing is written yet.
+        assertThat(countQueries(() -> {
+            groceryListService.checkIngredientsOfGroceryList(id, check(Map.of(tomato.getId(), true, onion.getId(), true)), user);
+            groceryListService.checkIngredientsOfGroceryList(id, check(Map.of(tomato.getId(), false)), user);
+        })).isEqualTo(4);
+        assertThat(checkedNames(id)).containsExactly("Onion");
+
+        // One locking read and one update, however many taps were buffered.
+        assertThat(countQueries(groceryListCheckBuffer::flush)).isEqualTo(2);
+        entityManager.clear();
+        assertThat(checkedNames(id)).containsExactly("Onion");
+        assertThat(countQueries(groceryListCheckBuffer::flush)).isZero();
+    }
+
+    @Test
+    void slotsOfRemovedItemsAreNotReused() {
+        OffsetDateTime start = OffsetDateTime.parse("2026-01-05T00:00:00Z");
+        Long id = groceryListService.createFromCart(cart(2, 3), start, start.plusDays(6), user).getId();
+        Ingredient garlic = entityManager.persist(ingredient("Garlic", IngredientCategory.VEGETABLES));
+        entityManager.flush();
+        entityManager.clear();
+
+        Long pasta = ingredientId(id, "Pasta");
+        groceryListService.checkIngredientsOfGroceryList(id, check(Map.of(pasta, true)), user);
+        groceryListService.patchIngredientsOfGroceryList(id, GroceryListItemsPatchRequestDTO.builder()
+                .remove(Set.of(pasta))
+                .add(Map.of(garlic.getId(), BigDecimal.ONE))
+                .build(), user);
+        groceryListCheckBuffer.flush();
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(groceryListRepository.findItemSlots(id, Set.of(garlic.getId())))
+                .extracting(GroceryListItemSlot::slot)
+                .containsExactly(3);
+        assertThat(checkedNames(id)).isEmpty();
+        assertThatThrownBy(() -> groceryListService.checkIngredientsOfGroceryList(id, check(Map.of(pasta, true)), user))
+                .isInstanceOf(InvalidGroceryListPatchException.class)
+                .hasMessageContaining("is not on the grocery list");
+    }
+
+    @Test
+    void listsWithoutACounterUncheckReusedSlotsInTheSameTransaction() {
+        OffsetDateTime start = OffsetDateTime.parse("2026-01-05T00:00:00Z");
+        Long id = groceryListService.createFromCart(cart(2, 3), start, start.plusDays(6), user).getId();
+        Ingredient garlic = entityManager.persist(ingredient("Garlic", IngredientCategory.VEGETABLES));
+        entityManager.flush();
+        Long pasta = ingredientId(id, "Pasta");
+        groceryListService.checkIngredientsOfGroceryList(id, check(Map.of(pasta, true)), user);
+        groceryListCheckBuffer.flush();
+
+        // As if the list was created, and Pasta checked and removed, before lists had a slot counter.
+        groceryListRepository.deleteItems(id, Set.of(pasta));
+        entityManager.getEntityManager().createNativeQuery("UPDATE grocery_lists SET next_slot = NULL WHERE id = :id")
+                .setParameter("id", id)
+                .executeUpdate();
+        entityManager.clear();
+
+        groceryListService.patchIngredientsOfGroceryList(id, GroceryListItemsPatchRequestDTO.builder()
+                .add(Map.of(garlic.getId(), BigDecimal.ONE))
+                .build(), user);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(groceryListRepository.findItemSlots(id, Set.of(garlic.getId())))
+                .extracting(GroceryListItemSlot::slot)
+                .containsExactly(2);
+        assertThat(groceryListRepository.findCheckedItemsForUpdate(List.of(id)))
+                .singleElement()
+                .satisfies(stored -> assertThat(BitSet.valueOf(stored.checkedItems()).isEmpty()).isTrue());
+    }
+
+    @Test
+    void itemsBeyondTheCheckableSlotsCannotBeCheckedOff() {
+        OffsetDateTime start = OffsetDateTime.parse("2026-01-05T00:00:00Z");
+        Long id = groceryListService.createFromCart(cart(1, 3), start, start.plusDays(6), user).getId();
+        Ingredient garlic = entityManager.persist(ingredient("Garlic", IngredientCategory.VEGETABLES));
+        entityManager.flush();
+        entityManager.getEntityManager().createNativeQuery("UPDATE grocery_lists SET next_slot = :slot WHERE id = :id")
+                .setParameter("slot", GroceryList.MAX_CHECKABLE_ITEMS)
+                .setParameter("id", id)
+                .executeUpdate();
+        entityManager.clear();
+
+        groceryListService.patchIngredientsOfGroceryList(id, GroceryListItemsPatchRequestDTO.builder()
+                .add(Map.of(garlic.getId(), BigDecimal.ONE))
+                .build(), user);
+
+        assertThatThrownBy(() -> groceryListService.checkIngredientsOfGroceryList(id, check(Map.of(garlic.getId(), true)), user))
+                .isInstanceOf(InvalidGroceryListPatchException.class)
+                .hasMessageContaining("cannot be checked off");
+    }
+
+    private Long ingredientId(Long groceryListId, String name) {
+        return groceryListService.getIngredientOfGroceryList(groceryListId, user).stream()
+                .filter(ingredient -> ingredient.getName().equals(name))
+                .findFirst()
+                .orElseThrow()
+                .getId();
+    }
+
+    private List<String> checkedNames(Long id) {
+        return groceryListService.getIngredientOfGroceryList(id, user, PageRequest.of(0, 10)).getIngredients().stream()
+                .filter(GroceryListIngredientResponseDTO::isChecked)
+                .map(item -> item.getIngredient().getName())
+                .toList();
+    }
+
+    private static GroceryListCheckRequestDTO check(Map<Long, Boolean> checked) {
+        return GroceryListCheckRequestDTO.builder().checked(checked).build();
+    }
+
+    private List<CartDishRequestDTO> cart(int dishes, int people) {
+        return dishIds.subList(0, dishes).stream()
+                .map(id -> entry(id, people))
+                .toList();
+    }
+
+    private static CartDishRequestDTO entry(Long dishId, int people) {
+        return CartDishRequestDTO.builder()
+                .dishId(dishId)
+                .dayOfWeek(DayOfWeek.MONDAY)
+                .people(people)
+                .build();
+    }
+
+    private Ingredient ingredient(String name, IngredientCategory category) {
+        return Ingredient.builder()
+                .name(name)
+                .category(category)
+                .unit(MeasurementUnit.G)
+                .user(user)
+                .build();
+    }
+
+    private long countQueries(Runnable action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
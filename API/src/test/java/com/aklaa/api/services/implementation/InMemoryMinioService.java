@@ -0,0 +1,69 @@
+package com.aklaa.api.services.implementation;
+
+import com.aklaa.api.services.contract.MinioService;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * {@link MinioService} that keeps objects in memory. Public and presigned URLs are made up of {@link #BUCKET_URL}
+ * and the object name.
+ */
+class InMemoryMinioService implements MinioService {
+
+    static final String BUCKET_URL = "http://minio.test/bucket/";
+
+    final Map<String, byte[]> objects = Collections.synchronizedMap(new TreeMap<>());
+
+    @Override
+    public String uploadFile(MultipartFile file) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void putObject(String objectName, InputStream stream, long size, String contentType) throws Exception {
+        objects.put(objectName, stream.readAllBytes());
+    }
+
+    @Override
+    public InputStream getObject(String objectName) {
+        byte[] content = objects.get(objectName);
+        if (content == null) {
+            throw new NoSuchElementException(objectName);
+        }
+        return new ByteArrayInputStream(content);
+    }
+
+    @Override
+    public List<String> listObjects(String prefix) {
+        synchronized (objects) {
+            return objects.keySet().stream().filter(name -> name.startsWith(prefix)).toList();
+        }
+    }
+
+    @Override
+    public void removeObject(String objectName) {
+        objects.remove(objectName);
+    }
+
+    @Override
+    public String getPresignedUrl(String objectName, Duration expiry) {
+        return BUCKET_URL + objectName + "?expires=" + expiry.toSeconds();
+    }
+
+    @Override
+    public Optional<String> findObjectName(String url) {
+        if (!url.startsWith(BUCKET_URL + "uploads/") || url.contains("..")) {
+            return Optional.empty();
+        }
+        return Optional.of(url.substring(BUCKET_URL.length()));
+    }
+
+    @Override
+    public boolean isPublicUrl(String url) {
+        return url == null || !url.startsWith(BUCKET_URL) || findObjectName(url).isPresent();
+    }
+}
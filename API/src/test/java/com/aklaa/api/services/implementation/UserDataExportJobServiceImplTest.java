@@ -0,0 +1,272 @@
+package com.aklaa.api.services.implementation;
+
+import com.aklaa.api.config.JpaConfig;
+import com.aklaa.api.dao.DishRepository;
+import com.aklaa.api.dao.UserDataExportJobRepository;
+import com.aklaa.api.dao.UserRepository;
+import com.aklaa.api.dtos.response.UserDataExportJobDTO;
+import com.aklaa.api.exceptions.ExportNotReadyException;
+import com.aklaa.api.exceptions.TooManyRequestsException;
+import com.aklaa.api.model.Dish;
+import com.aklaa.api.model.User;
+import com.aklaa.api.model.UserDataExportJob;
+import com.aklaa.api.model.enums.CuisineType;
+import com.aklaa.api.model.enums.DishTag;
+import com.aklaa.api.model.enums.ExportJobStatus;
+import com.aklaa.api.model.enums.UserType;
+import com.aklaa.api.services.contract.ExportUserDataService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static com.aklaa.api.services.implementation.InMemoryMinioService.BUCKET_URL;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+// The jobs run on their own threads, so the data they read has to be committed.
+@DataJpaTest(properties = {"users.export.jobs.pool-size=1", "users.export.jobs.queue-capacity=1"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({UserDataExportJobServiceImpl.class, JpaConfig.class, UserDataExportJobServiceImplTest.Config.class})
+class UserDataExportJobServiceImplTest {
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        InMemoryMinioService minioService() {
+            return new InMemoryMinioService();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @MockitoBean
+    private ExportUserDataService exportUserDataService;
+
+    @Autowired
+    private UserDataExportJobServiceImpl userDataExportJobService;
+
+    @Autowired
+    private InMemoryMinioService minioService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DishRepository dishRepository;
+
+    @Autowired
+    private UserDataExportJobRepository jobRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        minioService.objects.clear();
+        minioService.objects.put("uploads/1_pasta.png", new byte[]{1, 2, 3});
+        minioService.objects.put("archives/grocery-lists/1/private.ndjson.gz", new byte[]{4});
+
+        user = user("export-job@example.com");
+        dishRepository.save(dish("Pasta", BUCKET_URL + "uploads/1_pasta.png"));
+        dishRepository.save(dish("Missing", BUCKET_URL + "uploads/2_missing.png"));
+        dishRepository.save(dish("External", "https://example.com/soup.png"));
+        dishRepository.save(dish("Private", BUCKET_URL + "archives/grocery-lists/1/private.ndjson.gz"));
+        dishRepository.save(dish("Traversal", BUCKET_URL + "uploads/../archives/grocery-lists/1/private.ndjson.gz"));
+
+        doAnswer(invocation -> {
+            invocation.getArgument(1, OutputStream.class).write("{\"user\":{}}".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(exportUserDataService).writeUserData(any(), any());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobRepository.deleteAll();
+        dishRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void completedJobHoldsTheDataAndStoredImagesAndCanBeDownloaded() throws Exception {
+        UserDataExportJobDTO job = awaitFinished(userDataExportJobService.submit(user).getId());
+
+        assertThat(job.getStatus()).isEqualTo(ExportJobStatus.COMPLETED);
+        String objectName = UserDataExportJobServiceImpl.PREFIX + user.getId() + "/" + job.getId() + ".zip";
+        Map<String, byte[]> entries = unzip(minioService.objects.get(objectName));
+        assertThat(entries.keySet()).containsExactlyInAnyOrder(
+                UserDataExportJobServiceImpl.DATA_ENTRY,
+                UserDataExportJobServiceImpl.IMAGES_DIRECTORY + "1_pasta.png");
+        assertThat(entries.get(UserDataExportJobServiceImpl.IMAGES_DIRECTORY + "1_pasta.png")).containsExactly(1, 2, 3);
+        assertThat(userDataExportJobService.getDownloadUrl(job.getId(), user)).startsWith(BUCKET_URL + objectName);
+    }
+
+    @Test
+    void exportsBeyondTheWorkersAndQueueOfTheNodeAreRejected() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> release.await(10, TimeUnit.SECONDS)).when(exportUserDataService).writeUserData(any(), any());
+
+        UserDataExportJobDTO running = userDataExportJobService.submit(user);
+        User other = user("queued@example.com");
+        UserDataExportJobDTO queued = userDataExportJobService.submit(other);
+        User rejected = user("rejected@example.com");
+        try {
+            assertThat(userDataExportJobService.submit(user).getId()).isEqualTo(running.getId());
+            assertThatThrownBy(() -> userDataExportJobService.get(queued.getId(), user)).isInstanceOf(NoSuchElementException.class);
+            assertThatThrownBy(() -> userDataExportJobService.submit(rejected)).isInstanceOf(TooManyRequestsException.class);
+            assertThat(jobRepository.findAll()).extracting(UserDataExportJob::getId)
+                    .containsExactlyInAnyOrder(running.getId(), queued.getId());
+            assertThatThrownBy(() -> userDataExportJobService.getDownloadUrl(running.getId(), user))
+                    .isInstanceOf(ExportNotReadyException.class);
+        } finally {
+            release.countDown();
+        }
+
+        assertThat(awaitFinished(running.getId()).getStatus()).isEqualTo(ExportJobStatus.COMPLETED);
+        assertThat(awaitFinished(queued.getId(), other).getStatus()).isEqualTo(ExportJobStatus.COMPLETED);
+    }
+
+    @Test
+    void aJobThatExpiredWhileRunningStaysFailedAndLeavesNoArchive() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> release.await(10, TimeUnit.SECONDS)).when(exportUserDataService).writeUserData(any(), any());
+
+        UserDataExportJobDTO job = userDataExportJobService.submit(user);
+        try {
+            while (userDataExportJobService.get(job.getId(), user).getStatus() != ExportJobStatus.RUNNING) {
+                Thread.sleep(20);
+            }
+            assertThat(userDataExportJobService.get(job.getId(), user).getStartedAt()).isNotNull();
+            jobRepository.findById(job.getId()).ifPresent(expired -> {
+                expired.setStatus(ExportJobStatus.FAILED);
+                expired.setCompletedAt(OffsetDateTime.now(ZoneOffset.UTC));
+                jobRepository.save(expired);
+            });
+        } finally {
+            release.countDown();
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!minioService.listObjects(UserDataExportJobServiceImpl.PREFIX).isEmpty() || executorIsBusy()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(20);
+        }
+        assertThat(userDataExportJobService.get(job.getId(), user).getStatus()).isEqualTo(ExportJobStatus.FAILED);
+    }
+
+    @Test
+    void archivesAreDeletedAfterTheRetentionAndWithTheirUser() throws Exception {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        finishedJob(now.minusDays(8));
+        String recent = finishedJob(now.minusDays(1));
+        String orphan = UserDataExportJobServiceImpl.PREFIX + user.getId() + "/" + UUID.randomUUID() + ".zip";
+        minioService.objects.put(orphan, new byte[0]);
+
+        userDataExportJobService.deleteExportsFinishedBefore(now.minusDays(7));
+
+        assertThat(minioService.listObjects(UserDataExportJobServiceImpl.PREFIX)).containsExactly(objectName(recent));
+        assertThat(jobRepository.findAll()).extracting(UserDataExportJob::getId).containsExactly(recent);
+
+        User other = user("other-export@example.com");
+        String othersObject = UserDataExportJobServiceImpl.PREFIX + other.getId() + "/" + UUID.randomUUID() + ".zip";
+        minioService.objects.put(othersObject, new byte[0]);
+        userDataExportJobService.onUserDeletion(new UserDeletionEvent(user.getId()));
+
+        assertThat(minioService.listObjects(UserDataExportJobServiceImpl.PREFIX)).containsExactly(othersObject);
+    }
+
+    private String finishedJob(OffsetDateTime completedAt) {
+        String id = UUID.randomUUID().toString();
+        jobRepository.save(UserDataExportJob.builder()
+                .id(id)
+                .status(ExportJobStatus.COMPLETED)
+                .objectName(objectName(id))
+                .completedAt(completedAt)
+                .user(user)
+                .build());
+        minioService.objects.put(objectName(id), new byte[0]);
+        return id;
+    }
+
+    private String objectName(String jobId) {
+        return UserDataExportJobServiceImpl.PREFIX + user.getId() + "/" + jobId + ".zip";
+    }
+
+    private boolean executorIsBusy() {
+        return meterRegistry.get("users.export.jobs.active").gauge().value() > 0;
+    }
+
+    private UserDataExportJobDTO awaitFinished(String id) throws InterruptedException {
+        return awaitFinished(id, user);
+    }
+
+    private UserDataExportJobDTO awaitFinished(String id, User owner) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        UserDataExportJobDTO job = userDataExportJobService.get(id, owner);
+        while (!job.getStatus().isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            job = userDataExportJobService.get(id, owner);
+        }
+        return job;
+    }
+
+    private Map<String, byte[]> unzip(byte[] archive) throws Exception {
+        Map<String, byte[]> entries = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.put(entry.getName(), zip.readAllBytes());
+            }
+        }
+        return entries;
+    }
+
+    private User user(String email) {
+        return userRepository.save(User.builder()
+                .firstName("Test")
+                .lastName("User")
+                .email(email)
+                .password("Password1!")
+                .userType(UserType.USER)
+                .enabled(true)
+                .build());
+    }
+
+    private Dish dish(String name, String imageUrl) {
+        return Dish.builder()
+                .name(name)
+                .description("A dish used for testing")
+                .tags(List.of(DishTag.DINNER))
+                .type(CuisineType.ITALIAN)
+                .imageUrl(imageUrl)
+                .people(2)
+                .user(user)
+                .build();
+    }
+}
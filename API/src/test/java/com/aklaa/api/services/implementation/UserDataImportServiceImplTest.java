@@ -0,0 +1,283 @@
+package com.aklaa.api.services.implementation;
+
+import com.aklaa.api.config.JpaConfig;
+import com.aklaa.api.dao.DishRepository;
+import com.aklaa.api.dao.GroceryListRepository;
+import com.aklaa.api.dao.IngredientRepository;
+import com.aklaa.api.dao.UserRepository;
+import com.aklaa.api.dtos.response.UserDTO;
+import com.aklaa.api.dtos.response.UserDataImportResultDTO;
+import com.aklaa.api.mapper.*;
+import com.aklaa.api.model.*;
+import com.aklaa.api.model.enums.*;
+import com.aklaa.api.services.contract.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+// The import manages its own transactions, so the test must not wrap it in one.
+@DataJpaTest(properties = "users.import.chunk-size=2")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+@Import({UserDataImportServiceImpl.class, ExportUserDataServiceImpl.class, IngredientIdentityResolver.class, DishMapper.class, IngredientMapper.class, GroceryListMapper.class, DishIngredientMapper.class, JpaConfig.class, UserDataImportServiceImplTest.StorageConfig.class})
+class UserDataImportServiceImplTest {
+
+    private static final OffsetDateTime MONDAY = OffsetDateTime.parse("2026-10-12T00:00:00Z");
+
+    @TestConfiguration
+    static class StorageConfig {
+        @Bean
+        InMemoryMinioService minioService() {
+            return new InMemoryMinioService();
+        }
+    }
+
+    @MockitoBean
+    private UserService userService;
+
+    @Autowired
+    private UserDataImportServiceImpl userDataImportService;
+
+    @Autowired
+    private ExportUserDataServiceImpl exportUserDataService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private IngredientRepository ingredientRepository;
+
+    @Autowired
+    private DishRepository dishRepository;
+
+    @Autowired
+    private GroceryListRepository groceryListRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private User source;
+    private User target;
+
+    @BeforeEach
+    void setUp() {
+        when(userService.get(any())).thenReturn(new UserDTO());
+
+        source = user("source@example.com");
+        List<Long> ingredients = List.of(
+                ingredient("Tomato", MeasurementUnit.PCS, source).getId(),
+                ingredient("Basil", MeasurementUnit.G, source).getId());
+        for (int i = 0; i < 3; i++) {
+            dish("Dish " + i, ingredients);
+            groceryList(MONDAY.minusWeeks(i), ingredients);
+        }
+
+        // Already owned by the target, so the import must reuse it instead of adding a second tomato.
+        target = user("target@example.com");
+        ingredient("Tomato", MeasurementUnit.PCS, target);
+    }
+
+    @AfterEach
+    void tearDown() {
+        groceryListRepository.deleteAll();
+        dishRepository.deleteAll();
+        ingredientRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void importedDataExportsTheSameAsTheOriginalAndProgressIsReportedPerChunk() throws Exception {
+        List<UserDataImportResultDTO> progress = new ArrayList<>();
+
+        UserDataImportResultDTO result = userDataImportService.importUserData(new ByteArrayInputStream(export(source)), target, progress::add);
+
+        assertThat(result.isDone()).isTrue();
+        assertThat(result.getError()).isNull();
+        // The tomato is matched to the target's own, so only the basil is imported.
+        assertThat(List.of(result.getIngredients(), result.getDishes(), result.getGroceryLists(), result.getFailed()))
+                .containsExactly(1L, 3L, 3L, 0L);
+        // One chunk of ingredients, two of dishes and two of grocery lists, then the final result.
+        assertThat(progress).hasSize(6).last().isEqualTo(result);
+        assertThat(progress.subList(0, 5)).noneMatch(UserDataImportResultDTO::isDone);
+
+        assertThat(withoutIds(export(target))).isEqualTo(withoutIds(export(source)));
+    }
+
+    @Test
+    void readsTheArchiveOfAnExportJobAndKeepsCommittedChunksOfABrokenDocument() throws Exception {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+            zip.putNextEntry(new ZipEntry(UserDataExportJobServiceImpl.DATA_ENTRY));
+            zip.write(export(source));
+            zip.closeEntry();
+        }
+        assertThat(userDataImportService.importUserData(new ByteArrayInputStream(archive.toByteArray()), target, progress -> {}).getDishes())
+                .isEqualTo(3);
+
+        String broken = """
+                {"ingredients": [
+                  {"name": "Salt", "unit": "G", "category": "SPICES"},
+                  {"name": "Pepper", "unit": "G", "category": "SPICES"},
+                  {"name": "Sugar", "unit": "G",
+                """;
+        UserDataImportResultDTO result = userDataImportService.importUserData(
+                new ByteArrayInputStream(broken.getBytes(StandardCharsets.UTF_8)), target, progress -> {});
+
+        assertThat(result.getIngredients()).isEqualTo(2);
+        assertThat(result.getError()).startsWith("Malformed JSON");
+        assertThat(ingredientRepository.findByUserOrderByNameAsc(target))
+                .extracting(Ingredient::getName)
+                .containsExactly("Basil", "Pepper", "Salt", "Tomato");
+    }
+
+    @Test
+    void ingredientsCreatedForAFailedDishAreCountedAndPrivateImagesAreRejected() {
+        String document = """
+                {"dishes": [
+                  {"name": "Private", "description": "Points at an archive", "tags": ["DINNER"], "type": "ITALIAN", "people": 2,
+                   "imageUrl": "%1$sarchives/grocery-lists/1/private.ndjson.gz",
+                   "ingredients": [{"ingredient": {"name": "Pepper", "unit": "G", "category": "SPICES"}, "quantity": 1}]},
+                  {"name": "Twice", "description": "Needs saffron twice", "tags": ["DINNER"], "type": "ITALIAN", "people": 2,
+                   "imageUrl": "%1$suploads/1_twice.png",
+                   "ingredients": [{"ingredient": {"name": "Saffron", "unit": "G", "category": "SPICES"}, "quantity": 1},
+                                   {"ingredient": {"name": "Saffron", "unit": "G", "category": "SPICES"}, "quantity": 2}]}
+                ]}
+                """.formatted(InMemoryMinioService.BUCKET_URL);
+
+        UserDataImportResultDTO result = userDataImportService.importUserData(
+                new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8)), target, progress -> {});
+
+        assertThat(List.of(result.getIngredients(), result.getDishes(), result.getFailed())).containsExactly(1L, 0L, 2L);
+        assertThat(ingredientRepository.findByUserOrderByNameAsc(target))
+                .extracting(Ingredient::getName)
+                .containsExactly("Saffron", "Tomato");
+    }
+
+    private byte[] export(User user) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportUserDataService.writeUserData(user, out);
+        return out.toByteArray();
+    }
+
+    private JsonNode withoutIds(byte[] export) throws Exception {
+        JsonNode tree = objectMapper.readTree(export);
+        ((ObjectNode) tree).remove("user");
+        removeIds(tree);
+        return tree;
+    }
+
+    private void removeIds(JsonNode node) {
+        if (node instanceof ObjectNode object) {
+            object.remove("id");
+        }
+        node.forEach(this::removeIds);
+    }
+
+    private User user(String email) {
+        return userRepository.save(User.builder()
+                .firstName("Test")
+                .lastName("User")
+                .email(email)
+                .password("Password1!")
+                .userType(UserType.USER)
+                .enabled(true)
+                .build());
+    }
+
+    private Ingredient ingredient(String name, MeasurementUnit unit, User user) {
+        return ingredientRepository.save(Ingredient.builder()
+                .name(name)
+                .category(IngredientCategory.VEGETABLES)
+                .unit(unit)
+                .user(user)
+                .build());
+    }
+
+    private void dish(String name, List<Long> ingredients) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Dish dish = Dish.builder()
+                    .name(name)
+                    .description("A dish used for testing")
+                    .tags(List.of(DishTag.DINNER))
+                    .type(CuisineType.ITALIAN)
+                    .imageUrl("/images/dish.png")
+                    .people(2)
+                    .user(source)
+                    .build();
+            for (Long id : ingredients) {
+                Ingredient ingredient = ingredientRepository.getReferenceById(id);
+                dish.getDishIngredients().add(DishIngredient.builder()
+                        .id(new DishIngredientKey(null, ingredient.getId()))
+                        .dish(dish)
+                        .ingredient(ingredient)
+                        .quantity(BigDecimal.TWO)
+                        .build());
+            }
+            dish.addStep(RecipeStep.builder()
+                    .orderIndex(1)
+                    .recipeStep("Cook everything")
+                    .dish(dish)
+                    .build());
+            dishRepository.save(dish);
+        });
+    }
+
+    // The first item is checked, the second is not.
+    private void groceryList(OffsetDateTime startOfWeek, List<Long> ingredients) {
+        transactionTemplate.executeWithoutResult(status -> {
+            GroceryList groceryList = GroceryList.builder()
+                    .startOfWeek(startOfWeek)
+                    .endOfWeek(startOfWeek.plusDays(6))
+                    .user(source)
+                    .build();
+            for (Long id : ingredients) {
+                Ingredient ingredient = ingredientRepository.getReferenceById(id);
+                groceryList.getGroceryListIngredients().add(GroceryListIngredient.builder()
+                        .id(new GroceryListIngredientKey(null, ingredient.getId()))
+                        .groceryList(groceryList)
+                        .ingredient(ingredient)
+                        .quantity(BigDecimal.ONE)
+                        .slot(groceryList.getGroceryListIngredients().size())
+                        .build());
+            }
+            groceryListRepository.saveAndFlush(groceryList);
+
+            BitSet checked = new BitSet();
+            checked.set(0);
+            groceryListRepository.updateCheckedItems(groceryList.getId(), checked.toByteArray());
+        });
+    }
+}
@@ -0,0 +1,106 @@
+package com.aklaa.api.services.implementation;
+
+import com.aklaa.api.dao.UserTokenRepository;
+import com.aklaa.api.model.User;
+import com.aklaa.api.model.UserToken;
+import com.aklaa.api.model.enums.TokenPurpose;
+import com.aklaa.api.model.enums.UserType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@Import(UserTokenServiceImpl.class)
+class UserTokenServiceImplTest {
+
+    @Autowired
+    private UserTokenServiceImpl userTokenService;
+
+    @Autowired
+    private UserTokenRepository userTokenRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = entityManager.persist(User.builder()
+                .firstName("Test")
+                .lastName("User")
+                .email("tokens@example.com")
+                .password("Password1!")
+                .userType(UserType.USER)
+                .enabled(true)
+                .build());
+    }
+
+    @Test
+    void storesOnlyTheHashOfTheRawToken() throws Exception {
+        String rawToken = userTokenService.issue(user, TokenPurpose.PASSWORD_RESET);
+        entityManager.flush();
+        entityManager.clear();
+
+        String expectedHash = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        assertThat(userTokenRepository.findAll())
+                .singleElement()
+                .satisfies(token -> {
+                    assertThat(token.getTokenHash()).isEqualTo(expectedHash).isNotEqualTo(rawToken);
+                    assertThat(token.getPurpose()).isEqualTo(TokenPurpose.PASSWORD_RESET);
+                });
+        assertThat(userTokenRepository.findById(rawToken)).isEmpty();
+        assertThat(userTokenService.findValid(rawToken, TokenPurpose.PASSWORD_RESET)).isPresent();
+    }
+
+    @Test
+    void tokenCanOnlyBeUsedOnceAndOnlyForItsPurpose() {
+        String rawToken = userTokenService.issue(user, TokenPurpose.PASSWORD_RESET);
+
+        assertThat(userTokenService.findValid(rawToken, TokenPurpose.EMAIL_CHANGE)).isEmpty();
+        UserToken token = userTokenService.findValid(rawToken, TokenPurpose.PASSWORD_RESET).orElseThrow();
+
+        userTokenService.consume(token);
+        entityManager.flush();
+
+        assertThat(userTokenService.findValid(rawToken, TokenPurpose.PASSWORD_RESET)).isEmpty();
+        assertThat(userTokenRepository.count()).isZero();
+    }
+
+    @Test
+    void expiredTokenIsRejectedAndDeletedBySweep() {
+        String expiredToken = userTokenService.issue(user, TokenPurpose.ACCOUNT_ACTIVATION);
+        String validToken = userTokenService.issue(user, TokenPurpose.EMAIL_CHANGE);
+        entityManager.flush();
+
+        UserToken expired = userTokenRepository.findAll().stream()
+                .filter(t -> t.getPurpose() == TokenPurpose.ACCOUNT_ACTIVATION)
+                .findFirst()
+                .orElseThrow();
+        expired.setExpiresAt(OffsetDateTime.now(ZoneOffset.UTC).minusSeconds(1));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(userTokenService.findValid(expiredToken, TokenPurpose.ACCOUNT_ACTIVATION)).isEmpty();
+        assertThat(userTokenService.findValid(validToken, TokenPurpose.EMAIL_CHANGE)).isPresent();
+
+        userTokenService.deleteExpiredTokensAutomatically();
+        entityManager.clear();
+
+        assertThat(userTokenRepository.findAll())
+                .extracting(UserToken::getPurpose)
+                .containsExactly(TokenPurpose.EMAIL_CHANGE);
+    }
+}